@@ -0,0 +1,40 @@
+/*
+ * Benchmarks.java
+ */
+
+// ----- Package ----- //
+
+package minesweeper.bench;
+
+// ----- Imports ----- //
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Benchmarks class. Entry point of the benchmarks jar.
+ * Takes the usual JMH options, and always enables the GC profiler
+ * so that the allocation rate of each benchmark is reported.
+ *
+ * @author Baert Quentin
+ */
+
+public class Benchmarks {
+	/**
+	 * @param args 	JMH options, for example "BoardBenchmark.win -p size=4096".
+	 * @exception 	If the options are wrong or a benchmark fails.
+	 */
+	public static void main (String[] args) throws CommandLineOptionException, RunnerException {
+		Options options = new OptionsBuilder()
+				.parent(new CommandLineOptions(args))
+				.addProfiler(GCProfiler.class)
+				.build();
+
+		new Runner(options).run();
+	}
+} // Benchmarks
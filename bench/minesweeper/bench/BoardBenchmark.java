@@ -0,0 +1,154 @@
+/*
+ * BoardBenchmark.java
+ */
+
+// ----- Package ----- //
+
+package minesweeper.bench;
+
+// ----- Imports ----- //
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import minesweeper.Board;
+import minesweeper.Location;
+
+/**
+ * BoardBenchmark class. Benchmarks of the hot paths of the board.
+ * Boards are square, from 10x10 to 4096x4096, with 10% to 90% of mines.
+ * The cascade is measured apart, in CascadeBenchmark.
+ *
+ * @author Baert Quentin
+ */
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g"})
+public class BoardBenchmark {
+	// ----- Attributes ----- //
+
+	/**
+	 * Seed of the boards.
+	 */
+	private static final long SEED = 42L;
+
+	/**
+	 * Number of locations described in turn.
+	 */
+	private static final int LOCATIONS = 1024;
+
+	/**
+	 * Width and height of the board.
+	 */
+	@Param({"10", "100", "1000", "4096"})
+	public int size;
+
+	/**
+	 * Percentage of undermined squares.
+	 */
+	@Param({"10", "50", "90"})
+	public int density;
+
+	/**
+	 * Number of mines of the board.
+	 */
+	private int nbOfMines;
+
+	/**
+	 * Board partially discovered, for the queries.
+	 */
+	private Board board;
+
+	/**
+	 * Locations described in turn.
+	 */
+	private Location[] locations;
+
+	/**
+	 * Next location described.
+	 */
+	private int next;
+
+	/**
+	 * Standard output, replaced by a null sink during the display benchmark.
+	 */
+	private PrintStream out;
+
+	// ----- Methods ----- //
+
+	@Setup(Level.Trial)
+	public void setUp () {
+		SplittableRandom alea = new SplittableRandom(SEED);
+
+		this.nbOfMines = (this.density * this.size * this.size) / 100;
+		this.board 	   = new Board(this.size, this.size);
+		this.board.init(this.nbOfMines, SEED, this.size / 2, this.size / 2);
+		this.board.reveal(this.size / 2, this.size / 2);
+
+		this.locations = new Location[LOCATIONS];
+
+		for (int i = 0; i < LOCATIONS; i++) {
+			int x = alea.nextInt(this.size);
+			int y = alea.nextInt(this.size);
+
+			this.locations[i] = new Location(x, y);
+			this.board.getSquareAt(this.locations[i]).discover();
+		}
+
+		this.out = System.out;
+		System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown () {
+		System.setOut(this.out);
+	}
+
+	@Benchmark
+	public Board init () {
+		Board b = new Board(this.size, this.size);
+
+		b.init(this.nbOfMines, SEED);
+
+		return b;
+	}
+
+	@Benchmark
+	public String describeSquareAt () {
+		Location l = this.locations[this.next];
+
+		this.next = (this.next + 1) & (LOCATIONS - 1);
+
+		return this.board.describeSquareAt(l);
+	}
+
+	@Benchmark
+	public boolean win () {
+		return this.board.win();
+	}
+
+	@Benchmark
+	public void display () {
+		this.board.display();
+	}
+} // BoardBenchmark
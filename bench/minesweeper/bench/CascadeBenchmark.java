@@ -0,0 +1,79 @@
+/*
+ * CascadeBenchmark.java
+ */
+
+// ----- Package ----- //
+
+package minesweeper.bench;
+
+// ----- Imports ----- //
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import minesweeper.Board;
+
+/**
+ * CascadeBenchmark class. Benchmark of the first reveal of a board, with its cascade of zero squares
+ * (the cascade of Window.ButtonListener.nextTo before it moved to Board.reveal).
+ * Each invocation works on a fresh board, built out of the measure.
+ *
+ * @author Baert Quentin
+ */
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 20)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g"})
+public class CascadeBenchmark {
+	// ----- Attributes ----- //
+
+	/**
+	 * Seed of the boards.
+	 */
+	private static final long SEED = 42L;
+
+	/**
+	 * Width and height of the board.
+	 */
+	@Param({"10", "100", "1000", "4096"})
+	public int size;
+
+	/**
+	 * Percentage of undermined squares.
+	 */
+	@Param({"10", "50", "90"})
+	public int density;
+
+	/**
+	 * Fresh board revealed.
+	 */
+	private Board board;
+
+	// ----- Methods ----- //
+
+	@Setup(Level.Invocation)
+	public void setUp () {
+		this.board = new Board(this.size, this.size);
+		this.board.init((this.density * this.size * this.size) / 100, SEED, this.size / 2, this.size / 2);
+	}
+
+	@Benchmark
+	public int[] reveal () {
+		return this.board.reveal(this.size / 2, this.size / 2);
+	}
+} // CascadeBenchmark
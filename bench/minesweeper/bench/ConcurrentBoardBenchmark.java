@@ -0,0 +1,199 @@
+/*
+ * ConcurrentBoardBenchmark.java
+ */
+
+// ----- Package ----- //
+
+package minesweeper.bench;
+
+// ----- Imports ----- //
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import minesweeper.Board;
+import minesweeper.ConcurrentBoard;
+
+/**
+ * ConcurrentBoardBenchmark class. Contention on a board shared by all the threads : each operation
+ * reveals a random square or puts / removes a flag on it, either on a ConcurrentBoard or on a Board
+ * behind a single lock. The squares are drawn from a region of size x size squares : a small region
+ * makes the threads fight for the same longs.
+ * Only hidden squares are drawn, and never a mine for a reveal, so that the board is not lost :
+ * it is replaced by a new one once three quarters of its safe squares are discovered, so that
+ * the operations keep changing squares instead of finding them already discovered.
+ * Run main to scale from 1 to 64 threads, or the usual runner with -t.
+ *
+ * @author Baert Quentin
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ConcurrentBoardBenchmark {
+	// ----- Attributes ----- //
+
+	/**
+	 * Width and height of the region played.
+	 */
+	@Param({"64", "2048"})
+	public int size;
+
+	/**
+	 * Board whose mines are played, copied by each new board.
+	 */
+	private Board template;
+
+	/**
+	 * Number of squares discovered from which a board is replaced.
+	 */
+	private int threshold;
+
+	/**
+	 * Board shared without lock.
+	 */
+	private final AtomicReference<ConcurrentBoard> shared = new AtomicReference<ConcurrentBoard>();
+
+	/**
+	 * Board shared behind a lock.
+	 */
+	private Board locked;
+
+	// ----- Methods ----- //
+
+	/**
+	 * Create new boards for each iteration, with 15% of mines.
+	 */
+	@Setup(Level.Iteration)
+	public void setUp () {
+		this.template  = this.newBoard();
+		this.threshold = (3 * (this.size * this.size - this.template.getNbOfMines())) / 4;
+
+		this.shared.set(new ConcurrentBoard(this.template));
+		this.locked = this.newBoard();
+	}
+
+	/**
+	 * Create a board with the mines of the template.
+	 * @return new board.
+	 */
+	private Board newBoard () {
+		Board b = new Board(this.size, this.size);
+
+		b.init((15 * this.size * this.size) / 100, 1, this.size / 2, this.size / 2);
+
+		return b;
+	}
+
+	@Benchmark
+	public int cas (Player p) {
+		ConcurrentBoard b = this.shared.get();
+
+		if (b.getNbOfDiscovered() >= this.threshold) {
+			// The first thread to see it replaces the board, the others play on the new one
+			this.shared.compareAndSet(b, new ConcurrentBoard(this.template));
+			b = this.shared.get();
+		}
+
+		boolean reveal = p.alea.nextBoolean();
+		int 		 i;
+
+		do {
+			// The other threads may have discovered the whole board meanwhile
+			if (b.getNbOfDiscovered() >= this.threshold) {
+				return 0;
+			}
+
+			i = p.alea.nextInt(this.size * this.size);
+		} while (b.isDiscovered(i % this.size, i / this.size) || (reveal && this.template.isUndermined(i)));
+
+		int x = i % this.size;
+		int y = i / this.size;
+
+		if (reveal) {
+			return b.reveal(x, y).length;
+		}
+		else {
+			return (b.putFlag(x, y) || b.removeFlag(x, y)) ? 1 : 0;
+		}
+	}
+
+	@Benchmark
+	public int lock (Player p) {
+		boolean reveal = p.alea.nextBoolean();
+
+		synchronized (this) {
+			if (this.locked.getNbOfDiscovered() >= this.threshold) {
+				this.locked = this.newBoard();
+			}
+
+			int i;
+
+			do {
+				i = p.alea.nextInt(this.size * this.size);
+			} while (this.locked.isDiscovered(i) || (reveal && this.template.isUndermined(i)));
+
+			if (reveal) {
+				return this.locked.reveal(i);
+			}
+			else if (this.locked.hasFlag(i)) {
+				this.locked.removeFlag(i);
+			}
+			else {
+				this.locked.putFlag(i);
+			}
+
+			return 1;
+		}
+	}
+
+	/**
+	 * @param args 	not used.
+	 * @exception 	If a benchmark fails.
+	 */
+	public static void main (String[] args) throws RunnerException {
+		for (int threads = 1; threads <= 64; threads *= 2) {
+			new Runner(new OptionsBuilder()
+					.include(ConcurrentBoardBenchmark.class.getSimpleName())
+					.addProfiler(GCProfiler.class)
+					.threads(threads)
+					.build()).run();
+		}
+	}
+
+	// ----- Internal classes ----- //
+
+	/**
+	 * Player class. Random squares of a thread.
+	 *
+	 * @author Baert Quentin
+	 */
+	@State(Scope.Thread)
+	public static class Player {
+		/**
+		 * Random stream of the squares.
+		 */
+		SplittableRandom alea = new SplittableRandom(Thread.currentThread().getId());
+	}
+} // ConcurrentBoardBenchmark
@@ -0,0 +1,114 @@
+/*
+ * JournalBenchmark.java
+ */
+
+// ----- Package ----- //
+
+package minesweeper.bench;
+
+// ----- Imports ----- //
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import minesweeper.Board;
+import minesweeper.journal.Journal;
+import minesweeper.journal.Outcome;
+import minesweeper.journal.Replayer;
+
+/**
+ * JournalBenchmark class. Replay throughput of the journals, in moves per second,
+ * on a journal of MOVES random moves on a 2000x2000 board.
+ *
+ * @author Baert Quentin
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class JournalBenchmark {
+	// ----- Attributes ----- //
+
+	/**
+	 * Number of moves of the journal replayed.
+	 */
+	private static final int MOVES = 1000000;
+
+	/**
+	 * Journal replayed.
+	 */
+	private Path replayed;
+
+	// ----- Methods ----- //
+
+	/**
+	 * Write the journal replayed : discoveries of random squares, flags put and removed on random mines.
+	 * @exception 	If the journal can not be written.
+	 */
+	@Setup(Level.Trial)
+	public void setUp () throws IOException {
+		SplittableRandom alea = new SplittableRandom(1);
+		Board 			 b 	  = new Board(2000, 2000);
+
+		this.replayed = Files.createTempFile("replayed", ".msj");
+		b.init(600000, 1, 1000, 1000);
+
+		try (Journal j = new Journal(this.replayed, b, 1000, 1000)) {
+			b.reveal(1000, 1000);
+			j.discover(1000, 1000);
+
+			for (int n = 1; n < MOVES; n++) {
+				int x = alea.nextInt(2000);
+				int y = alea.nextInt(2000);
+
+				if (!b.isUndermined(x, y)) {
+					b.reveal(x, y);
+					j.discover(x, y);
+				}
+				else if (b.hasFlag(x, y)) {
+					b.removeFlag(x, y);
+					j.removeFlag(x, y);
+				}
+				else {
+					b.putFlag(x, y);
+					j.putFlag(x, y);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Delete the journal.
+	 * @exception 	If the journal can not be deleted.
+	 */
+	@TearDown(Level.Trial)
+	public void tearDown () throws IOException {
+		Files.delete(this.replayed);
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(MOVES)
+	public Outcome replay () throws IOException {
+		return Replayer.replay(this.replayed).getReplayedOutcome();
+	}
+} // JournalBenchmark
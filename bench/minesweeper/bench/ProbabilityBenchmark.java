@@ -0,0 +1,96 @@
+/*
+ * ProbabilityBenchmark.java
+ */
+
+// ----- Package ----- //
+
+package minesweeper.bench;
+
+// ----- Imports ----- //
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import minesweeper.Board;
+import minesweeper.solver.ProbabilityEngine;
+import minesweeper.solver.Solver;
+
+/**
+ * ProbabilityBenchmark class. Time of the exact probabilities on expert boards (30x16, 99 mines),
+ * in milliseconds. The positions are the ones where the solver is stuck, the gamer needing a hint.
+ * Target : under 50 ms.
+ *
+ * @author Baert Quentin
+ */
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProbabilityBenchmark {
+	// ----- Attributes ----- //
+
+	/**
+	 * Number of positions.
+	 */
+	private static final int POSITIONS = 256;
+
+	/**
+	 * Engine, reused for all the positions.
+	 */
+	private final ProbabilityEngine engine = new ProbabilityEngine(30, 16);
+
+	/**
+	 * Positions where the solver is stuck.
+	 */
+	private Board[] positions;
+
+	/**
+	 * Index of the next position.
+	 */
+	private int next;
+
+	// ----- Methods ----- //
+
+	/**
+	 * Create the positions, with a timeout long enough to measure the exact computation.
+	 */
+	@Setup
+	public void setUp () {
+		Solver solver = new Solver(30, 16);
+		int 	 seed = 0;
+
+		this.positions = new Board[POSITIONS];
+		this.engine.setTimeout(60000);
+
+		for (int k = 0; k < POSITIONS; seed++) {
+			Board b = new Board(30, 16);
+
+			b.init(99, seed, 15, 8);
+			b.reveal(15, 8);
+
+			if (!solver.solve(b)) {
+				this.positions[k++] = b;
+			}
+		}
+	}
+
+	@Benchmark
+	public boolean hintExpert () {
+		Board b = this.positions[this.next++ % POSITIONS];
+
+		return this.engine.compute(b);
+	}
+} // ProbabilityBenchmark
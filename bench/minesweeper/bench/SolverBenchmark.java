@@ -0,0 +1,64 @@
+/*
+ * SolverBenchmark.java
+ */
+
+// ----- Package ----- //
+
+package minesweeper.bench;
+
+// ----- Imports ----- //
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import minesweeper.Board;
+import minesweeper.solver.Solver;
+
+/**
+ * SolverBenchmark class. Throughput of the solver on expert boards (30x16, 99 mines),
+ * in boards per second. Each operation generates a board with a safe first click and
+ * plays it as far as deductions go. Target : 10 000 boards per second.
+ *
+ * @author Baert Quentin
+ */
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SolverBenchmark {
+	// ----- Attributes ----- //
+
+	/**
+	 * Solver, reused for all the boards.
+	 */
+	private final Solver solver = new Solver(30, 16);
+
+	/**
+	 * Seed of the next board.
+	 */
+	private long seed;
+
+	// ----- Methods ----- //
+
+	@Benchmark
+	public boolean solveExpert () {
+		Board b = new Board(30, 16);
+
+		b.init(99, this.seed++, 15, 8);
+		b.reveal(15, 8);
+
+		return this.solver.solve(b);
+	}
+} // SolverBenchmark
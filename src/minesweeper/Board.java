@@ -8,12 +8,18 @@ package minesweeper;
 
 // ----- Imports ----- //
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Random;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import minesweeper.metrics.Metrics;
 
 /**
  * Board class. Board in the minesweeper game.
+ * The state of the squares is kept in a packed storage (three bits per square),
+ * the squares given by getSquareAt being views on this storage.
+ * The neighbours of the squares are given by the topology of the board (square grid by default).
  * 
  * @author Baert Quentin
  */
@@ -22,9 +28,117 @@ public class Board {
 	// ----- Attributes ----- //
 	
 	/**
-	 * Squares on the board.
+	 * Move of apply : discover a square.
+	 */
+	public static final int REVEAL = 0;
+	
+	/**
+	 * Move of apply : put a flag on a square.
+	 */
+	public static final int FLAG = 1 << 30;
+	
+	/**
+	 * Move of apply : remove the flag of a square.
+	 */
+	public static final int UNFLAG = 2 << 30;
+	
+	/**
+	 * Move of apply : chord on a square.
+	 */
+	public static final int CHORD = 3 << 30;
+	
+	/**
+	 * Bits of the type of a packed move.
+	 */
+	private static final int MOVE_MASK = 3 << 30;
+	
+	/**
+	 * State of the squares on the board.
+	 */
+	private CellStorage storage;
+	
+	/**
+	 * Number of undermined squares around each square, indexed as the storage.
+	 */
+	private byte[] counts;
+	
+	/**
+	 * Number of undermined squares on the board.
+	 */
+	private int nbOfMines;
+	
+	/**
+	 * Number of discovered squares on the board.
+	 */
+	private int nbOfDiscovered;
+	
+	/**
+	 * Number of discovered squares which are undermined.
+	 */
+	private int nbOfDiscoveredMines;
+	
+	/**
+	 * Seed of the last placement of the mines.
+	 */
+	private long seed;
+	
+	/**
+	 * Squares changed by the last reveal, chord or apply, in order, also used as queue by the cascade.
+	 */
+	private int[] revealed;
+	
+	/**
+	 * Number of squares discovered by the last reveal.
+	 */
+	private int nbOfRevealed;
+	
+	/**
+	 * Renderer used to display this board, created at the first display.
+	 */
+	private TextRenderer renderer;
+	
+	/**
+	 * Number of the calls sampled by the metrics, started from the seed so that short games are sampled too.
+	 */
+	private int ticks;
+	
+	/**
+	 * Descriptions of a discovered square, by number of mines around it.
+	 */
+	private static final String[] NUMBERS = {
+		" 0 ", " 1 ", " 2 ", " 3 ", " 4 ", " 5 ", " 6 ", " 7 ", " 8 "
+	};
+	
+	/**
+	 * State of a square with a flag on, in the keys of the hash (0 to 8 : discovered with this number of mines
+	 * around it, 9 : undermined and discovered).
+	 */
+	private static final int FLAGGED = 10;
+	
+	/**
+	 * Zobrist hash of the state seen by the gamer.
+	 */
+	private long hash;
+	
+	/**
+	 * Neighbours of the squares.
+	 */
+	private final Topology topology;
+	
+	/**
+	 * Class of each square in the topology (unsigned), null if each square is its own class.
+	 */
+	private final byte[] classes;
+	
+	/**
+	 * Start of the neighbours of each class in deltas, and end of the last one.
+	 */
+	private final int[] offsets;
+	
+	/**
+	 * Offsets from the index of a square to its neighbours, class after class.
 	 */
-	private Square[][] squares;
+	private final int[] deltas;
 	
 	/**
 	 * Width of the board.
@@ -39,23 +153,124 @@ public class Board {
 	// ----- Methods ----- //
 	
 	/**
-	 * Constructor of the Board class. A new construct board only have empty square.
+	 * Constructor of the Board class. A new construct board only have empty square, on a square grid.
 	 * @param width 	width of the board.
 	 * @param height 	height of the board.
 	 */
 	public Board (int width, int height) {
-		this.width 	= width;
-		this.height = height;
-		
-		Square[][] res = new Square[width][height];
+		this(Topology.square(width, height));
+	}
+	
+	/**
+	 * Constructor of the Board class, with the neighbours of the squares given by a topology.
+	 * @param topology 	topology of the board, which gives its size.
+	 */
+	public Board (Topology topology) {
+		this.topology = topology;
+		this.classes  = topology.classes();
+		this.offsets  = topology.offsets();
+		this.deltas   = topology.deltas();
+		this.width 	  = topology.getWidth();
+		this.height   = topology.getHeight();
+		this.storage  = new CellStorage(Math.multiplyExact(this.width, this.height));
+		this.counts   = new byte[this.storage.size()];
+		this.revealed = new int[64];
+		this.hash 	  = this.base();
+	}
+	
+	/**
+	 * Give the width of this board.
+	 * @return width of this board.
+	 */
+	public int getWidth () {
+		return this.width;
+	}
+	
+	/**
+	 * Give the height of this board.
+	 * @return height of this board.
+	 */
+	public int getHeight () {
+		return this.height;
+	}
+	
+	/**
+	 * Give the topology of this board.
+	 * @return neighbours of the squares.
+	 */
+	public Topology getTopology () {
+		return this.topology;
+	}
+	
+	/**
+	 * Give the class of the square at index i in the topology : its neighbours are i + deltas[k],
+	 * for k from offsets[c] to offsets[c + 1].
+	 * @param i 	index of the square.
+	 * @return 		class c of the square.
+	 */
+	private int classOf (int i) {
+		return (this.classes != null) ? (this.classes[i] & 0xFF) : i;
+	}
+	
+	/**
+	 * Give the number of undermined squares of this board.
+	 * @return number of mines.
+	 */
+	public int getNbOfMines () {
+		return this.nbOfMines;
+	}
+	
+	/**
+	 * Give the number of discovered squares of this board.
+	 * @return number of discovered squares.
+	 */
+	public int getNbOfDiscovered () {
+		return this.nbOfDiscovered;
+	}
+	
+	/**
+	 * Give the storage of the squares state.
+	 * @return storage of the squares state.
+	 */
+	CellStorage storage () {
+		return this.storage;
+	}
+
+	/**
+	 * Give the number of undermined squares around each square, indexed as the storage.
+	 * @return numbers of mines around the squares.
+	 */
+	byte[] counts () {
+		return this.counts;
+	}
+
+	/**
+	 * Give the index in the storage of the square at the location past in parameter.
+	 * @param x 	abscissa of the square.
+	 * @param y 	ordinate of the square.
+	 * @return 		index of the square.
+	 * @exception 	If the location is outside of the board.
+	 */
+	int indexOf (int x, int y) throws IndexOutOfBoundsException {
+		if ((x < 0) || (x >= this.width) || (y < 0) || (y >= this.height)) {
+			throw new IndexOutOfBoundsException("The location (" + x + ", " + y + ") is outside of the board.");
+		}
 		
-		for (int y = 0; y < height; y++) {
-			for (int x = 0; x < width; x++) {
-				res[x][y] = new Square(new Location(x, y));
-			}
+		return y * this.width + x;
+	}
+	
+	/**
+	 * Check an index of the storage.
+	 * @param i 	index of a square.
+	 * @return 		i.
+	 * @exception 	If there is no square at this index.
+	 */
+	private int checkIndex (int i) throws IndexOutOfBoundsException {
+		if ((i < 0) || (i >= this.storage.size())) {
+			throw new IndexOutOfBoundsException("The index " + i + " is outside of the board.");
 		}
 		
-		this.squares = res;
+		return i;
 	}
 	
 	/**
@@ -67,62 +282,847 @@ public class Board {
 		int x = l.getX();
 		int y = l.getY();
 
-		return this.squares[x][y];
+		return new Square(this, l, this.indexOf(x, y));
 	}
 	
 	/**
-	 * Initialize this board with the number of mines past in parameter.
+	 * Return the square at the location past in parameter.
+	 * @param x 	abscissa of the square.
+	 * @param y 	ordinate of the square.
+	 * @return 		square at the location (x, y).
+	 */
+	public Square getSquareAt (int x, int y) {
+		return new Square(this, Location.of(x, y), this.indexOf(x, y));
+	}
+	
+	/**
+	 * Determine if the square at the location past in parameter is undermined.
+	 * @param x 	abscissa of the square.
+	 * @param y 	ordinate of the square.
+	 * @return 		true if the square is undermined, false otherwise.
+	 */
+	public boolean isUndermined (int x, int y) {
+		return this.storage.isMine(this.indexOf(x, y));
+	}
+	
+	/**
+	 * Determine if the square at index i is undermined.
+	 * @param i 	index (y * width + x) of the square.
+	 * @return 		true if the square is undermined, false otherwise.
+	 */
+	public boolean isUndermined (int i) {
+		return this.storage.isMine(this.checkIndex(i));
+	}
+	
+	/**
+	 * Determine if the square at the location past in parameter is discovered.
+	 * @param x 	abscissa of the square.
+	 * @param y 	ordinate of the square.
+	 * @return 		true if the square is discovered, false otherwise.
+	 */
+	public boolean isDiscovered (int x, int y) {
+		return this.storage.isDiscovered(this.indexOf(x, y));
+	}
+	
+	/**
+	 * Determine if the square at index i is discovered.
+	 * @param i 	index (y * width + x) of the square.
+	 * @return 		true if the square is discovered, false otherwise.
+	 */
+	public boolean isDiscovered (int i) {
+		return this.storage.isDiscovered(this.checkIndex(i));
+	}
+	
+	/**
+	 * Tell if the square at the location past in parameter has a flag on.
+	 * @param x 	abscissa of the square.
+	 * @param y 	ordinate of the square.
+	 * @return 		true if the square has a flag on, false otherwise.
+	 */
+	public boolean hasFlag (int x, int y) {
+		return this.storage.hasFlag(this.indexOf(x, y));
+	}
+	
+	/**
+	 * Tell if the square at index i has a flag on.
+	 * @param i 	index (y * width + x) of the square.
+	 * @return 		true if the square has a flag on, false otherwise.
+	 */
+	public boolean hasFlag (int i) {
+		return this.storage.hasFlag(this.checkIndex(i));
+	}
+
+	/**
+	 * Put a flag on the square at the location past in parameter. Nothing is done on a discovered square.
+	 * @param x 	abscissa of the square.
+	 * @param y 	ordinate of the square.
+	 */
+	public void putFlag (int x, int y) {
+		this.flag(this.indexOf(x, y), true);
+	}
+
+	/**
+	 * Put a flag on the square at index i. Nothing is done on a discovered square.
+	 * @param i 	index (y * width + x) of the square.
+	 */
+	public void putFlag (int i) {
+		this.flag(this.checkIndex(i), true);
+	}
+
+	/**
+	 * Remove the flag of the square at the location past in parameter. Nothing is done on a discovered square.
+	 * @param x 	abscissa of the square.
+	 * @param y 	ordinate of the square.
+	 */
+	public void removeFlag (int x, int y) {
+		this.flag(this.indexOf(x, y), false);
+	}
+
+	/**
+	 * Remove the flag of the square at index i. Nothing is done on a discovered square.
+	 * @param i 	index (y * width + x) of the square.
+	 */
+	public void removeFlag (int i) {
+		this.flag(this.checkIndex(i), false);
+	}
+
+	/**
+	 * Put or remove the flag of the square at index i, keeping the hash up to date.
+	 * The flag of a discovered square is never changed, as by apply.
+	 * @param i 		index of the square.
+	 * @param value 	true to put a flag, false to remove it.
+	 */
+	private void flag (int i, boolean value) {
+		if (!this.storage.isDiscovered(i) && (this.storage.hasFlag(i) != value)) {
+			this.storage.setFlag(i, value);
+			this.hash ^= key(i, FLAGGED);
+		}
+	}
+	
+	/**
+	 * Give the memory used by the state of this board for one square, in bytes.
+	 * The former layout (a Square and a Location object per square) used about 50 bytes per square.
+	 * @return bytes used per square.
+	 */
+	public double bytesPerCell () {
+		return this.storage.bytesPerCell() + 1 + this.topology.bytesPerCell();
+	}
+	
+	/**
+	 * Give the number of undermined squares around the square at the location past in parameter.
+	 * @param l 	location of the square.
+	 * @return 		number of mines around the square at location l.
+	 */
+	public int getMinesAround (Location l) {
+		return this.getMinesAround(l.getX(), l.getY());
+	}
+	
+	/**
+	 * Give the number of undermined squares around the square at the location past in parameter.
+	 * @param x 	abscissa of the square.
+	 * @param y 	ordinate of the square.
+	 * @return 		number of mines around the square.
+	 */
+	public int getMinesAround (int x, int y) {
+		return this.counts[this.indexOf(x, y)];
+	}
+	
+	/**
+	 * Give the number of undermined squares around the square at index i.
+	 * @param i 	index (y * width + x) of the square.
+	 * @return 		number of mines around the square.
+	 */
+	public int getMinesAround (int i) {
+		return this.counts[this.checkIndex(i)];
+	}
+	
+	/**
+	 * Put or remove the mine under the square at index i, keeping the number of mines around its neighbours up to date.
+	 * @param i 		index of the square.
+	 * @param value 	true to put a mine, false to remove it.
+	 */
+	void setMine (int i, boolean value) {
+		if (this.storage.isMine(i) != value) {
+			int c 	  = this.classOf(i);
+			int delta = value ? 1 : -1;
+			
+			// The squares seen by the gamer change with the mine : out of the hash before, back in after
+			this.hash ^= this.base() ^ this.keyOf(i);
+			this.storage.setMine(i, value);
+			this.nbOfMines += delta;
+			this.hash ^= this.base() ^ this.keyOf(i);
+			
+			if (this.storage.isDiscovered(i)) {
+				this.nbOfDiscoveredMines += delta;
+			}
+			
+			for (int k = this.offsets[c]; k < this.offsets[c + 1]; k++) {
+				int n = i + this.deltas[k];
+				
+				this.hash ^= this.keyOf(n);
+				this.counts[n] += delta;
+				this.hash ^= this.keyOf(n);
+			}
+		}
+	}
+	
+	/**
+	 * Discover the square at index i, keeping the counters of the board up to date.
+	 * @param i 	index of the square.
+	 */
+	void discover (int i) {
+		if (!this.storage.isDiscovered(i)) {
+			this.storage.setDiscovered(i, true);
+			this.hash ^= this.keyOf(i);
+			this.nbOfDiscovered++;
+			
+			if (this.storage.isMine(i)) {
+				this.nbOfDiscoveredMines++;
+			}
+		}
+	}
+	
+	/**
+	 * Hide the square at index i again, keeping the counters of the board up to date (undo of discover).
+	 * @param i 	index of the square.
+	 */
+	void hide (int i) {
+		if (this.storage.isDiscovered(i)) {
+			this.hash ^= this.keyOf(i);
+			this.storage.setDiscovered(i, false);
+			this.nbOfDiscovered--;
+			
+			if (this.storage.isMine(i)) {
+				this.nbOfDiscoveredMines--;
+			}
+		}
+	}
+	
+	/**
+	 * Move the mine under the square at location from to the square at location to.
+	 * @param from 	location of the undermined square.
+	 * @param to 	location of the square which receives the mine.
+	 * @exception 	If there is no mine at from or already a mine at to.
+	 */
+	public void moveMine (Location from, Location to) throws IllegalArgumentException {
+		this.moveMine(this.indexOf(from.getX(), from.getY()), this.indexOf(to.getX(), to.getY()));
+	}
+	
+	/**
+	 * Move the mine under the square at index i to the square at index j.
+	 * @param i 	index (y * width + x) of the undermined square.
+	 * @param j 	index of the square which receives the mine.
+	 * @exception 	If there is no mine at i or already a mine at j.
+	 */
+	public void moveMine (int i, int j) throws IllegalArgumentException {
+		this.checkIndex(i);
+		this.checkIndex(j);
+		
+		if (!this.storage.isMine(i) || this.storage.isMine(j)) {
+			throw new IllegalArgumentException("A mine can only be moved from an undermined square to an empty one.");
+		}
+		
+		this.setMine(i, false);
+		this.setMine(j, true);
+	}
+	
+	/**
+	 * Give the Zobrist hash of the state seen by the gamer : the size and topology of this board, its number of mines,
+	 * the squares discovered with their number of mines around them, and the flags.
+	 * It is kept up to date in constant time by each change of a square, so that an analysis can cache
+	 * its results by position (see TranspositionCache). Two boards in the same state have the same hash.
+	 * @return hash of the state.
+	 */
+	public long getHash () {
+		return this.hash;
+	}
+	
+	/**
+	 * Compute the hash from the whole state, after the mines or the storage changed at once.
+	 */
+	private void rehash () {
+		long[] discovered = this.storage.discovered();
+		long[] 		flags = this.storage.flags();
+		long 		 hash = this.base();
+		
+		for (int w = 0; w < discovered.length; w++) {
+			for (long bits = discovered[w]; bits != 0; bits &= bits - 1) {
+				hash ^= this.keyOf((w << 6) + Long.numberOfTrailingZeros(bits));
+			}
+			
+			for (long bits = flags[w]; bits != 0; bits &= bits - 1) {
+				hash ^= key((w << 6) + Long.numberOfTrailingZeros(bits), FLAGGED);
+			}
+		}
+		
+		this.hash = hash;
+	}
+	
+	/**
+	 * Give the part of the hash of the size, the topology and the number of mines of this board.
+	 * @return hash of the size, the topology and the number of mines.
+	 */
+	private long base () {
+		return SplitMix.mix(SplitMix.mix((((long) this.width << 32) | this.height) ^ SplitMix.mix(this.topology.signature())) + this.nbOfMines);
+	}
+	
+	/**
+	 * Give the key of the square at index i as seen by the gamer, 0 if it is hidden (its flag has a key of its own).
+	 * @param i 	index of the square.
+	 * @return 		key of the square.
+	 */
+	private long keyOf (int i) {
+		if (!this.storage.isDiscovered(i)) {
+			return 0;
+		}
+		
+		return key(i, this.storage.isMine(i) ? 9 : this.counts[i]);
+	}
+	
+	/**
+	 * Give the key of a square in a state. The keys are drawn by a mixing function rather than
+	 * stored in a table, which would take 11 longs per square.
+	 * @param i 		index of the square.
+	 * @param state 	state of the square, from 0 to FLAGGED.
+	 * @return 			key of the square in this state.
+	 */
+	private static long key (int i, int state) {
+		return SplitMix.mix(((long) i << 4) + state + SplitMix.GAMMA);
+	}
+	
+	/**
+	 * Compute the number of undermined squares around each square of this board, and the hash.
+	 * On a square grid the mines are summed line by line, otherwise each mine is added to its neighbours.
+	 */
+	private void computeCounts () {
+		// An empty board has no line to sum
+		if (this.storage.size() == 0) {
+			this.rehash();
+			
+			return;
+		}
+		
+		if (!this.topology.isSquare()) {
+			long[] mines = this.storage.mines();
+			
+			Arrays.fill(this.counts, (byte) 0);
+			
+			for (int w = 0; w < mines.length; w++) {
+				for (long bits = mines[w]; bits != 0; bits &= bits - 1) {
+					int i = (w << 6) + Long.numberOfTrailingZeros(bits);
+					int c = this.classOf(i);
+					
+					for (int k = this.offsets[c]; k < this.offsets[c + 1]; k++) {
+						this.counts[i + this.deltas[k]]++;
+					}
+				}
+			}
+			
+			this.rehash();
+			
+			return;
+		}
+		
+		byte[] previous = new byte[this.width]; // Sums of three squares of the line above
+		byte[]  current = new byte[this.width];
+		byte[] 	   next = new byte[this.width];
+		long[] 	  mines = this.storage.mines();
+		
+		this.sumLine(0, current);
+		
+		for (int y = 0; y < this.height; y++) {
+			int base = y * this.width;
+			
+			if (y + 1 < this.height) {
+				this.sumLine(y + 1, next);
+			}
+			else {
+				Arrays.fill(next, (byte) 0);
+			}
+			
+			for (int x = 0; x < this.width; x++) {
+				int i = base + x;
+				
+				this.counts[i] = (byte) (previous[x] + current[x] + next[x] - (int) ((mines[i >>> 6] >>> i) & 1L));
+			}
+			
+			byte[] line = previous;
+			
+			previous = current;
+			current  = next;
+			next 	 = line;
+		}
+		
+		this.rehash();
+	}
+	
+	/**
+	 * Compute for each square of a line the number of mines on it and on its left and right neighbours.
+	 * @param y 		ordinate of the line.
+	 * @param sums 		sums computed.
+	 */
+	private void sumLine (int y, byte[] sums) {
+		long[] mines = this.storage.mines();
+		int 	base = y * this.width;
+		int 	left = 0;
+		int   middle = (int) ((mines[base >>> 6] >>> base) & 1L);
+		
+		for (int x = 0; x < this.width; x++) {
+			int i 	  = base + x + 1;
+			int right = (x + 1 < this.width) ? (int) ((mines[i >>> 6] >>> i) & 1L) : 0;
+			
+			sums[x] = (byte) (left + middle + right);
+			left 	= middle;
+			middle  = right;
+		}
+	}
+	
+	/**
+	 * Bring the counters and the numbers of mines around the squares up to date with the storage,
+	 * after it has been filled directly (when a board is loaded).
+	 * @param seed 	seed of the mines placement.
+	 */
+	void restore (long seed) {
+		long[] 		mines = this.storage.mines();
+		long[] discovered = this.storage.discovered();
+		
+		this.seed 				 = seed;
+		this.nbOfMines 			 = 0;
+		this.nbOfDiscovered 	 = 0;
+		this.nbOfDiscoveredMines = 0;
+		
+		for (int w = 0; w < mines.length; w++) {
+			this.nbOfMines 			 += Long.bitCount(mines[w]);
+			this.nbOfDiscovered 	 += Long.bitCount(discovered[w]);
+			this.nbOfDiscoveredMines += Long.bitCount(mines[w] & discovered[w]);
+		}
+		
+		this.computeCounts();
+	}
+	
+	/**
+	 * Give the seed of the last placement of the mines.
+	 * @return seed of the mines placement.
+	 */
+	public long getSeed () {
+		return this.seed;
+	}
+	
+	/**
+	 * Initialize this board with the number of mines past in parameter, from a random seed.
 	 * @param nbOfMines 	number of mines put on this board.
 	 * @exception 			If there is more nbOfMines than squares on the board.
 	 */
 	public void init (int nbOfMines) throws IllegalArgumentException {
-		if ((this.width * this.height) < nbOfMines) {
+		this.init(nbOfMines, new SplittableRandom().nextLong());
+	}
+	
+	/**
+	 * Initialize this board with the number of mines past in parameter.
+	 * The same seed always gives the same board.
+	 * @param nbOfMines 	number of mines put on this board.
+	 * @param seed 			seed of the mines placement.
+	 * @exception 			If there is more nbOfMines than squares on the board.
+	 */
+	public void init (int nbOfMines, long seed) throws IllegalArgumentException {
+		this.place(nbOfMines, seed, new int[0]);
+	}
+	
+	/**
+	 * Initialize this board with the number of mines past in parameter, keeping the first square clicked safe.
+	 * Neither the square at (x, y) nor its neighbours are undermined, unless there are too many mines
+	 * for that, in which case only the square at (x, y) is kept safe.
+	 * @param nbOfMines 	number of mines put on this board.
+	 * @param seed 			seed of the mines placement.
+	 * @param x 			abscissa of the first square clicked.
+	 * @param y 			ordinate of the first square clicked.
+	 * @exception 			If there is more nbOfMines than squares outside of the first square clicked.
+	 */
+	public void init (int nbOfMines, long seed, int x, int y) throws IllegalArgumentException {
+		int[] zone = new int[Topology.MAX_DEGREE + 1];
+		int 	 i = this.indexOf(x, y);
+		int   size = this.topology.neighbours(i, zone);
+		
+		// Square and neighbours, in increasing index order
+		zone[size++] = i;
+		
+		if ((this.storage.size() - size) < nbOfMines) {
+			zone = new int[] {i};
+		}
+		else {
+			zone = Arrays.copyOf(zone, size);
+			Arrays.sort(zone);
+		}
+		
+		this.place(nbOfMines, seed, zone);
+	}
+	
+	/**
+	 * Place the mines on this board with Floyd's sampling : exactly nbOfMines random draws,
+	 * whatever the density of mines.
+	 * @param nbOfMines 	number of mines put on this board.
+	 * @param seed 			seed of the mines placement.
+	 * @param excluded 		indexes of the squares which can not be undermined, in increasing order.
+	 * @exception 			If there is more nbOfMines than squares allowed.
+	 */
+	private void place (int nbOfMines, long seed, int[] excluded) throws IllegalArgumentException {
+		long start   = Metrics.ENABLED ? System.nanoTime() : 0;
+		int  allowed = this.storage.size() - excluded.length;
+		
+		if ((nbOfMines < 0) || (allowed < nbOfMines)) {
 			throw new IllegalArgumentException("There can not be more mines than squares on the board.");
 		}
 		// Normal configuration
 		else {
-			Random alea = new Random();
-
-			for (int i = 1; i <= nbOfMines; i++) {
-				int 	 x = alea.nextInt(this.width);
-				int 	 y = alea.nextInt(this.height);
-				Location l = new Location(x, y);
-				Square 	 s = this.getSquareAt(l);
-
-				if (!s.isUndermined()) {
-					s.mine();
+			SplittableRandom alea = new SplittableRandom(seed);
+			
+			this.storage.clearMines();
+			this.seed 				 = seed;
+			this.nbOfMines 			 = 0;
+			this.nbOfDiscoveredMines = 0;
+			
+			for (int j = allowed - nbOfMines; j < allowed; j++) {
+				int c = skip(alea.nextInt(j + 1), excluded);
+				
+				if (this.storage.isMine(c)) {
+					c = skip(j, excluded);
 				}
-				else {
-					i--;
+				
+				this.storage.setMine(c, true);
+				this.nbOfMines++;
+				
+				if (this.storage.isDiscovered(c)) {
+					this.nbOfDiscoveredMines++;
 				}
 			}
+			
+			this.computeCounts();
+			this.startTicks(seed);
+		}
+		
+		if (Metrics.ENABLED) {
+			Metrics.INIT.record(System.nanoTime() - start);
+		}
+	}
+	
+	/**
+	 * Start the count of the calls sampled by the metrics from a seed, rather than from 0 :
+	 * boards of different seeds are sampled at different calls, so that games shorter than
+	 * Metrics.SAMPLING moves are sampled too. The mines placement does not depend on it.
+	 * @param seed 	seed of the mines placement.
+	 */
+	private void startTicks (long seed) {
+		this.ticks = (int) seed;
+	}
+	
+	/**
+	 * Give the index of the n-th square which is not excluded.
+	 * @param n 			rank of the square among the squares allowed.
+	 * @param excluded 		indexes of the excluded squares, in increasing order.
+	 * @return 				index of the square.
+	 */
+	private static int skip (int n, int[] excluded) {
+		int i = n;
+		
+		for (int e : excluded) {
+			if (e <= i) {
+				i++;
+			}
+			else {
+				break;
+			}
 		}
+		
+		return i;
 	}
 	
 	/**
-	 * Determine if the board is a win one.
+	 * Determine if the board is a win one : only the undermined squares are not discovered.
 	 * @return true if the board is a win one, false otherwise.
 	 */
 	public boolean win () {
-		int n1 = 0; // For the number of square which are not discovered.
-		int n2 = 0; // For the number of square which are undermined.
+		if (Metrics.ENABLED && Metrics.sampled(++this.ticks)) {
+			long 	start = System.nanoTime();
+			boolean   win = this.isWon();
+			
+			Metrics.WIN.record(System.nanoTime() - start);
+			
+			return win;
+		}
 		
-		for (int y = 0; y < this.height; y++) {
-			for (int x = 0; x < this.width; x++) {
-				Location l = new Location(x, y);
-				Square s = this.getSquareAt(l);
-				
-				if (!s.isDiscovered()) {
-					n1++;
-				}
+		return this.isWon();
+	}
+	
+	/**
+	 * Determine if the board is a win one, without metrics.
+	 * @return true if the board is a win one, false otherwise.
+	 */
+	private boolean isWon () {
+		return (this.nbOfDiscoveredMines == 0) && ((this.storage.size() - this.nbOfDiscovered) == this.nbOfMines);
+	}
+	
+	/**
+	 * Determine if the board is a loose one, that is to say an undermined square has been discovered.
+	 * @return true if the board is a loose one, false otherwise.
+	 */
+	public boolean loose () {
+		return this.nbOfDiscoveredMines > 0;
+	}
+	
+	/**
+	 * Give the number of squares which are neither undermined nor discovered.
+	 * @return number of safe squares remaining.
+	 */
+	public int remainingSafeSquares () {
+		return (this.storage.size() - this.nbOfMines) - (this.nbOfDiscovered - this.nbOfDiscoveredMines);
+	}
+	
+	/**
+	 * Reveal the square at the location past in parameter.
+	 * If it has no mine around it, its neighbours are revealed in cascade.
+	 * Squares with a flag on are never revealed.
+	 * @param x 	abscissa of the square.
+	 * @param y 	ordinate of the square.
+	 * @return 		indexes (y * width + x) of the squares discovered by this call.
+	 */
+	public int[] reveal (int x, int y) {
+		int n = this.reveal(this.indexOf(x, y));
+		
+		return Arrays.copyOf(this.revealed, n);
+	}
+	
+	/**
+	 * Reveal the square at index i, without allocating : the squares discovered are given by getRevealed.
+	 * If it has no mine around it, its neighbours are revealed in cascade.
+	 * Squares with a flag on are never revealed.
+	 * The cascade is iterative : the discovered plane of the storage is used as visited set,
+	 * and the squares discovered, reused between calls, are the queue of the cascade.
+	 * @param i 	index (y * width + x) of the square.
+	 * @return 		number of squares discovered by this call.
+	 */
+	public int reveal (int i) {
+		if (Metrics.ENABLED && Metrics.sampled(++this.ticks)) {
+			long start = System.nanoTime();
+			int 	 n = this.cascade(i);
+			
+			((n > 1) ? Metrics.CASCADE : Metrics.REVEAL).record(System.nanoTime() - start);
+			
+			return n;
+		}
+		
+		return this.cascade(i);
+	}
+	
+	/**
+	 * Reveal the square at index i, without metrics.
+	 * @param i 	index (y * width + x) of the square.
+	 * @return 		number of squares discovered by this call.
+	 */
+	private int cascade (int i) {
+		this.checkIndex(i);
+		this.nbOfRevealed = 0;
+		
+		if (this.storage.isDiscovered(i) || this.storage.hasFlag(i)) {
+			return 0;
+		}
+		
+		this.nbOfRevealed = this.spread(0, this.push(i, 0));
+		
+		return this.nbOfRevealed;
+	}
+	
+	/**
+	 * Chord on the square at the location past in parameter : if it is discovered and has as many flags
+	 * around it as mines, its neighbours without flag are revealed (in cascade).
+	 * A wrong flag makes a mine discovered.
+	 * @param x 	abscissa of the square.
+	 * @param y 	ordinate of the square.
+	 * @return 		indexes (y * width + x) of the squares discovered by this call.
+	 */
+	public int[] chord (int x, int y) {
+		int n = this.chord(this.indexOf(x, y));
+		
+		return Arrays.copyOf(this.revealed, n);
+	}
+	
+	/**
+	 * Chord on the square at index i, without allocating : the squares discovered are given by getRevealed.
+	 * @param i 	index (y * width + x) of the square.
+	 * @return 		number of squares discovered by this call.
+	 */
+	public int chord (int i) {
+		this.checkIndex(i);
+		this.nbOfRevealed = this.spread(0, this.chordAt(i, 0));
+		
+		return this.nbOfRevealed;
+	}
+	
+	/**
+	 * Apply a batch of moves, each packed as its type (REVEAL, FLAG, UNFLAG or CHORD) or'ed with
+	 * the index (y * width + x) of its square. The squares discovered by all the moves are spread
+	 * in a single cascade, only completed before a flag move or a chord on a hidden square (so that
+	 * the result is the one of the moves applied one by one). The moves after a mine discovered are not applied.
+	 * Nothing is allocated : the squares changed (discovered, or flag put or removed) are given
+	 * by getRevealed, and the outcome by win and loose.
+	 * @param moves 	packed moves.
+	 * @return 			number of squares changed by the moves.
+	 * @exception 		If a move has no square.
+	 */
+	public int apply (int[] moves) throws IndexOutOfBoundsException {
+		int size = 0;
+		int head = 0;
+		
+		this.nbOfRevealed = 0;
+		
+		for (int m : moves) {
+			if (this.nbOfDiscoveredMines > 0) {
+				break;
+			}
+			
+			int i = this.checkIndex(m & ~MOVE_MASK);
+			
+			switch (m & MOVE_MASK) {
+				case REVEAL :
+					if (!this.storage.isDiscovered(i) && !this.storage.hasFlag(i)) {
+						size = this.push(i, size);
+					}
+					break;
+				case CHORD :
+					// The cascade is completed first if the square may be discovered by it
+					if (!this.storage.isDiscovered(i)) {
+						size = this.spread(head, size);
+						head = size;
+					}
+					
+					size = this.chordAt(i, size);
+					break;
+				default :
+					boolean flag = (m & MOVE_MASK) == FLAG;
+					
+					// The cascade is completed first : the square may be discovered by it
+					size = this.spread(head, size);
+					
+					if (!this.storage.isDiscovered(i) && (this.storage.hasFlag(i) != flag)) {
+						this.flag(i, flag);
+						size = this.enqueue(i, size);
+					}
+					
+					head = size;
+			}
+		}
+		
+		this.nbOfRevealed = this.spread(head, size);
+		
+		return this.nbOfRevealed;
+	}
+	
+	/**
+	 * Discover the neighbours without flag of a square, if it is discovered with as many flags around as mines.
+	 * @param i 		index of the square.
+	 * @param size 		number of squares in the queue of the cascade.
+	 * @return 			number of squares in the queue, the neighbours discovered added.
+	 */
+	private int chordAt (int i, int size) {
+		if (!this.storage.isDiscovered(i) || this.storage.isMine(i)) {
+			return size;
+		}
+		
+		int c 	  = this.classOf(i);
+		int flags = 0;
+		
+		for (int k = this.offsets[c]; k < this.offsets[c + 1]; k++) {
+			int n = i + this.deltas[k];
+			
+			if (this.storage.hasFlag(n) && !this.storage.isDiscovered(n)) {
+				flags++;
+			}
+		}
+		
+		if (flags != this.counts[i]) {
+			return size;
+		}
+		
+		for (int k = this.offsets[c], end = this.offsets[c + 1]; k < end; k++) {
+			int n = i + this.deltas[k];
+			
+			if (!this.storage.isDiscovered(n) && !this.storage.hasFlag(n)) {
+				size = this.push(n, size);
+			}
+		}
+		
+		return size;
+	}
+	
+	/**
+	 * Discover a square and add it to the queue of the cascade.
+	 * @param i 		index of the square.
+	 * @param size 		number of squares in the queue.
+	 * @return 			number of squares in the queue, the square added.
+	 */
+	private int push (int i, int size) {
+		this.discover(i);
+		
+		return this.enqueue(i, size);
+	}
+	
+	/**
+	 * Add a square to the squares changed, which are also the queue of the cascade.
+	 * @param i 		index of the square.
+	 * @param size 		number of squares in the queue.
+	 * @return 			number of squares in the queue, the square added.
+	 */
+	private int enqueue (int i, int size) {
+		if (size == this.revealed.length) {
+			this.revealed = Arrays.copyOf(this.revealed, size * 2);
+		}
+		
+		this.revealed[size] = i;
+		
+		return size + 1;
+	}
+	
+	/**
+	 * Spread the cascade from the squares of the queue : the neighbours of a safe square
+	 * with no mine around it are discovered, and added to the queue.
+	 * The discovered plane of the storage is used as visited set.
+	 * @param head 		position of the first square of the queue not spread yet.
+	 * @param size 		number of squares in the queue.
+	 * @return 			number of squares in the queue, once the cascade is over.
+	 */
+	private int spread (int head, int size) {
+		while (head < size) {
+			int c = this.revealed[head++];
+			
+			if ((this.counts[c] != 0) || this.storage.isMine(c)) {
+				continue;
+			}
+			
+			int e = this.classOf(c);
+			
+			for (int k = this.offsets[e], end = this.offsets[e + 1]; k < end; k++) {
+				int n = c + this.deltas[k];
 				
-				if (s.isUndermined()) {
-					n2++;
+				if (!this.storage.isDiscovered(n) && !this.storage.hasFlag(n)) {
+					size = this.push(n, size);
 				}
 			}
 		}
 		
-		return n1 == n2;
+		return size;
+	}
+	
+	/**
+	 * Give a square discovered by the last reveal or chord, or changed by the last apply.
+	 * @param k 	rank of the square, less than the number returned by the last reveal, chord or apply.
+	 * @return 		index (y * width + x) of the square.
+	 * @exception 	If k is not the rank of a square discovered.
+	 */
+	public int getRevealed (int k) throws IndexOutOfBoundsException {
+		if ((k < 0) || (k >= this.nbOfRevealed)) {
+			throw new IndexOutOfBoundsException("The last reveal discovered " + this.nbOfRevealed + " squares.");
+		}
+		
+		return this.revealed[k];
 	}
 	
 	/**
@@ -131,68 +1131,36 @@ public class Board {
 	 * @return 		description of the square at location l.
 	 */
 	public String describeSquareAt (Location l) {
-		Square s = this.getSquareAt(l);
-
-		if (s.isDiscovered()) {
-			if (!s.isUndermined()) {
-				int 		 		   x = l.getX();
-				int 		 		   y = l.getY();
-				int 				   n = 0; // For the number of mines around the square.
-				List<Location> locations = new ArrayList<Location>();
-				
-				// North
-				if ((y - 1) >= 0) {
-					locations.add(new Location(x, y - 1));
-				}
-
-				// North east
-				if (((y - 1) >= 0) && ((x + 1) < this.width)) {
-					locations.add(new Location(x + 1, y - 1));
-				}
-
-				// East
-				if ((x + 1) < this.width) {
-					locations.add(new Location(x + 1, y));
-				}
-
-				// South east
-				if (((x + 1) < this.width) && ((y + 1) < this.height)) {
-					locations.add(new Location(x + 1, y + 1));
-				}
-
-				// South
-				if ((y + 1) < this.height) {
-					locations.add(new Location(x, y + 1));
-				}
-
-				// South west
-				if (((x - 1) >= 0) && ((y + 1) < this.height)) {
-					locations.add(new Location(x - 1, y + 1));
-				}
-
-				// West
-				if ((x - 1) >= 0) {
-					locations.add(new Location(x - 1, y));
-				}
-
-				// North west
-				if (((x - 1) >= 0) && ((y - 1) >= 0)) {
-					locations.add(new Location(x - 1, y - 1));
-				}
-
-				for (Location location : locations) {
-					if (this.getSquareAt(location).isUndermined()) {
-						n++;
-					}
-				}
+		return this.describeSquareAt(this.indexOf(l.getX(), l.getY()));
+	}
+	
+	/**
+	 * Describe the square at the location past in parameter.
+	 * @param x 	abscissa of the displayed square.
+	 * @param y 	ordinate of the displayed square.
+	 * @return 		description of the square.
+	 */
+	public String describeSquareAt (int x, int y) {
+		return this.describeSquareAt(this.indexOf(x, y));
+	}
+	
+	/**
+	 * Describe the square at index i. The descriptions are constants : nothing is allocated.
+	 * @param i 	index (y * width + x) of the displayed square.
+	 * @return 		description of the square.
+	 */
+	public String describeSquareAt (int i) {
+		this.checkIndex(i);
 
-				return " " + n + " ";
+		if (this.storage.isDiscovered(i)) {
+			if (!this.storage.isMine(i)) {
+				return NUMBERS[this.counts[i]];
 			}
 			else {
 				return " * ";
 			}
 		}
-		else if (s.hasFlag()) {
+		else if (this.storage.hasFlag(i)) {
 			return " |>";
 		}
 		else {
@@ -202,54 +1170,33 @@ public class Board {
 	
 	/**
 	 * Display this board.
-	 * @return display of this board.
+	 * The frame is built in the buffer of a renderer and printed in one write.
 	 */
 	public void display () {
-		// Clues
-		System.out.print("    ");
-		
-		for (int n = 0; n < this.height; n++) {
-			System.out.print(" " + n + " ");
+		if (this.renderer == null) {
+			this.renderer = new TextRenderer(false);
 		}
 		
-		System.out.println();
-		
-		// High border
-		System.out.print("    ");
+		long start = Metrics.ENABLED ? System.nanoTime() : 0;
 		
-		for (int i = 0; i < this.width; i++) {
-			System.out.print(" _ ");
+		try {
+			this.renderer.render(this, System.out);
 		}
-		
-		System.out.println();
-		
-		for (int y = 0; y < this.height; y++) {
-			// Clues
-			System.out.print(" " + y + " ");
-			
-			// Inside the board
-			for (int x = 0; x < this.width; x++) {
-				Location l = new Location(x, y);
-				
-				if (x == 0) {
-					System.out.print("|");
-				}
-				
-				System.out.print(this.describeSquareAt(l));
-				
-				if (x == this.height - 1) {
-					System.out.print("|");
-				}
-			}
-			
-			System.out.println();
+		catch (IOException e) {
+			throw new UncheckedIOException(e);
 		}
 		
-		// Bottom border
-		System.out.print("    ");
-		
-		for (int i = 0; i < this.width; i++) {
-			System.out.print(" _ ");
+		if (Metrics.ENABLED) {
+			Metrics.DISPLAY.record(System.nanoTime() - start);
+		}
+	}
+	
+	/**
+	 * Discover all the squares of this board.
+	 */
+	public void discoverAll () {
+		for (int i = 0; i < this.storage.size(); i++) {
+			this.discover(i);
 		}
 	}
 	
@@ -257,12 +1204,7 @@ public class Board {
 	 * Display this board with all the square discovered.
 	 */
 	public void displayClear () {
-		for (int y = 0; y < this.height; y++) {
-			for (int x = 0; x < this.width; x++) {
-				this.getSquareAt(new Location(x, y)).discover();
-			}
-		}
-		
+		this.discoverAll();
 		this.display();
 	}
 } // Board
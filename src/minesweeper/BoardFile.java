@@ -0,0 +1,153 @@
+/*
+ * BoardFile.java
+ */
+
+// ----- Package ----- //
+
+package minesweeper;
+
+// ----- Imports ----- //
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * BoardFile class. Binary snapshot of a board in a file.
+ * The file is a header of HEADER bytes (magic number, version, width, height, seed, kind of topology),
+ * followed by the mine, discovered and flag planes of the board, as in its storage.
+ * The kind of topology takes bytes left at 0 by the first files, 0 being the square grid :
+ * they are read the same. A board on a graph (see Topology.graph) can not be saved.
+ * The planes are copied in bulk through memory-mapped buffers : no object is created per square.
+ *
+ * @author Baert Quentin
+ */
+
+public class BoardFile {
+	// ----- Attributes ----- //
+
+	/**
+	 * Magic number of the files ("MSWP").
+	 */
+	private static final int MAGIC = 0x4D535750;
+
+	/**
+	 * Version of the format.
+	 */
+	private static final int VERSION = 1;
+
+	/**
+	 * Size of the header, in bytes.
+	 */
+	private static final int HEADER = 32;
+
+	// ----- Methods ----- //
+
+	/**
+	 * Constructor of the BoardFile class. Not used : all the methods are static.
+	 */
+	private BoardFile () {}
+
+	/**
+	 * Save a board in a file, replacing it.
+	 * @param b 		board saved.
+	 * @param path 		path of the file.
+	 * @exception 		If the file can not be written, or the board is on a graph.
+	 */
+	public static void save (Board b, Path path) throws IOException {
+		CellStorage storage = b.storage();
+		long 	 planeBytes = 8L * storage.mines().length;
+
+		if (b.getTopology().kind() == Topology.GRAPH) {
+			throw new IOException("a board on a graph can not be saved.");
+		}
+
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+				StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+			MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER);
+
+			header.putInt(MAGIC);
+			header.putInt(VERSION);
+			header.putInt(b.getWidth());
+			header.putInt(b.getHeight());
+			header.putLong(b.getSeed());
+			header.putInt(b.getTopology().kind());
+			header.force();
+
+			long[][] planes = {storage.mines(), storage.discovered(), storage.flags()};
+
+			for (int p = 0; p < planes.length; p++) {
+				MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, HEADER + p * planeBytes, planeBytes);
+
+				buffer.asLongBuffer().put(planes[p]);
+				buffer.force();
+			}
+		}
+	}
+
+	/**
+	 * Load a board from a file.
+	 * @param path 		path of the file.
+	 * @return 			board saved in the file.
+	 * @exception 		If the file can not be read or is not a board file.
+	 */
+	public static Board load (Path path) throws IOException {
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			if (channel.size() < HEADER) {
+				throw new IOException(path + " is not a minesweeper board file.");
+			}
+
+			MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER);
+
+			if (header.getInt() != MAGIC) {
+				throw new IOException(path + " is not a minesweeper board file.");
+			}
+
+			int version = header.getInt();
+
+			if (version != VERSION) {
+				throw new IOException("Version " + version + " of the board files is not supported.");
+			}
+
+			int  width  = header.getInt();
+			int  height = header.getInt();
+			long seed 	= header.getLong();
+			int  kind 	= header.getInt();
+
+			long size = (long) width * height;
+
+			if ((width < 0) || (height < 0) || (size > Integer.MAX_VALUE) || (kind < Topology.SQUARE) || (kind > Topology.HEXAGONAL)) {
+				throw new IOException(path + " is corrupted.");
+			}
+
+			// Checked before the board is allocated, so that a corrupted size fails here
+			long planeBytes = 8L * ((size + 63) >>> 6);
+
+			if (channel.size() < HEADER + 3 * planeBytes) {
+				throw new IOException(path + " is truncated.");
+			}
+
+			Board 		b = new Board(Topology.of(kind, width, height));
+			CellStorage s = b.storage();
+
+			long[][] planes = {s.mines(), s.discovered(), s.flags()};
+
+			for (int p = 0; p < planes.length; p++) {
+				MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, HEADER + p * planeBytes, planeBytes);
+
+				buffer.asLongBuffer().get(planes[p]);
+
+				// Bits after the last square
+				if (((s.size() & 63) != 0) && (planes[p].length > 0)) {
+					planes[p][planes[p].length - 1] &= (1L << (s.size() & 63)) - 1;
+				}
+			}
+
+			b.restore(seed);
+
+			return b;
+		}
+	}
+} // BoardFile
@@ -0,0 +1,337 @@
+/*
+ * BoardHistory.java
+ */
+
+// ----- Package ----- //
+
+package minesweeper;
+
+// ----- Imports ----- //
+
+import java.util.Arrays;
+
+/**
+ * BoardHistory class. Versions of a board, for an unlimited undo and redo.
+ * The board is never copied : each version only keeps the squares changed by its move
+ * (discovered, or flag put or removed), in a single log shared by all the versions.
+ * Recording a move costs the number of squares it changes, and going to any version
+ * undoes or redoes the changes in between, without rebuilding the board.
+ * The moves must go through the history to be recorded. The mines placed by init are not
+ * versioned : going back before the first square discovered leaves them in place.
+ *
+ * @author Baert Quentin
+ */
+
+public class BoardHistory {
+	// ----- Attributes ----- //
+
+	/**
+	 * Board versioned.
+	 */
+	private final Board board;
+
+	/**
+	 * Squares changed by the moves, version after version : the index of a square discovered,
+	 * or the complement (~index) of a square whose flag was put or removed.
+	 */
+	private int[] log;
+
+	/**
+	 * End in the log of the changes of each version (marks[0] = 0 for the first version).
+	 */
+	private int[] marks;
+
+	/**
+	 * Version of the board.
+	 */
+	private int version;
+
+	/**
+	 * Last version recorded, greater than version after an undo.
+	 */
+	private int last;
+
+	/**
+	 * End in the log of the changes of the version being recorded.
+	 */
+	private int end;
+
+	// ----- Methods ----- //
+
+	/**
+	 * Constructor of the BoardHistory class. The board as it is is the first version.
+	 * @param board 	board versioned.
+	 */
+	public BoardHistory (Board board) {
+		this.board = board;
+		this.log   = new int[64];
+		this.marks = new int[16];
+	}
+
+	/**
+	 * Give the board versioned.
+	 * @return board.
+	 */
+	public Board getBoard () {
+		return this.board;
+	}
+
+	/**
+	 * Give the version of the board.
+	 * @return version, 0 for the board given to the constructor.
+	 */
+	public int getVersion () {
+		return this.version;
+	}
+
+	/**
+	 * Give the number of versions that can be reached.
+	 * @return last version recorded, plus one.
+	 */
+	public int getNbOfVersions () {
+		return this.last + 1;
+	}
+
+	/**
+	 * Determine if a move can be undone.
+	 * @return true if the board is not at its first version, false otherwise.
+	 */
+	public boolean canUndo () {
+		return this.version > 0;
+	}
+
+	/**
+	 * Determine if a move can be redone.
+	 * @return true if moves were undone since the last one played, false otherwise.
+	 */
+	public boolean canRedo () {
+		return this.version < this.last;
+	}
+
+	/**
+	 * Reveal the square at the location past in parameter (see Board.reveal), as a new version.
+	 * @param x 	abscissa of the square.
+	 * @param y 	ordinate of the square.
+	 * @return 		indexes (y * width + x) of the squares discovered.
+	 */
+	public int[] reveal (int x, int y) {
+		int[] changed = this.board.reveal(x, y);
+
+		this.record(changed);
+
+		return changed;
+	}
+
+	/**
+	 * Chord on the square at the location past in parameter (see Board.chord), as a new version.
+	 * @param x 	abscissa of the square.
+	 * @param y 	ordinate of the square.
+	 * @return 		indexes (y * width + x) of the squares discovered.
+	 */
+	public int[] chord (int x, int y) {
+		int[] changed = this.board.chord(x, y);
+
+		this.record(changed);
+
+		return changed;
+	}
+
+	/**
+	 * Put a flag on the square at the location past in parameter, as a new version.
+	 * Nothing is done on a discovered square.
+	 * @param x 	abscissa of the square.
+	 * @param y 	ordinate of the square.
+	 */
+	public void putFlag (int x, int y) {
+		if (!this.board.isDiscovered(x, y) && !this.board.hasFlag(x, y)) {
+			this.board.putFlag(x, y);
+			this.record(~this.board.indexOf(x, y));
+		}
+	}
+
+	/**
+	 * Remove the flag of the square at the location past in parameter, as a new version.
+	 * Nothing is done on a discovered square.
+	 * @param x 	abscissa of the square.
+	 * @param y 	ordinate of the square.
+	 */
+	public void removeFlag (int x, int y) {
+		if (!this.board.isDiscovered(x, y) && this.board.hasFlag(x, y)) {
+			this.board.removeFlag(x, y);
+			this.record(~this.board.indexOf(x, y));
+		}
+	}
+
+	/**
+	 * Discover all the squares of the board (see Board.discoverAll), as a new version.
+	 */
+	public void discoverAll () {
+		int size = this.board.getWidth() * this.board.getHeight();
+
+		this.begin();
+
+		for (int i = 0; i < size; i++) {
+			if (!this.board.isDiscovered(i)) {
+				this.board.discover(i);
+				this.append(i);
+			}
+		}
+
+		this.commit();
+	}
+
+	/**
+	 * Undo the last move.
+	 * @return indexes of the squares changed, empty if there is no move to undo.
+	 */
+	public int[] undo () {
+		return this.canUndo() ? this.goTo(this.version - 1) : new int[0];
+	}
+
+	/**
+	 * Redo the last move undone.
+	 * @return indexes of the squares changed, empty if there is no move to redo.
+	 */
+	public int[] redo () {
+		return this.canRedo() ? this.goTo(this.version + 1) : new int[0];
+	}
+
+	/**
+	 * Bring the board to a version, undoing or redoing the moves in between.
+	 * @param v 	version reached.
+	 * @return 		indexes (y * width + x) of the squares changed.
+	 * @exception 	If there is no such version.
+	 */
+	public int[] goTo (int v) throws IndexOutOfBoundsException {
+		if ((v < 0) || (v > this.last)) {
+			throw new IndexOutOfBoundsException("There is no version " + v + ", only " + this.getNbOfVersions() + ".");
+		}
+
+		int from = this.marks[Math.min(v, this.version)];
+		int   to = this.marks[Math.max(v, this.version)];
+		int[] changed = new int[to - from];
+
+		if (v < this.version) {
+			// Undone in the reverse order
+			for (int k = to - 1; k >= from; k--) {
+				changed[to - 1 - k] = this.undo(this.log[k]);
+			}
+		}
+		else {
+			for (int k = from; k < to; k++) {
+				changed[k - from] = this.redo(this.log[k]);
+			}
+		}
+
+		this.version = v;
+
+		return changed;
+	}
+
+	/**
+	 * Undo a change of the log.
+	 * @param c 	change.
+	 * @return 		index of the square changed.
+	 */
+	private int undo (int c) {
+		if (c >= 0) {
+			this.board.hide(c);
+
+			return c;
+		}
+
+		this.toggleFlag(~c);
+
+		return ~c;
+	}
+
+	/**
+	 * Redo a change of the log.
+	 * @param c 	change.
+	 * @return 		index of the square changed.
+	 */
+	private int redo (int c) {
+		if (c >= 0) {
+			this.board.discover(c);
+
+			return c;
+		}
+
+		this.toggleFlag(~c);
+
+		return ~c;
+	}
+
+	/**
+	 * Put or remove the flag of the square at index i.
+	 * @param i 	index of the square.
+	 */
+	private void toggleFlag (int i) {
+		if (this.board.hasFlag(i)) {
+			this.board.removeFlag(i);
+		}
+		else {
+			this.board.putFlag(i);
+		}
+	}
+
+	/**
+	 * Record the squares discovered by a move as a new version, if there are some.
+	 * @param changed 	indexes of the squares discovered.
+	 */
+	private void record (int[] changed) {
+		this.begin();
+
+		for (int i : changed) {
+			this.append(i);
+		}
+
+		this.commit();
+	}
+
+	/**
+	 * Record a single change as a new version.
+	 * @param c 	change.
+	 */
+	private void record (int c) {
+		this.begin();
+		this.append(c);
+		this.commit();
+	}
+
+	/**
+	 * Start the changes of a new version, after the current one.
+	 */
+	private void begin () {
+		this.end = this.marks[this.version];
+	}
+
+	/**
+	 * Add a change to the new version. The log after the current version is overwritten.
+	 * @param c 	change.
+	 */
+	private void append (int c) {
+		if (this.end == this.log.length) {
+			this.log = Arrays.copyOf(this.log, this.end * 2);
+		}
+
+		this.log[this.end++] = c;
+	}
+
+	/**
+	 * Make the changes added since begin a new version, if there are some :
+	 * the versions undone before can not be redone any more.
+	 */
+	private void commit () {
+		if (this.end == this.marks[this.version]) {
+			return;
+		}
+
+		if (this.version + 1 == this.marks.length) {
+			this.marks = Arrays.copyOf(this.marks, this.marks.length * 2);
+		}
+
+		this.marks[++this.version] = this.end;
+		this.last 				   = this.version;
+	}
+} // BoardHistory
@@ -0,0 +1,186 @@
+/*
+ * CellStorage.java
+ */
+
+// ----- Package ----- //
+
+package minesweeper;
+
+// ----- Imports ----- //
+
+import java.util.Arrays;
+
+/**
+ * CellStorage class. Packed storage of the squares state of a board.
+ * Each state (mine, discovered, flag) is a plane of bits in a long array,
+ * the square at (x, y) being the bit y * width + x of each plane.
+ *
+ * @author Baert Quentin
+ */
+
+class CellStorage {
+	// ----- Attributes ----- //
+
+	/**
+	 * Plane of the undermined squares.
+	 */
+	private final long[] mines;
+
+	/**
+	 * Plane of the discovered squares.
+	 */
+	private final long[] discovered;
+
+	/**
+	 * Plane of the squares with a flag on.
+	 */
+	private final long[] flags;
+
+	/**
+	 * Number of squares stored.
+	 */
+	private final int size;
+
+	// ----- Methods ----- //
+
+	/**
+	 * Constructor of the CellStorage class. All the squares are empty, not discovered and have no flag on.
+	 * @param size 	number of squares stored.
+	 */
+	CellStorage (int size) {
+		int words = (size + 63) >>> 6;
+
+		this.mines 		= new long[words];
+		this.discovered = new long[words];
+		this.flags 		= new long[words];
+		this.size 		= size;
+	}
+
+	/**
+	 * Give the number of squares stored.
+	 * @return number of squares stored.
+	 */
+	int size () {
+		return this.size;
+	}
+
+	/**
+	 * Give the plane of the undermined squares.
+	 * @return plane of the undermined squares.
+	 */
+	long[] mines () {
+		return this.mines;
+	}
+
+	/**
+	 * Give the plane of the discovered squares.
+	 * @return plane of the discovered squares.
+	 */
+	long[] discovered () {
+		return this.discovered;
+	}
+
+	/**
+	 * Give the plane of the squares with a flag on.
+	 * @return plane of the squares with a flag on.
+	 */
+	long[] flags () {
+		return this.flags;
+	}
+
+	/**
+	 * Determine if the square at index i is undermined.
+	 * @param i 	index of the square.
+	 * @return 		true if the square is undermined, false otherwise.
+	 */
+	boolean isMine (int i) {
+		return get(this.mines, i);
+	}
+
+	/**
+	 * Determine if the square at index i is discovered.
+	 * @param i 	index of the square.
+	 * @return 		true if the square is discovered, false otherwise.
+	 */
+	boolean isDiscovered (int i) {
+		return get(this.discovered, i);
+	}
+
+	/**
+	 * Determine if the square at index i has a flag on.
+	 * @param i 	index of the square.
+	 * @return 		true if the square has a flag on, false otherwise.
+	 */
+	boolean hasFlag (int i) {
+		return get(this.flags, i);
+	}
+
+	/**
+	 * Set the mine bit of the square at index i.
+	 * @param i 		index of the square.
+	 * @param value 	new value of the bit.
+	 */
+	void setMine (int i, boolean value) {
+		set(this.mines, i, value);
+	}
+
+	/**
+	 * Set the discovered bit of the square at index i.
+	 * @param i 		index of the square.
+	 * @param value 	new value of the bit.
+	 */
+	void setDiscovered (int i, boolean value) {
+		set(this.discovered, i, value);
+	}
+
+	/**
+	 * Set the flag bit of the square at index i.
+	 * @param i 		index of the square.
+	 * @param value 	new value of the bit.
+	 */
+	void setFlag (int i, boolean value) {
+		set(this.flags, i, value);
+	}
+
+	/**
+	 * Remove all the mines of this storage.
+	 */
+	void clearMines () {
+		Arrays.fill(this.mines, 0L);
+	}
+
+	/**
+	 * Give the memory used by this storage for one square, in bytes.
+	 * @return bytes used per square.
+	 */
+	double bytesPerCell () {
+		long bytes = 3L * 8 * this.mines.length;
+
+		return (this.size == 0) ? 0 : (double) bytes / this.size;
+	}
+
+	/**
+	 * Read the bit i of a plane.
+	 * @param plane 	plane read.
+	 * @param i 		index of the bit.
+	 * @return 			value of the bit.
+	 */
+	static boolean get (long[] plane, int i) {
+		return (plane[i >>> 6] & (1L << i)) != 0;
+	}
+
+	/**
+	 * Write the bit i of a plane.
+	 * @param plane 	plane written.
+	 * @param i 		index of the bit.
+	 * @param value 	new value of the bit.
+	 */
+	static void set (long[] plane, int i, boolean value) {
+		if (value) {
+			plane[i >>> 6] |= 1L << i;
+		}
+		else {
+			plane[i >>> 6] &= ~(1L << i);
+		}
+	}
+} // CellStorage
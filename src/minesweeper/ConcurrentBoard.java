@@ -0,0 +1,347 @@
+/*
+ * ConcurrentBoard.java
+ */
+
+// ----- Package ----- //
+
+package minesweeper;
+
+// ----- Imports ----- //
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * ConcurrentBoard class. Board shared by several players, each one playing from its own thread.
+ * The mines are fixed when the board is created. The state of each square (hidden, discovered or flag)
+ * is packed on 2 bits, 32 squares per long, and changed by compare-and-set : a square changes
+ * only once from hidden to discovered, whatever the number of players clicking it.
+ * No lock is taken, so cascades crossing each other can not deadlock : each square of a cascade
+ * is taken by the first reveal setting it, and the other reveals go around it.
+ * The squares discovered by a reveal are counted by a single atomic update at its end :
+ * win and loose read this counter in a single operation, and the reveal winning the game is the one
+ * whose update reaches the number of safe squares.
+ *
+ * @author Baert Quentin
+ */
+
+public class ConcurrentBoard {
+	// ----- Attributes ----- //
+
+	/**
+	 * State of the hidden squares.
+	 */
+	private static final long HIDDEN = 0;
+
+	/**
+	 * State of the discovered squares.
+	 */
+	private static final long DISCOVERED = 1;
+
+	/**
+	 * State of the squares with a flag on.
+	 */
+	private static final long FLAG = 2;
+
+	/**
+	 * Width of the board.
+	 */
+	private final int width;
+
+	/**
+	 * Height of the board.
+	 */
+	private final int height;
+
+	/**
+	 * Class of each square in the topology of the board (unsigned), null if each square is its own class.
+	 */
+	private final byte[] classes;
+
+	/**
+	 * Start of the neighbours of each class in deltas, and end of the last one.
+	 */
+	private final int[] offsets;
+
+	/**
+	 * Offsets from the index of a square to its neighbours, class after class.
+	 */
+	private final int[] deltas;
+
+	/**
+	 * Undermined squares, one bit per square. Never changed.
+	 */
+	private final long[] mines;
+
+	/**
+	 * Number of undermined squares around each square. Never changed.
+	 */
+	private final byte[] counts;
+
+	/**
+	 * Number of undermined squares on the board.
+	 */
+	private final int nbOfMines;
+
+	/**
+	 * State of the squares, 2 bits per square.
+	 */
+	private final AtomicLongArray states;
+
+	/**
+	 * Number of safe squares discovered (low int) and of undermined squares discovered (high int).
+	 */
+	private final AtomicLong discovered;
+
+	// ----- Methods ----- //
+
+	/**
+	 * Constructor of the ConcurrentBoard class, sharing a copy of a board.
+	 * @param b 	board copied, with its mines placed.
+	 */
+	public ConcurrentBoard (Board b) {
+		CellStorage s = b.storage();
+		long   counter = 0;
+
+		this.width 	   = b.getWidth();
+		this.height    = b.getHeight();
+		this.classes   = b.getTopology().classes();
+		this.offsets   = b.getTopology().offsets();
+		this.deltas    = b.getTopology().deltas();
+		this.mines 	   = s.mines().clone();
+		this.counts    = b.counts().clone();
+		this.nbOfMines = b.getNbOfMines();
+		this.states    = new AtomicLongArray((s.size() + 31) >>> 5);
+
+		for (int i = 0; i < s.size(); i++) {
+			if (s.isDiscovered(i)) {
+				this.states.set(i >>> 5, this.states.get(i >>> 5) | (DISCOVERED << ((i & 31) << 1)));
+				counter += s.isMine(i) ? (1L << 32) : 1;
+			}
+			else if (s.hasFlag(i)) {
+				this.states.set(i >>> 5, this.states.get(i >>> 5) | (FLAG << ((i & 31) << 1)));
+			}
+		}
+
+		this.discovered = new AtomicLong(counter);
+	}
+
+	/**
+	 * Give the width of this board.
+	 * @return width of this board.
+	 */
+	public int getWidth () {
+		return this.width;
+	}
+
+	/**
+	 * Give the height of this board.
+	 * @return height of this board.
+	 */
+	public int getHeight () {
+		return this.height;
+	}
+
+	/**
+	 * Give the number of undermined squares on this board.
+	 * @return number of mines.
+	 */
+	public int getNbOfMines () {
+		return this.nbOfMines;
+	}
+
+	/**
+	 * Give the number of discovered squares on this board.
+	 * @return number of discovered squares.
+	 */
+	public int getNbOfDiscovered () {
+		long d = this.discovered.get();
+
+		return (int) d + (int) (d >>> 32);
+	}
+
+	/**
+	 * Give the index of the square at the location past in parameter.
+	 * @param x 	abscissa of the square.
+	 * @param y 	ordinate of the square.
+	 * @return 		index of the square.
+	 * @exception 	If the location is outside of the board.
+	 */
+	private int indexOf (int x, int y) throws IndexOutOfBoundsException {
+		if ((x < 0) || (x >= this.width) || (y < 0) || (y >= this.height)) {
+			throw new IndexOutOfBoundsException("The location (" + x + ", " + y + ") is outside of the board.");
+		}
+
+		return y * this.width + x;
+	}
+
+	/**
+	 * Give the state of the square at index i.
+	 * @param i 	index of the square.
+	 * @return 		HIDDEN, DISCOVERED or FLAG.
+	 */
+	private long state (int i) {
+		return (this.states.get(i >>> 5) >>> ((i & 31) << 1)) & 3;
+	}
+
+	/**
+	 * Change the state of the square at index i, if it is the expected one.
+	 * The other squares of the same long may change at the same time : the update is retried until
+	 * it succeeds or the square is not in the expected state anymore.
+	 * @param i 		index of the square.
+	 * @param from 		expected state of the square.
+	 * @param to 		new state of the square.
+	 * @return 			true if this call changed the state, false otherwise.
+	 */
+	private boolean transition (int i, long from, long to) {
+		int  w 	   = i >>> 5;
+		int  shift = (i & 31) << 1;
+		long mask  = 3L << shift;
+
+		while (true) {
+			long v = this.states.get(w);
+
+			if ((v & mask) != (from << shift)) {
+				return false;
+			}
+
+			if (this.states.compareAndSet(w, v, (v & ~mask) | (to << shift))) {
+				return true;
+			}
+		}
+	}
+
+	/**
+	 * Determine if the square at the location past in parameter is undermined.
+	 * @param x 	abscissa of the square.
+	 * @param y 	ordinate of the square.
+	 * @return 		true if the square is undermined, false otherwise.
+	 */
+	public boolean isUndermined (int x, int y) {
+		return CellStorage.get(this.mines, this.indexOf(x, y));
+	}
+
+	/**
+	 * Determine if the square at the location past in parameter is discovered.
+	 * @param x 	abscissa of the square.
+	 * @param y 	ordinate of the square.
+	 * @return 		true if the square is discovered, false otherwise.
+	 */
+	public boolean isDiscovered (int x, int y) {
+		return this.state(this.indexOf(x, y)) == DISCOVERED;
+	}
+
+	/**
+	 * Tell if the square at the location past in parameter has a flag on.
+	 * @param x 	abscissa of the square.
+	 * @param y 	ordinate of the square.
+	 * @return 		true if the square has a flag on, false otherwise.
+	 */
+	public boolean hasFlag (int x, int y) {
+		return this.state(this.indexOf(x, y)) == FLAG;
+	}
+
+	/**
+	 * Give the number of undermined squares around the square at the location past in parameter.
+	 * @param x 	abscissa of the square.
+	 * @param y 	ordinate of the square.
+	 * @return 		number of mines around the square.
+	 */
+	public int getMinesAround (int x, int y) {
+		return this.counts[this.indexOf(x, y)];
+	}
+
+	/**
+	 * Put a flag on the square at the location past in parameter, if it is hidden.
+	 * @param x 	abscissa of the square.
+	 * @param y 	ordinate of the square.
+	 * @return 		true if this call put the flag, false otherwise.
+	 */
+	public boolean putFlag (int x, int y) {
+		return this.transition(this.indexOf(x, y), HIDDEN, FLAG);
+	}
+
+	/**
+	 * Remove the flag of the square at the location past in parameter.
+	 * @param x 	abscissa of the square.
+	 * @param y 	ordinate of the square.
+	 * @return 		true if this call removed the flag, false otherwise.
+	 */
+	public boolean removeFlag (int x, int y) {
+		return this.transition(this.indexOf(x, y), FLAG, HIDDEN);
+	}
+
+	/**
+	 * Reveal the square at the location past in parameter.
+	 * If it has no mine around it, its neighbours are revealed in cascade.
+	 * Squares with a flag on, or already discovered by another player, are never revealed.
+	 * @param x 	abscissa of the square.
+	 * @param y 	ordinate of the square.
+	 * @return 		indexes (y * width + x) of the squares discovered by this call.
+	 */
+	public int[] reveal (int x, int y) {
+		int i = this.indexOf(x, y);
+
+		if (!this.transition(i, HIDDEN, DISCOVERED)) {
+			return new int[0];
+		}
+
+		if (CellStorage.get(this.mines, i)) {
+			this.discovered.addAndGet(1L << 32);
+
+			return new int[] {i};
+		}
+
+		int[] changed = new int[16];
+		int 	 size = 0;
+		int 	 head = 0;
+
+		// The squares discovered with no mine around them are the queue of the cascade
+		changed[size++] = i;
+
+		while (head < size) {
+			int c = changed[head++];
+
+			if (this.counts[c] != 0) {
+				continue;
+			}
+
+			int e = (this.classes != null) ? (this.classes[c] & 0xFF) : c;
+
+			for (int k = this.offsets[e], end = this.offsets[e + 1]; k < end; k++) {
+				int n = c + this.deltas[k];
+
+				if (this.transition(n, HIDDEN, DISCOVERED)) {
+					if (size == changed.length) {
+						changed = Arrays.copyOf(changed, size * 2);
+					}
+
+					changed[size++] = n;
+				}
+			}
+		}
+
+		this.discovered.addAndGet(size);
+
+		return Arrays.copyOf(changed, size);
+	}
+
+	/**
+	 * Determine if the board is a win one : only the undermined squares are not discovered.
+	 * @return true if the board is a win one, false otherwise.
+	 */
+	public boolean win () {
+		long d = this.discovered.get();
+
+		return ((d >>> 32) == 0) && ((int) d == this.width * this.height - this.nbOfMines);
+	}
+
+	/**
+	 * Determine if the board is a loose one, that is to say an undermined square has been discovered.
+	 * @return true if the board is a loose one, false otherwise.
+	 */
+	public boolean loose () {
+		return (this.discovered.get() >>> 32) > 0;
+	}
+} // ConcurrentBoard
@@ -8,6 +8,7 @@ package minesweeper;
 
 /**
  * Location class. Location in the minesweeper game board.
+ * Locations are immutable values : Location.of shares the locations of the first CACHE x CACHE squares.
  *  
  * @author Baert Quentin
  */
@@ -15,15 +16,25 @@ package minesweeper;
 public class Location {
 	// ----- Attributes ----- //
 	
+	/**
+	 * Width and height of the squares whose locations are shared.
+	 */
+	public static final int CACHE = 128;
+	
+	/**
+	 * Shared locations, indexed by y * CACHE + x, created at their first use.
+	 */
+	private static final Location[] SHARED = new Location[CACHE * CACHE];
+	
 	/**
 	 * Abscissa of the location (horizontal scale).
 	 */
-	private int x;
+	private final int x;
 	
 	/**
 	 * Ordinate of the location (vertical scale).
 	 */
-	private int y;
+	private final int y;
 	
 	// ----- Methods ----- //
 	
@@ -37,6 +48,28 @@ public class Location {
 		this.y = y;
 	}
 	
+	/**
+	 * Give the location of the square (x, y), shared if it is in the first CACHE x CACHE squares.
+	 * Two threads may create the same location at the same time : both are equal.
+	 * @param x 	abscissa of the location.
+	 * @param y 	ordinate of the location.
+	 * @return 		location (x, y).
+	 */
+	public static Location of (int x, int y) {
+		if ((x < 0) || (x >= CACHE) || (y < 0) || (y >= CACHE)) {
+			return new Location(x, y);
+		}
+		
+		Location l = SHARED[y * CACHE + x];
+		
+		if (l == null) {
+			l = new Location(x, y);
+			SHARED[y * CACHE + x] = l;
+		}
+		
+		return l;
+	}
+	
 	/**
 	 * Give the abscissa of this location.
 	 * @return abscissa of this location.
@@ -75,4 +108,12 @@ public class Location {
 			return false;
 		}
 	}
+	
+	/**
+	 * Give a hash code of this location, consistent with equals.
+	 * @return hash code of this location.
+	 */
+	public int hashCode () {
+		return 31 * this.x + this.y;
+	}
 } // Location
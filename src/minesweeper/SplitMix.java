@@ -0,0 +1,43 @@
+/*
+ * SplitMix.java
+ */
+
+// ----- Package ----- //
+
+package minesweeper;
+
+/**
+ * SplitMix class. Mixing of the bits of a number with the SplitMix64 finalizer, shared by the
+ * seeds of the boards (Simulator, NoGuessGenerator, InfiniteBoard chunks) and the keys of the board hash.
+ * Close numbers (consecutive seeds, neighbour squares) give unrelated results.
+ *
+ * @author Baert Quentin
+ */
+
+public final class SplitMix {
+	// ----- Attributes ----- //
+
+	/**
+	 * Golden gamma of SplitMix64, the step between two seeds of a sequence.
+	 */
+	public static final long GAMMA = 0x9E3779B97F4A7C15L;
+
+	// ----- Methods ----- //
+
+	/**
+	 * Constructor of the SplitMix class. Not used : all the methods are static.
+	 */
+	private SplitMix () {}
+
+	/**
+	 * Mix the bits of a number (SplitMix64 finalizer).
+	 * @param z 	number mixed.
+	 * @return 		mixed number.
+	 */
+	public static long mix (long z) {
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+
+		return z ^ (z >>> 31);
+	}
+} // SplitMix
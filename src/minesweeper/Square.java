@@ -8,6 +8,7 @@ package minesweeper;
 
 /**
  * Square class. Square in the minesweeper game.
+ * A square is a view on the state of a board : it holds no state itself.
  * 
  * @author Baert Quentin
  */
@@ -16,10 +17,9 @@ public class Square {
 	// ----- Attributes ----- //
 	
 	/**
-	 * Content of the square.
+	 * Board of the square.
 	 */
-	@SuppressWarnings("unused")
-	private SquareContent content;
+	private Board board;
 	
 	/**
 	 * Location of the square.
@@ -27,33 +27,22 @@ public class Square {
 	private Location location;
 	
 	/**
-	 * Determine if the square is undermined.
+	 * Index of the square in the storage of the board.
 	 */
-	private boolean undermined;
-	
-	/**
-	 * Determine if the square is discovered.
-	 */
-	private boolean discovered;
-	
-	/**
-	 * Determine if the square has a flag on.
-	 */
-	private boolean flag;
+	private int index;
 	
 	// ----- Methods ----- //
 	
 	/**
 	 * Constructor of the Square class.
-	 * A new construct square is not undermined, not discovered and has no flag on.
+	 * @param b 	board of the square.
 	 * @param l 	location of the square. 
+	 * @param i 	index of the square in the storage of the board.
 	 */
-	public Square (Location l) {
-		this.content 	= SquareContent.EMPTY;
-		this.location 	= l;
-		this.undermined = false;
-		this.discovered = false;
-		this.flag 		= false;
+	Square (Board b, Location l, int i) {
+		this.board 	  = b;
+		this.location = l;
+		this.index 	  = i;
 	}
 	
 	/**
@@ -69,7 +58,7 @@ public class Square {
 	 * @return true is this square is undermined, false otherwise.
 	 */
 	public boolean isUndermined () {
-		return this.undermined;
+		return this.board.storage().isMine(this.index);
 	}
 	
 	/**
@@ -77,7 +66,7 @@ public class Square {
 	 * @return true if the square is discovered, false otherwise.
 	 */
 	public boolean isDiscovered () {
-		return this.discovered;
+		return this.board.storage().isDiscovered(this.index);
 	}
 	
 	/**
@@ -85,40 +74,43 @@ public class Square {
 	 * @return true if this square has a flag on, false otherwise.
 	 */
 	public boolean hasFlag () {
-		return this.flag;
+		return this.board.storage().hasFlag(this.index);
+	}
+	
+	/**
+	 * Give the content of this square.
+	 * @return content of this square.
+	 */
+	public SquareContent getContent () {
+		return this.isUndermined() ? SquareContent.MINE : SquareContent.EMPTY;
 	}
 	
 	/**
 	 * Put a mine under this square.
 	 */
 	public void mine () {
-		this.content 	= SquareContent.MINE;
-		this.undermined = true;
+		this.board.setMine(this.index, true);
 	}
 	
 	/**
 	 * Discover this square.
 	 */
 	public void discover () {
-		this.discovered = true;
+		this.board.discover(this.index);
 	}
 	
 	/**
-	 * Put a flag on this square if it has not one.
+	 * Put a flag on this square if it has not one (see Board.putFlag).
 	 */
 	public void putFlag () {
-		if (!flag) {
-			this.flag = true;
-		}
+		this.board.putFlag(this.index);
 	}
 	
 	/**
-	 * Remove the flag on this square if it has one.
+	 * Remove the flag on this square if it has one (see Board.removeFlag).
 	 */
 	public void removeFlag () {
-		if (flag) {
-			this.flag = false;
-		}
+		this.board.removeFlag(this.index);
 	}
 	
 	/**
@@ -146,10 +138,18 @@ public class Square {
 		if (o instanceof Square) {
 			Square s = (Square) o;
 			
-			return s.getLocation().equals(this.location) && (s.isUndermined() == this.undermined);
+			return s.getLocation().equals(this.location) && (s.isUndermined() == this.isUndermined());
 		}
 		else {
 			return false;
 		}
 	}
+	
+	/**
+	 * Give a hash code of this square, consistent with equals.
+	 * @return hash code of this square.
+	 */
+	public int hashCode () {
+		return 2 * this.location.hashCode() + (this.isUndermined() ? 1 : 0);
+	}
 } // Square
@@ -0,0 +1,346 @@
+/*
+ * TextRenderer.java
+ */
+
+// ----- Package ----- //
+
+package minesweeper;
+
+// ----- Imports ----- //
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * TextRenderer class. Renderer of a board in text mode.
+ * Each frame is built in a byte buffer reused between frames, and written in one call.
+ * In ANSI mode, the first frame clears the screen and the next ones only rewrite
+ * the squares which changed since the previous frame, with cursor moves.
+ *
+ * @author Baert Quentin
+ */
+
+public class TextRenderer {
+	// ----- Attributes ----- //
+
+	/**
+	 * Descriptions of the squares, by code (0 to 8 : discovered, 9 : mine, 10 : flag, 11 : not discovered).
+	 */
+	private static final byte[][] SQUARES = new byte[12][];
+
+	/**
+	 * Code of a square not drawn yet.
+	 */
+	private static final byte NONE = -1;
+
+	/**
+	 * Escape character of the ANSI sequences.
+	 */
+	private static final byte ESC = 27;
+
+	static {
+		for (int n = 0; n <= 8; n++) {
+			SQUARES[n] = bytes(" " + n + " ");
+		}
+
+		SQUARES[9]  = bytes(" * ");
+		SQUARES[10] = bytes(" |>");
+		SQUARES[11] = bytes(" ? ");
+	}
+
+	/**
+	 * Line separator of the frames.
+	 */
+	private final byte[] newLine;
+
+	/**
+	 * Determine if this renderer only rewrites the changed squares with ANSI sequences.
+	 */
+	private final boolean ansi;
+
+	/**
+	 * Buffer of the frame.
+	 */
+	private byte[] buffer;
+
+	/**
+	 * Number of bytes of the frame in the buffer.
+	 */
+	private int length;
+
+	/**
+	 * Codes of the squares in the previous frame (ANSI mode).
+	 */
+	private byte[] previous;
+
+	/**
+	 * Board of the previous frame (ANSI mode).
+	 */
+	private Board previousBoard;
+
+	// ----- Methods ----- //
+
+	/**
+	 * Constructor of the TextRenderer class.
+	 * @param ansi 	true to only rewrite the changed squares with ANSI sequences, false to write full frames.
+	 */
+	public TextRenderer (boolean ansi) {
+		this.ansi 	 = ansi;
+		this.newLine = bytes(System.lineSeparator());
+		this.buffer  = new byte[1024];
+		this.length  = 0;
+	}
+
+	/**
+	 * Forget the previous frame : the next frame is written in full.
+	 */
+	public void reset () {
+		this.previous 	   = null;
+		this.previousBoard = null;
+	}
+
+	/**
+	 * Render a frame of a board.
+	 * In ANSI mode, the cursor is left under the board and the rest of the screen is cleared.
+	 * @param b 		board rendered.
+	 * @param out 		stream on which the frame is written.
+	 * @exception 		If the frame can not be written.
+	 */
+	public void render (Board b, OutputStream out) throws IOException {
+		this.length = 0;
+
+		if (!this.ansi) {
+			this.frame(b);
+		}
+		else if ((this.previousBoard != b) || (this.previous.length != b.getWidth() * b.getHeight())) {
+			this.previous 	   = new byte[b.getWidth() * b.getHeight()];
+			this.previousBoard = b;
+
+			Arrays.fill(this.previous, NONE);
+
+			// Clear the screen and go home
+			this.escape().put('[').put('2').put('J');
+			this.escape().put('[').put('H');
+			this.frame(b);
+			this.put(this.newLine);
+			this.escape().put('[').put('J');
+		}
+		else {
+			this.diff(b);
+		}
+
+		out.write(this.buffer, 0, this.length);
+		out.flush();
+	}
+
+	/**
+	 * Give the code of a square.
+	 * @param b 	board of the square.
+	 * @param x 	abscissa of the square.
+	 * @param y 	ordinate of the square.
+	 * @return 		code of the square.
+	 */
+	private static byte codeOf (Board b, int x, int y) {
+		if (b.isDiscovered(x, y)) {
+			return (byte) (b.isUndermined(x, y) ? 9 : b.getMinesAround(x, y));
+		}
+		else if (b.hasFlag(x, y)) {
+			return 10;
+		}
+		else {
+			return 11;
+		}
+	}
+
+	/**
+	 * Write a full frame of a board in the buffer.
+	 * @param b 	board rendered.
+	 */
+	private void frame (Board b) {
+		int width  = b.getWidth();
+		int height = b.getHeight();
+
+		// Clues
+		this.spaces(4);
+
+		for (int n = 0; n < width; n++) {
+			this.put(' ').number(n).put(' ');
+		}
+
+		this.put(this.newLine);
+
+		// High border
+		this.border(width);
+		this.put(this.newLine);
+
+		for (int y = 0; y < height; y++) {
+			// Clues
+			this.put(' ').number(y).put(' ').put('|');
+
+			// Inside the board
+			for (int x = 0; x < width; x++) {
+				byte code = codeOf(b, x, y);
+
+				this.put(SQUARES[code]);
+
+				if (this.previous != null) {
+					this.previous[y * width + x] = code;
+				}
+			}
+
+			this.put('|').put(this.newLine);
+		}
+
+		// Bottom border
+		this.border(width);
+	}
+
+	/**
+	 * Write in the buffer the squares which changed since the previous frame.
+	 * @param b 	board rendered.
+	 */
+	private void diff (Board b) {
+		int width  = b.getWidth();
+		int height = b.getHeight();
+
+		for (int y = 0; y < height; y++) {
+			// Column of the first square of the line (after " y |")
+			int column = digits(y) + 4;
+
+			for (int x = 0; x < width; x++) {
+				byte code = codeOf(b, x, y);
+
+				if (this.previous[y * width + x] != code) {
+					this.previous[y * width + x] = code;
+
+					this.moveTo(y + 3, column + 3 * x);
+					this.put(SQUARES[code]);
+				}
+			}
+		}
+
+		this.moveTo(height + 4, 1);
+		this.escape().put('[').put('J');
+	}
+
+	/**
+	 * Write a border of the board in the buffer.
+	 * @param width 	width of the board.
+	 */
+	private void border (int width) {
+		this.spaces(4);
+
+		for (int i = 0; i < width; i++) {
+			this.put(' ').put('_').put(' ');
+		}
+	}
+
+	/**
+	 * Write a cursor move in the buffer.
+	 * @param line 		line of the screen (from 1).
+	 * @param column 	column of the screen (from 1).
+	 */
+	private void moveTo (int line, int column) {
+		this.escape().put('[').number(line).put(';').number(column).put('H');
+	}
+
+	/**
+	 * Write the escape character in the buffer.
+	 * @return this renderer.
+	 */
+	private TextRenderer escape () {
+		return this.put(ESC);
+	}
+
+	/**
+	 * Write spaces in the buffer.
+	 * @param n 	number of spaces.
+	 */
+	private void spaces (int n) {
+		for (int i = 0; i < n; i++) {
+			this.put(' ');
+		}
+	}
+
+	/**
+	 * Write a positive number in the buffer, in decimal.
+	 * @param n 	number written.
+	 * @return 		this renderer.
+	 */
+	private TextRenderer number (int n) {
+		int d = digits(n);
+
+		this.ensure(d);
+
+		for (int i = this.length + d - 1; i >= this.length; i--) {
+			this.buffer[i] = (byte) ('0' + (n % 10));
+			n /= 10;
+		}
+
+		this.length += d;
+
+		return this;
+	}
+
+	/**
+	 * Write a byte in the buffer.
+	 * @param c 	byte written.
+	 * @return 		this renderer.
+	 */
+	private TextRenderer put (int c) {
+		this.ensure(1);
+		this.buffer[this.length++] = (byte) c;
+
+		return this;
+	}
+
+	/**
+	 * Write bytes in the buffer.
+	 * @param bytes 	bytes written.
+	 * @return 			this renderer.
+	 */
+	private TextRenderer put (byte[] bytes) {
+		this.ensure(bytes.length);
+		System.arraycopy(bytes, 0, this.buffer, this.length, bytes.length);
+		this.length += bytes.length;
+
+		return this;
+	}
+
+	/**
+	 * Grow the buffer if it has not room for n more bytes.
+	 * @param n 	number of bytes to write.
+	 */
+	private void ensure (int n) {
+		if (this.length + n > this.buffer.length) {
+			this.buffer = Arrays.copyOf(this.buffer, Math.max(this.buffer.length * 2, this.length + n));
+		}
+	}
+
+	/**
+	 * Give the number of decimal digits of a positive number.
+	 * @param n 	number.
+	 * @return 		number of digits of n.
+	 */
+	private static int digits (int n) {
+		int d = 1;
+
+		while (n >= 10) {
+			n /= 10;
+			d++;
+		}
+
+		return d;
+	}
+
+	/**
+	 * Encode a string in ASCII.
+	 * @param s 	string encoded.
+	 * @return 		bytes of s.
+	 */
+	private static byte[] bytes (String s) {
+		return s.getBytes(StandardCharsets.US_ASCII);
+	}
+} // TextRenderer
@@ -0,0 +1,493 @@
+/*
+ * Topology.java
+ */
+
+// ----- Package ----- //
+
+package minesweeper;
+
+// ----- Imports ----- //
+
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Topology class. Neighbours of the squares of a board : square grid, torus (the edges wrap around),
+ * hexagonal grid, or any graph.
+ * The neighbours are computed once, in compressed sparse rows : the squares with the same neighbourhood
+ * (the same offsets from their index to their neighbours) share a class, and each class has a row of
+ * offsets, in increasing order. The neighbours of the square at index i are i + deltas[k], for k
+ * from offsets[c] to offsets[c + 1] where c is the class of i : no bounds are checked when they are visited.
+ * A grid has at most 32 classes (borders, corners, parity of the lines), so a byte per square.
+ * A graph with more than 256 neighbourhoods has no classes : each square has its own row.
+ * A topology never changes, so it can be shared by several boards.
+ *
+ * @author Baert Quentin
+ */
+
+public final class Topology {
+	// ----- Attributes ----- //
+
+	/**
+	 * Maximal number of neighbours of a square (the numbers of mines around the squares have one digit).
+	 */
+	public static final int MAX_DEGREE = 8;
+
+	/**
+	 * Kind of the square grids.
+	 */
+	static final int SQUARE = 0;
+
+	/**
+	 * Kind of the tori.
+	 */
+	static final int TORUS = 1;
+
+	/**
+	 * Kind of the hexagonal grids.
+	 */
+	static final int HEXAGONAL = 2;
+
+	/**
+	 * Kind of the other graphs.
+	 */
+	static final int GRAPH = 3;
+
+	/**
+	 * Names of the kinds.
+	 */
+	private static final String[] NAMES = {"square", "torus", "hexagonal", "graph"};
+
+	/**
+	 * Maximal number of classes of the squares, one byte each.
+	 */
+	private static final int MAX_CLASSES = 256;
+
+	/**
+	 * Kind of this topology.
+	 */
+	private final int kind;
+
+	/**
+	 * Width of the board.
+	 */
+	private final int width;
+
+	/**
+	 * Height of the board.
+	 */
+	private final int height;
+
+	/**
+	 * Class of each square (unsigned), null if each square is its own class.
+	 */
+	private final byte[] classes;
+
+	/**
+	 * Start of the row of each class in deltas, and end of the last one.
+	 */
+	private final int[] offsets;
+
+	/**
+	 * Offsets from the index of a square to its neighbours, row after row.
+	 */
+	private final int[] deltas;
+
+	// ----- Methods ----- //
+
+	/**
+	 * Constructor of the Topology class.
+	 * @param kind 		kind of the topology.
+	 * @param width 	width of the board.
+	 * @param height 	height of the board.
+	 * @param classes 	class of each square, null if each square is its own class.
+	 * @param offsets 	start of the row of each class in deltas, and end of the last one.
+	 * @param deltas 	offsets from the squares to their neighbours.
+	 */
+	private Topology (int kind, int width, int height, byte[] classes, int[] offsets, int[] deltas) {
+		this.kind 	 = kind;
+		this.width 	 = width;
+		this.height  = height;
+		this.classes = classes;
+		this.offsets = offsets;
+		this.deltas  = deltas;
+	}
+
+	/**
+	 * Give the square grid of the size past in parameter : the neighbours of a square are the (at most) 8 squares around it.
+	 * @param width 	width of the board.
+	 * @param height 	height of the board.
+	 * @return 			square grid.
+	 * @exception 		If the size is negative.
+	 */
+	public static Topology square (int width, int height) throws IllegalArgumentException {
+		return grid(SQUARE, width, height);
+	}
+
+	/**
+	 * Give the torus of the size past in parameter : a square grid whose edges wrap around, so that every square
+	 * has 8 neighbours (less on a board thinner than 3 squares).
+	 * @param width 	width of the board.
+	 * @param height 	height of the board.
+	 * @return 			torus.
+	 * @exception 		If the size is negative.
+	 */
+	public static Topology torus (int width, int height) throws IllegalArgumentException {
+		return grid(TORUS, width, height);
+	}
+
+	/**
+	 * Give the hexagonal grid of the size past in parameter, its odd lines shifted right by half a square :
+	 * the neighbours of a square are the (at most) 6 squares around it, 2 on its line, 2 above and 2 below.
+	 * @param width 	width of the board.
+	 * @param height 	height of the board.
+	 * @return 			hexagonal grid.
+	 * @exception 		If the size is negative.
+	 */
+	public static Topology hexagonal (int width, int height) throws IllegalArgumentException {
+		return grid(HEXAGONAL, width, height);
+	}
+
+	/**
+	 * Give the topology of a kind saved in a file (see BoardFile).
+	 * @param kind 		kind of the topology, other than GRAPH.
+	 * @param width 	width of the board.
+	 * @param height 	height of the board.
+	 * @return 			topology.
+	 * @exception 		If the kind is not the one of a grid, or the size is negative.
+	 */
+	static Topology of (int kind, int width, int height) throws IllegalArgumentException {
+		if ((kind < SQUARE) || (kind > HEXAGONAL)) {
+			throw new IllegalArgumentException("There is no grid of kind " + kind + ".");
+		}
+
+		return grid(kind, width, height);
+	}
+
+	/**
+	 * Give a topology given by the neighbours of each square. The squares are still indexed as on
+	 * a board of the size past in parameter (y * width + x), for the display.
+	 * @param width 		width of the board.
+	 * @param height 		height of the board.
+	 * @param neighbours 	indexes of the neighbours of each square.
+	 * @return 				topology.
+	 * @exception 			If a square has more than MAX_DEGREE neighbours, twice the same, itself or a square
+	 * 						outside of the board, or if a square is not a neighbour of its neighbours.
+	 */
+	public static Topology graph (int width, int height, int[][] neighbours) throws IllegalArgumentException {
+		int size = area(width, height);
+
+		if (neighbours.length != size) {
+			throw new IllegalArgumentException("A board of " + width + "x" + height + " has " + size + " squares, not " + neighbours.length + ".");
+		}
+
+		int[][] rows = new int[size][];
+
+		for (int i = 0; i < size; i++) {
+			int[] row = neighbours[i].clone();
+
+			Arrays.sort(row);
+
+			if (row.length > MAX_DEGREE) {
+				throw new IllegalArgumentException("The square " + i + " has more than " + MAX_DEGREE + " neighbours.");
+			}
+
+			for (int k = 0; k < row.length; k++) {
+				if ((row[k] < 0) || (row[k] >= size) || (row[k] == i) || ((k > 0) && (row[k] == row[k - 1]))) {
+					throw new IllegalArgumentException("The square " + i + " can not have " + row[k] + " as neighbour.");
+				}
+
+				row[k] -= i;
+			}
+
+			rows[i] = row;
+		}
+
+		for (int i = 0; i < size; i++) {
+			for (int d : rows[i]) {
+				if (Arrays.binarySearch(rows[i + d], -d) < 0) {
+					throw new IllegalArgumentException("The square " + i + " is not a neighbour of its neighbour " + (i + d) + ".");
+				}
+			}
+		}
+
+		// Squares with the same neighbourhood share a class (an IntBuffer is compared by content)
+		Map<IntBuffer, Integer> known = new HashMap<IntBuffer, Integer>();
+		List<int[]> 		 distinct = new ArrayList<int[]>();
+		byte[] 				  classes = new byte[size];
+
+		for (int i = 0; (i < size) && (classes != null); i++) {
+			Integer c = known.get(IntBuffer.wrap(rows[i]));
+
+			if (c == null) {
+				if (distinct.size() == MAX_CLASSES) {
+					classes = null;
+					break;
+				}
+
+				c = distinct.size();
+				known.put(IntBuffer.wrap(rows[i]), c);
+				distinct.add(rows[i]);
+			}
+
+			classes[i] = (byte) (int) c;
+		}
+
+		int[][] 	 table = (classes != null) ? distinct.toArray(new int[0][]) : rows;
+		int[] 	   offsets = new int[table.length + 1];
+
+		for (int c = 0; c < table.length; c++) {
+			offsets[c + 1] = offsets[c] + table[c].length;
+		}
+
+		int[] deltas = new int[offsets[table.length]];
+
+		for (int c = 0; c < table.length; c++) {
+			System.arraycopy(table[c], 0, deltas, offsets[c], table[c].length);
+		}
+
+		return new Topology(GRAPH, width, height, classes, offsets, deltas);
+	}
+
+	/**
+	 * Build a grid : the class of a square is given by its place on each axis (first, inside, last,
+	 * or both on a line or a column of one square), and by the parity of its line on a hexagonal grid.
+	 * The board is filled line by line from one template per class of line.
+	 * @param kind 		kind of the grid.
+	 * @param width 	width of the board.
+	 * @param height 	height of the board.
+	 * @return 			grid.
+	 * @exception 		If the size is negative.
+	 */
+	private static Topology grid (int kind, int width, int height) throws IllegalArgumentException {
+		byte[]    classes = new byte[area(width, height)];
+		byte[][] templates = new byte[8][];
+		int[] representatives = new int[32];
+
+		Arrays.fill(representatives, -1);
+
+		for (int y = 0; y < height; y++) {
+			int parity = (kind == HEXAGONAL) ? (y & 1) : 0;
+			int 	 t = (axis(y, height) << 1) | parity;
+
+			if (templates[t] == null) {
+				templates[t] = new byte[width];
+
+				for (int x = 0; x < width; x++) {
+					int c = (((axis(y, height) << 2) | axis(x, width)) << 1) | parity;
+
+					templates[t][x] = (byte) c;
+
+					if (representatives[c] < 0) {
+						representatives[c] = y * width + x;
+					}
+				}
+			}
+
+			System.arraycopy(templates[t], 0, classes, y * width, width);
+		}
+
+		int[] offsets = new int[representatives.length + 1];
+		int[]  deltas = new int[representatives.length * MAX_DEGREE];
+		int[] 	 row = new int[MAX_DEGREE];
+
+		for (int c = 0; c < representatives.length; c++) {
+			int i = representatives[c];
+			int n = (i < 0) ? 0 : around(kind, width, height, i, row);
+
+			System.arraycopy(row, 0, deltas, offsets[c], n);
+			offsets[c + 1] = offsets[c] + n;
+		}
+
+		return new Topology(kind, width, height, classes, offsets, Arrays.copyOf(deltas, offsets[representatives.length]));
+	}
+
+	/**
+	 * Give the place of a coordinate on its axis.
+	 * @param v 		coordinate.
+	 * @param length 	length of the axis.
+	 * @return 			0 for the first, 2 for the last, 3 if it is both, 1 otherwise.
+	 */
+	private static int axis (int v, int length) {
+		if (length == 1) {
+			return 3;
+		}
+
+		return (v == 0) ? 0 : (v == length - 1) ? 2 : 1;
+	}
+
+	/**
+	 * Compute the offsets from a square of a grid to its neighbours, in increasing order.
+	 * @param kind 		kind of the grid.
+	 * @param width 	width of the board.
+	 * @param height 	height of the board.
+	 * @param i 		index of the square.
+	 * @param row 		offsets computed.
+	 * @return 			number of neighbours.
+	 */
+	private static int around (int kind, int width, int height, int i, int[] row) {
+		int x = i % width;
+		int y = i / width;
+		int n = 0;
+
+		for (int dy = -1; dy <= 1; dy++) {
+			for (int dx = -1; dx <= 1; dx++) {
+				int nx = x + dx;
+				int ny = y + dy;
+
+				if (kind == HEXAGONAL) {
+					// Above and below, the squares at x - 1 and x on an even line, x and x + 1 on an odd one
+					if ((dy != 0) && (dx == (((y & 1) == 0) ? 1 : -1))) {
+						continue;
+					}
+				}
+				else if (kind == TORUS) {
+					nx = (nx + width) % width;
+					ny = (ny + height) % height;
+				}
+
+				if ((nx < 0) || (nx >= width) || (ny < 0) || (ny >= height)) {
+					continue;
+				}
+
+				int d = ny * width + nx - i;
+
+				// A thin torus meets the same square on both sides, or the square itself
+				if ((d != 0) && (Arrays.binarySearch(row, 0, n, d) < 0)) {
+					row[n++] = d;
+					Arrays.sort(row, 0, n);
+				}
+			}
+		}
+
+		return n;
+	}
+
+	/**
+	 * Give the number of squares of a board.
+	 * @param width 	width of the board.
+	 * @param height 	height of the board.
+	 * @return 			number of squares.
+	 * @exception 		If the size is negative.
+	 */
+	private static int area (int width, int height) throws IllegalArgumentException {
+		if ((width < 0) || (height < 0)) {
+			throw new IllegalArgumentException("A board can not be of " + width + "x" + height + " squares.");
+		}
+
+		return Math.multiplyExact(width, height);
+	}
+
+	/**
+	 * Give the width of the board.
+	 * @return width of the board.
+	 */
+	public int getWidth () {
+		return this.width;
+	}
+
+	/**
+	 * Give the height of the board.
+	 * @return height of the board.
+	 */
+	public int getHeight () {
+		return this.height;
+	}
+
+	/**
+	 * Determine if this topology is a square grid.
+	 * @return true if the neighbours of a square are the squares around it, false otherwise.
+	 */
+	public boolean isSquare () {
+		return this.kind == SQUARE;
+	}
+
+	/**
+	 * Give the kind of this topology.
+	 * @return SQUARE, TORUS, HEXAGONAL or GRAPH.
+	 */
+	int kind () {
+		return this.kind;
+	}
+
+	/**
+	 * Give the class of each square, null if each square is its own class.
+	 * @return classes of the squares (unsigned).
+	 */
+	byte[] classes () {
+		return this.classes;
+	}
+
+	/**
+	 * Give the start of the row of each class in deltas, and the end of the last one.
+	 * @return offsets of the rows.
+	 */
+	int[] offsets () {
+		return this.offsets;
+	}
+
+	/**
+	 * Give the offsets from the index of a square to its neighbours, row after row.
+	 * @return offsets to the neighbours.
+	 */
+	int[] deltas () {
+		return this.deltas;
+	}
+
+	/**
+	 * Give the neighbours of the square at index i, in increasing index order.
+	 * @param i 		index (y * width + x) of the square.
+	 * @param out 		indexes of the neighbours, MAX_DEGREE at most.
+	 * @return 			number of neighbours.
+	 * @exception 		If there is no square at this index.
+	 */
+	public int neighbours (int i, int[] out) throws IndexOutOfBoundsException {
+		if ((i < 0) || (i >= this.width * this.height)) {
+			throw new IndexOutOfBoundsException("The index " + i + " is outside of the board.");
+		}
+
+		int c = (this.classes != null) ? (this.classes[i] & 0xFF) : i;
+		int n = 0;
+
+		for (int k = this.offsets[c]; k < this.offsets[c + 1]; k++) {
+			out[n++] = i + this.deltas[k];
+		}
+
+		return n;
+	}
+
+	/**
+	 * Give the memory used by this topology for one square, in bytes.
+	 * @return bytes used per square.
+	 */
+	public double bytesPerCell () {
+		long bytes = ((this.classes != null) ? this.classes.length : 0) + 4L * (this.offsets.length + this.deltas.length);
+
+		return (double) bytes / Math.max(this.width * this.height, 1);
+	}
+
+	/**
+	 * Give a number which differs between two topologies of the same size, up to the collisions
+	 * of a hash, for the hash of the boards.
+	 * @return signature of this topology.
+	 */
+	long signature () {
+		if (this.kind != GRAPH) {
+			return this.kind;
+		}
+
+		return ((long) Arrays.hashCode(this.classes) << 32) ^ (31L * Arrays.hashCode(this.offsets) + Arrays.hashCode(this.deltas)) ^ GRAPH;
+	}
+
+	/**
+	 * Describe this topology.
+	 * @return kind and size of this topology.
+	 */
+	public String toString () {
+		return NAMES[this.kind] + " " + this.width + "x" + this.height;
+	}
+} // Topology
@@ -0,0 +1,385 @@
+/*
+ * Batch.java
+ */
+
+// ----- Package ----- //
+
+package minesweeper.game;
+
+// ----- Imports ----- //
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+import minesweeper.Board;
+import minesweeper.journal.Outcome;
+
+/**
+ * Batch class. Non-interactive game of the text mode, driven by a stream of moves.
+ * One move per line, the coordinates separated by spaces :
+ * <ul>
+ * <li>R x y : discover the square (the mines are placed at the first one, which is always safe) ;</li>
+ * <li>F x y : put a flag on the square ;</li>
+ * <li>U x y : remove the flag of the square ;</li>
+ * <li>C x y : chord on the square (see Board.chord).</li>
+ * </ul>
+ * Empty lines and lines starting with # are ignored. The moves after the end of the game are skipped.
+ * The result is one line of tab separated values : outcome, moves played, moves skipped,
+ * squares discovered and seed. With trace, each move first gives a line : the number of
+ * squares discovered (R, C) or changed (F, U), or - if the move is skipped.
+ * The moves are parsed from the bytes of a buffer, and the trace is written to another one,
+ * flushed before waiting for more moves : a bot can play move by move through pipes.
+ *
+ * @author Baert Quentin
+ */
+
+public class Batch {
+	// ----- Attributes ----- //
+
+	/**
+	 * Size of the buffers, in bytes.
+	 */
+	private static final int BUFFER = 1 << 16;
+
+	/**
+	 * Board of the game.
+	 */
+	private final Board board;
+
+	/**
+	 * Number of mines, placed at the first square discovered.
+	 */
+	private final int nbOfMines;
+
+	/**
+	 * Seed of the mines placement.
+	 */
+	private final long seed;
+
+	/**
+	 * Determine if each move gives a line.
+	 */
+	private final boolean trace;
+
+	/**
+	 * Determine if the mines are placed.
+	 */
+	private boolean placed;
+
+	/**
+	 * Bytes read, not parsed yet from position in.
+	 */
+	private final byte[] input;
+
+	/**
+	 * Position of the next byte parsed.
+	 */
+	private int in;
+
+	/**
+	 * Number of bytes read in the input buffer.
+	 */
+	private int length;
+
+	/**
+	 * Byte given back after a number, -1 if none.
+	 */
+	private int pending;
+
+	/**
+	 * Bytes of the trace, not written yet.
+	 */
+	private final byte[] output;
+
+	/**
+	 * Number of bytes in the output buffer.
+	 */
+	private int out;
+
+	/**
+	 * Number of the line parsed.
+	 */
+	private long line;
+
+	/**
+	 * Number of moves played.
+	 */
+	private long moves;
+
+	/**
+	 * Number of moves skipped, after the end of the game.
+	 */
+	private long skipped;
+
+	// ----- Methods ----- //
+
+	/**
+	 * Constructor of the Batch class.
+	 * @param width 		width of the board.
+	 * @param height 		height of the board.
+	 * @param nbOfMines 	number of mines of the board.
+	 * @param seed 			seed of the mines placement.
+	 * @param trace 		true to give a line for each move.
+	 */
+	public Batch (int width, int height, int nbOfMines, long seed, boolean trace) {
+		this.board 	   = new Board(width, height);
+		this.nbOfMines = nbOfMines;
+		this.seed 	   = seed;
+		this.trace 	   = trace;
+		this.input 	   = new byte[BUFFER];
+		this.output    = new byte[BUFFER];
+		this.pending   = -1;
+	}
+
+	/**
+	 * Play the moves of a stream, until its end.
+	 * @param src 	stream of the moves.
+	 * @param dst 	stream of the trace and the result.
+	 * @return 		outcome of the game.
+	 * @exception 	If a stream fails, or a move is malformed or outside of the board.
+	 */
+	public Outcome run (InputStream src, OutputStream dst) throws IOException {
+		int width = this.board.getWidth();
+		int c;
+
+		while ((c = this.next(src, dst)) >= 0) {
+			this.line++;
+
+			// Blanks, empty lines and comments
+			while ((c == ' ') || (c == '\t')) {
+				c = this.next(src, dst);
+			}
+
+			if ((c == '#') || (c == '\n') || (c == '\r') || (c < 0)) {
+				while ((c >= 0) && (c != '\n')) {
+					c = this.next(src, dst);
+				}
+
+				continue;
+			}
+
+			int move = c;
+
+			if ((move != 'R') && (move != 'F') && (move != 'U') && (move != 'C')) {
+				throw this.malformed("unknown move '" + (char) move + "'");
+			}
+
+			int    x = this.parseInt(src, dst);
+			int    y = this.parseInt(src, dst);
+
+			// End of the line
+			while (((c = this.next(src, dst)) == ' ') || (c == '\t') || (c == '\r')) {}
+
+			if ((c >= 0) && (c != '\n')) {
+				throw this.malformed("too many values");
+			}
+
+			if ((x >= width) || (y >= this.board.getHeight())) {
+				throw this.malformed("(" + x + ", " + y + ") is outside of the board");
+			}
+
+			int 	 i = y * width + x;
+			long result;
+
+			if (this.board.win() || this.board.loose()) {
+				this.skipped++;
+				result = -1;
+			}
+			else if (move == 'R') {
+				if (!this.placed) {
+					this.board.init(this.nbOfMines, this.seed, x, y);
+					this.placed = true;
+				}
+
+				result = this.board.reveal(i);
+			}
+			else if (move == 'C') {
+				result = this.board.chord(i);
+			}
+			else {
+				boolean flag = (move == 'F');
+
+				result = (!this.board.isDiscovered(i) && (this.board.hasFlag(i) != flag)) ? 1 : 0;
+
+				if (flag) {
+					this.board.putFlag(i);
+				}
+				else {
+					this.board.removeFlag(i);
+				}
+			}
+
+			if (result >= 0) {
+				this.moves++;
+			}
+
+			if (this.trace) {
+				if (result >= 0) {
+					this.write(dst, result);
+				}
+				else {
+					this.write(dst, (byte) '-');
+				}
+
+				this.write(dst, (byte) '\n');
+			}
+		}
+
+		Outcome o = Outcome.of(this.board);
+		String  r = o + "\t" + this.moves + "\t" + this.skipped + "\t" + this.board.getNbOfDiscovered()
+				+ "\t" + this.seed + "\n";
+
+		for (byte b : r.getBytes(StandardCharsets.US_ASCII)) {
+			this.write(dst, b);
+		}
+
+		this.flush(dst);
+
+		return o;
+	}
+
+	/**
+	 * Give the board of the game.
+	 * @return board played.
+	 */
+	public Board getBoard () {
+		return this.board;
+	}
+
+	/**
+	 * Give the number of moves played.
+	 * @return number of moves, skipped moves excluded.
+	 */
+	public long getNbOfMoves () {
+		return this.moves;
+	}
+
+	/**
+	 * Give the number of moves skipped, after the end of the game.
+	 * @return number of moves skipped.
+	 */
+	public long getNbOfSkipped () {
+		return this.skipped;
+	}
+
+	/**
+	 * Give the next byte of the moves, reading more of them if needed.
+	 * The trace is flushed before waiting for more moves.
+	 * @param src 	stream of the moves.
+	 * @param dst 	stream of the trace.
+	 * @return 		next byte, -1 at the end of the stream.
+	 * @exception 	If a stream fails.
+	 */
+	private int next (InputStream src, OutputStream dst) throws IOException {
+		if (this.pending >= 0) {
+			int c = this.pending;
+
+			this.pending = -1;
+
+			return c;
+		}
+
+		if (this.in == this.length) {
+			if (src.available() == 0) {
+				this.flush(dst);
+			}
+
+			this.length = Math.max(src.read(this.input), 0);
+			this.in 	= 0;
+
+			if (this.length == 0) {
+				return -1;
+			}
+		}
+
+		return this.input[this.in++] & 0xFF;
+	}
+
+	/**
+	 * Parse a coordinate, after blanks.
+	 * @param src 	stream of the moves.
+	 * @param dst 	stream of the trace.
+	 * @return 		coordinate parsed.
+	 * @exception 	If a stream fails, or there is no coordinate.
+	 */
+	private int parseInt (InputStream src, OutputStream dst) throws IOException {
+		int c = this.next(src, dst);
+
+		while ((c == ' ') || (c == '\t')) {
+			c = this.next(src, dst);
+		}
+
+		if ((c < '0') || (c > '9')) {
+			throw this.malformed("coordinate expected");
+		}
+
+		long v = 0;
+
+		while ((c >= '0') && (c <= '9')) {
+			v = v * 10 + (c - '0');
+
+			if (v > Integer.MAX_VALUE) {
+				throw this.malformed("coordinate too large");
+			}
+
+			c = this.next(src, dst);
+		}
+
+		// The byte after the number is given back
+		this.pending = c;
+
+		return (int) v;
+	}
+
+	/**
+	 * Give the error of a malformed line.
+	 * @param reason 	what is wrong.
+	 * @return 			error.
+	 */
+	private IOException malformed (String reason) {
+		return new IOException("Line " + this.line + " : " + reason + ".");
+	}
+
+	/**
+	 * Write a number in the trace.
+	 * @param dst 	stream of the trace.
+	 * @param v 	positive number.
+	 * @exception 	If the stream fails.
+	 */
+	private void write (OutputStream dst, long v) throws IOException {
+		if (v >= 10) {
+			this.write(dst, v / 10);
+		}
+
+		this.write(dst, (byte) ('0' + (v % 10)));
+	}
+
+	/**
+	 * Write a byte in the trace.
+	 * @param dst 	stream of the trace.
+	 * @param b 	byte written.
+	 * @exception 	If the stream fails.
+	 */
+	private void write (OutputStream dst, byte b) throws IOException {
+		if (this.out == this.output.length) {
+			this.flush(dst);
+		}
+
+		this.output[this.out++] = b;
+	}
+
+	/**
+	 * Write the bytes of the trace not written yet.
+	 * @param dst 	stream of the trace.
+	 * @exception 	If the stream fails.
+	 */
+	private void flush (OutputStream dst) throws IOException {
+		if (this.out > 0) {
+			dst.write(this.output, 0, this.out);
+			dst.flush();
+			this.out = 0;
+		}
+	}
+} // Batch
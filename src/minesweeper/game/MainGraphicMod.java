@@ -1,14 +1,32 @@
 package minesweeper.game;
 
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
 import minesweeper.game.graphic.Window;
 
 public class MainGraphicMod {
 
 	/**
-	 * @param args
+	 * @param args 	optional width and height of the board,
+	 * 				then optional directory where the games are recorded.
+	 * 				--no-guess, anywhere, generates boards solvable without a guess.
 	 */
 	public static void main(String[] args) {
-		@SuppressWarnings("unused")
-		Window w = new Window(10, 10);
+		List<String> params = new ArrayList<String>(Arrays.asList(args));
+		boolean 	noGuess = params.remove("--no-guess");
+		
+		int width  = (params.size() >= 2) ? Integer.parseInt(params.get(0)) : 10;
+		int height = (params.size() >= 2) ? Integer.parseInt(params.get(1)) : 10;
+		
+		Window w = new Window(width, height);
+		
+		w.setNoGuess(noGuess);
+		
+		if (params.size() >= 3) {
+			w.setJournalDirectory(Paths.get(params.get(2)));
+		}
 	}
 }
@@ -8,10 +8,20 @@ package minesweeper.game;
 
 // ----- Imports ----- //
 
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.Scanner;
+import java.util.SplittableRandom;
 import minesweeper.Board;
-import minesweeper.Location;
-import minesweeper.Square;
+import minesweeper.BoardFile;
+import minesweeper.BoardHistory;
+import minesweeper.TextRenderer;
+import minesweeper.journal.Journal;
+import minesweeper.journal.Outcome;
 
 /**
  * MainTextMod class. Class to game at the mineweeper game.
@@ -27,6 +37,31 @@ public class MainTextMod {
 	 */
 	private Board board;
 	
+	/**
+	 * Versions of the board, for undo and redo.
+	 */
+	private BoardHistory history;
+	
+	/**
+	 * Renderer of the board.
+	 */
+	private TextRenderer renderer;
+	
+	/**
+	 * Journal of the moves, null if the game is not recorded.
+	 */
+	private Journal journal;
+	
+	/**
+	 * Reader of the choices of the gamer, on the standard input (never closed).
+	 */
+	private Scanner sc;
+	
+	/**
+	 * Messages to the gamer, printed under the next frame of the board (which clears the screen in ANSI mode).
+	 */
+	private StringBuilder messages;
+	
 	/**
 	 * Determine if the gamer can continue to play.
 	 */
@@ -41,72 +76,270 @@ public class MainTextMod {
 	
 	/**
 	 * Contructor of the MainTextMod class.
-	 * @param b 	board of the game.
+	 * @param b 		board of the game.
+	 * @param ansi 		true to only redraw the changed squares of the board with ANSI sequences.
 	 */
-	private MainTextMod (Board b) {
-		this.board = b;
+	private MainTextMod (Board b, boolean ansi) {
+		this.board 	  = b;
+		this.history  = new BoardHistory(b);
+		this.renderer = new TextRenderer(ansi);
+		this.sc 	  = new Scanner(System.in);
+		this.messages = new StringBuilder();
 		this.loose = false;
 		this.win   = false;
 	}
 	
+	/**
+	 * Continue the game on a board resumed from a file.
+	 * @param b 	board resumed.
+	 */
+	private void resume (Board b) {
+		// A resumed board can not be rebuilt from its seed : the journal stops here
+		this.closeJournal(Outcome.UNFINISHED);
+		
+		this.board 	 = b;
+		this.history = new BoardHistory(b);
+		this.loose 	 = b.loose();
+		this.win   = b.win();
+		
+		this.renderer.reset();
+	}
+	
+	/**
+	 * Close the journal of the game, if it is recorded.
+	 * @param o 	outcome of the game, UNFINISHED if it did not end.
+	 */
+	private void closeJournal (Outcome o) {
+		if (this.journal == null) {
+			return;
+		}
+		
+		if (o != Outcome.UNFINISHED) {
+			this.journal.end(o);
+		}
+		
+		try {
+			this.journal.close();
+		}
+		catch (IOException e) {
+			this.say("Sorry, the journal is incomplete : " + e.getMessage());
+		}
+		
+		this.journal = null;
+	}
+	
+	/**
+	 * Keep a message to the gamer, printed after the next frame of the board.
+	 * @param text 	message.
+	 */
+	private void say (String text) {
+		this.messages.append(text).append(System.lineSeparator());
+	}
+	
+	/**
+	 * Print the messages kept since the last frame.
+	 */
+	private void flushMessages () {
+		if (this.messages.length() > 0) {
+			System.out.println();
+			System.out.print(this.messages);
+			this.messages.setLength(0);
+		}
+	}
+	
+	/**
+	 * Display the board of the game, then the messages kept since the last frame.
+	 */
+	private void display () {
+		try {
+			this.renderer.render(this.board, System.out);
+		}
+		catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		
+		this.flushMessages();
+	}
+	
 	/**
 	 * Play a turn of the game.
 	 * The gamer choose if he wants to discover a square or put a flag on it.
 	 */
 	private void playTurn () {
 		int choice = -1;
-		Scanner sc = new Scanner(System.in);
 		
-		while (!((choice == 1) || (choice == 2))) {
+		while ((choice < 1) || (choice > 6)) {
 			System.out.println();
-			this.board.display();
+			this.display();
 			System.out.println("\n\n");
 			System.out.println("----------------------------------------\n");
 			System.out.println("What do you want to do ?");
 			System.out.println("1. Discover a square");
 			System.out.println("2. Put a flag on a square");
-			System.out.print("Type 1 or 2 : ");
+			System.out.println("3. Save the game");
+			System.out.println("4. Resume a saved game");
+			System.out.println("5. Undo the last move");
+			System.out.println("6. Redo the last move undone");
+			System.out.print("Type 1, 2, 3, 4, 5 or 6 : ");
 			
-			choice = sc.nextInt();
+			choice = this.sc.nextInt();
 		}
 		
 		System.out.println();
 		
+		if ((choice == 5) || (choice == 6)) {
+			if (!((choice == 5) ? this.history.canUndo() : this.history.canRedo())) {
+				this.say("Sorry, there is no move to " + ((choice == 5) ? "undo." : "redo."));
+				return;
+			}
+			
+			// The moves undone are not in the journal : it stops here
+			this.closeJournal(Outcome.UNFINISHED);
+			
+			if (choice == 5) {
+				this.history.undo();
+			}
+			else {
+				this.history.redo();
+			}
+			
+			this.loose = this.board.loose();
+			this.win   = this.board.win();
+			
+			return;
+		}
+		
+		if ((choice == 3) || (choice == 4)) {
+			System.out.print("File name : ");
+			
+			Path path = Paths.get(this.sc.next());
+			
+			System.out.println();
+			
+			try {
+				if (choice == 3) {
+					BoardFile.save(this.board, path);
+					this.say("Game saved in " + path + ".");
+				}
+				else {
+					this.resume(BoardFile.load(path));
+					this.say("Game resumed from " + path + ".");
+				}
+			}
+			catch (IOException e) {
+				this.say("Sorry, " + e.getMessage());
+			}
+			
+			return;
+		}
+		
 		System.out.println("For what location ?");
 		System.out.print("Abscissa : ");
 		
-		int x = sc.nextInt();
+		int x = this.sc.nextInt();
 		
 		System.out.print("Ordinate : ");
 		
-		int y = sc.nextInt();
+		int y = this.sc.nextInt();
 		System.out.println();
 		
 		if (choice == 1) {
-			Square s = this.board.getSquareAt(new Location(x, y));
+			this.history.reveal(x, y);
 			
-			if (s.isUndermined()) {
-				this.loose = true;
-				sc.close();
+			if (this.journal != null) {
+				this.journal.discover(x, y);
 			}
-			else {
-				s.discover();
+			
+			if (this.board.loose()) {
+				this.loose = true;
 			}
 		}
 		else {
-			this.board.getSquareAt(new Location(x, y)).putFlag();
+			this.history.putFlag(x, y);
+			
+			if (this.journal != null) {
+				this.journal.putFlag(x, y);
+			}
 		}
 		
 		if (this.board.win()) {
 			this.win = true;
-			sc.close();
 		}
 	}
 	
 	/**
-	 * @param args
+	 * Play a game in batch mode (see Batch), the moves read from a file or the standard input.
+	 * The result goes to the standard output, the errors to the error output (exit status 2).
+	 * @param moves 		file of the moves, null for the standard input.
+	 * @param width 		width of the board.
+	 * @param height 		height of the board.
+	 * @param nbOfMines 	number of mines of the board.
+	 * @param seed 			seed of the mines placement.
+	 * @param trace 		true to give a line for each move.
+	 */
+	private static void batch (Path moves, int width, int height, int nbOfMines, long seed, boolean trace) {
+		try (InputStream in = (moves == null) ? System.in : new FileInputStream(moves.toFile())) {
+			new Batch(width, height, nbOfMines, seed, trace).run(in, System.out);
+		}
+		catch (IOException | IllegalArgumentException e) {
+			System.out.flush();
+			System.err.println((e.getMessage() != null) ? e.getMessage() : e.toString());
+			System.exit(2);
+		}
+	}
+	
+	/**
+	 * @param args 	"--ansi" to only redraw the changed squares of the board,
+	 * 				"--journal file" to record the moves of the game in a journal,
+	 * 				"--batch [file]" to play the moves of a file (or of the standard input) without prompt,
+	 * 				with "--size width height", "--mines n", "--seed s" and "--trace" (one line per move).
 	 */
 	public static void main (String[] args) {
+		boolean ansi 	= false;
+		Path 	journal = null;
+		boolean batch 	= false;
+		Path 	moves 	= null;
+		int 	width 	= 9;
+		int 	height 	= 9;
+		int 	mines 	= 10;
+		long 	seed 	= new SplittableRandom().nextLong();
+		boolean trace 	= false;
+		
+		for (int i = 0; i < args.length; i++) {
+			if (args[i].equals("--ansi")) {
+				ansi = true;
+			}
+			else if (args[i].equals("--journal") && (i + 1 < args.length)) {
+				journal = Paths.get(args[++i]);
+			}
+			else if (args[i].equals("--batch")) {
+				batch = true;
+				
+				if ((i + 1 < args.length) && !args[i + 1].startsWith("--")) {
+					moves = Paths.get(args[++i]);
+				}
+			}
+			else if (args[i].equals("--size") && (i + 2 < args.length)) {
+				width  = Integer.parseInt(args[++i]);
+				height = Integer.parseInt(args[++i]);
+			}
+			else if (args[i].equals("--mines") && (i + 1 < args.length)) {
+				mines = Integer.parseInt(args[++i]);
+			}
+			else if (args[i].equals("--seed") && (i + 1 < args.length)) {
+				seed = Long.parseLong(args[++i]);
+			}
+			else if (args[i].equals("--trace")) {
+				trace = true;
+			}
+		}
+		
+		if (batch) {
+			batch(moves, width, height, mines, seed, trace);
+			return;
+		}
+		
+
 		// Rules
 		System.out.println("\t\t---------- MINESWEEPER ----------\n");
 		System.out.println("Here's your grid.");
@@ -119,27 +352,40 @@ public class MainTextMod {
 		
 		Board b 		 = new Board(5, 5);
 		b.init(5);
-		MainTextMod game = new MainTextMod(b);
+		MainTextMod game = new MainTextMod(b, ansi);
+		
+		if (journal != null) {
+			try {
+				game.journal = new Journal(journal, b, -1, -1);
+			}
+			catch (IOException e) {
+				game.say("Sorry, the game is not recorded : " + e.getMessage());
+			}
+		}
 		
 		while (!((game.win) || (game.loose))) {
 			game.playTurn();
 		}
 		
+		game.closeJournal(Outcome.of(game.board));
+		
 		System.out.println("----------------------------------------\n");
 		
 		if (game.win) {
 			System.out.println("Bravo ! You finish this board !\n");
 			System.out.println("Clean board : \n");
 			
-			b.displayClear();
+			game.board.displayClear();
 		}
 		else {
 			System.out.println("BOOM !!!\n");
 			System.out.println("Sorry, you loose...\n");
 			System.out.println("Clean board : \n");
 			
-			b.displayClear();
+			game.board.displayClear();
 		}
+		
+		game.flushMessages();
 	}
 
 } // MainTextMod
@@ -0,0 +1,315 @@
+/*
+ * BoardCanvas.java
+ */
+
+// ----- Package ----- //
+
+package minesweeper.game.graphic;
+
+// ----- Imports ----- //
+
+import java.awt.AlphaComposite;
+import java.awt.Color;
+import java.awt.Composite;
+import java.awt.Dimension;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+
+import javax.swing.JComponent;
+
+import minesweeper.Board;
+import minesweeper.metrics.Metrics;
+import minesweeper.solver.ProbabilityEngine;
+
+/**
+ * BoardCanvas class. Single component painting the whole board (graphic mode).
+ * The squares are drawn from a set of cached tile images, and only the part of the
+ * board inside the clip is painted, so a large board stays responsive in a scroll pane.
+ * The hidden squares can be shaded by their risk, from green (safe) to red (undermined).
+ *
+ * @author Baert Quentin
+ */
+
+@SuppressWarnings("serial")
+public class BoardCanvas extends JComponent {
+	// ----- Attributes ----- //
+
+	/**
+	 * Index of the tile of an undermined square (tiles 0 to 8 are the numbers).
+	 */
+	private static final int MINE = 9;
+
+	/**
+	 * Index of the tile of a square with a flag on.
+	 */
+	private static final int FLAG = 10;
+
+	/**
+	 * Index of the tile of a square not discovered.
+	 */
+	private static final int HIDDEN = 11;
+
+	/**
+	 * Colors of the numbers of mines around a square.
+	 */
+	private static final Color[] NUMBER_COLORS = {
+		Color.GRAY, Color.BLUE, new Color(0, 128, 0), Color.RED, new Color(0, 0, 128),
+		new Color(128, 0, 0), new Color(0, 128, 128), Color.BLACK, Color.DARK_GRAY
+	};
+
+	/**
+	 * Colors of the risks, from 0% to 100% by steps of 10%.
+	 */
+	private static final Color[] RISK_COLORS = new Color[11];
+
+	static {
+		for (int k = 0; k < RISK_COLORS.length; k++) {
+			RISK_COLORS[k] = new Color((255 * k) / 10, (255 * (10 - k)) / 10, 0);
+		}
+	}
+
+	/**
+	 * Board painted.
+	 */
+	private Board board;
+
+	/**
+	 * Size of a square on the screen, in pixels.
+	 */
+	private int cellSize;
+
+	/**
+	 * Cached images of the squares.
+	 */
+	private BufferedImage[] tiles;
+
+	/**
+	 * Risks of the hidden squares, null if they are not shaded.
+	 */
+	private ProbabilityEngine risk;
+
+	// ----- Methods ----- //
+
+	/**
+	 * Constructor of the BoardCanvas class.
+	 * @param board 	board painted.
+	 * @param cellSize 	size of a square on the screen, in pixels.
+	 */
+	public BoardCanvas (Board board, int cellSize) {
+		this.board 	  = board;
+		this.cellSize = cellSize;
+		this.tiles 	  = new BufferedImage[HIDDEN + 1];
+
+		for (int t = 0; t < this.tiles.length; t++) {
+			this.tiles[t] = this.createTile(t);
+		}
+
+		this.setOpaque(true);
+	}
+
+	/**
+	 * Change the board painted.
+	 * @param board 	new board painted.
+	 */
+	public void setBoard (Board board) {
+		this.board = board;
+
+		this.revalidate();
+		this.repaint();
+	}
+
+	/**
+	 * Shade the hidden squares by their risk.
+	 * @param risk 		probabilities computed on the board painted, null to stop shading.
+	 */
+	public void setRisk (ProbabilityEngine risk) {
+		this.risk = risk;
+
+		this.repaint();
+	}
+
+	/**
+	 * Give the color of a risk.
+	 * @param p 	probability of a mine, between 0 and 1.
+	 * @return 		color, from green (safe) to red (undermined).
+	 */
+	static Color riskColor (double p) {
+		return RISK_COLORS[(int) Math.round(Math.min(Math.max(p, 0), 1) * 10)];
+	}
+
+	/**
+	 * Give the size of a square on the screen.
+	 * @return size of a square, in pixels.
+	 */
+	public int getCellSize () {
+		return this.cellSize;
+	}
+
+	/**
+	 * Give the abscissa of the square under a point of this component.
+	 * @param px 	abscissa of the point, in pixels.
+	 * @return 		abscissa of the square, or -1 if the point is outside of the board.
+	 */
+	public int getSquareX (int px) {
+		int x = px / this.cellSize;
+
+		return ((px < 0) || (x >= this.board.getWidth())) ? -1 : x;
+	}
+
+	/**
+	 * Give the ordinate of the square under a point of this component.
+	 * @param py 	ordinate of the point, in pixels.
+	 * @return 		ordinate of the square, or -1 if the point is outside of the board.
+	 */
+	public int getSquareY (int py) {
+		int y = py / this.cellSize;
+
+		return ((py < 0) || (y >= this.board.getHeight())) ? -1 : y;
+	}
+
+	public Dimension getPreferredSize () {
+		return new Dimension(this.board.getWidth() * this.cellSize, this.board.getHeight() * this.cellSize);
+	}
+
+	protected void paintComponent (Graphics g) {
+		long start = Metrics.ENABLED ? System.nanoTime() : 0;
+
+		// The board is played by another thread
+		synchronized (this.board) {
+			this.paintSquares(g);
+		}
+
+		if (Metrics.ENABLED) {
+			Metrics.RENDER.record(System.nanoTime() - start);
+		}
+	}
+
+	/**
+	 * Paint the squares inside the clip, and their shades.
+	 * @param g 	graphics of this component.
+	 */
+	private void paintSquares (Graphics g) {
+		Rectangle clip = g.getClipBounds();
+
+		if (clip == null) {
+			clip = new Rectangle(0, 0, this.getWidth(), this.getHeight());
+		}
+
+		g.setColor(this.getBackground());
+		g.fillRect(clip.x, clip.y, clip.width, clip.height);
+
+		int xMin = Math.max(clip.x / this.cellSize, 0);
+		int yMin = Math.max(clip.y / this.cellSize, 0);
+		int xMax = Math.min((clip.x + clip.width - 1) / this.cellSize, this.board.getWidth() - 1);
+		int yMax = Math.min((clip.y + clip.height - 1) / this.cellSize, this.board.getHeight() - 1);
+
+		for (int y = yMin; y <= yMax; y++) {
+			for (int x = xMin; x <= xMax; x++) {
+				g.drawImage(this.tiles[this.tileAt(x, y)], x * this.cellSize, y * this.cellSize, null);
+			}
+		}
+
+		if (this.risk == null) {
+			return;
+		}
+
+		// Translucent shade over the hidden squares
+		Graphics2D g2 = (Graphics2D) g;
+		Composite  c  = g2.getComposite();
+
+		g2.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, 0.4f));
+
+		for (int y = yMin; y <= yMax; y++) {
+			for (int x = xMin; x <= xMax; x++) {
+				if (!this.board.isDiscovered(x, y)) {
+					g2.setColor(riskColor(this.risk.getProbability(x, y)));
+					g2.fillRect(x * this.cellSize, y * this.cellSize, this.cellSize, this.cellSize);
+				}
+			}
+		}
+
+		g2.setComposite(c);
+	}
+
+	/**
+	 * Give the tile of the square at the location past in parameter.
+	 * @param x 	abscissa of the square.
+	 * @param y 	ordinate of the square.
+	 * @return 		index of the tile.
+	 */
+	private int tileAt (int x, int y) {
+		if (this.board.isDiscovered(x, y)) {
+			return this.board.isUndermined(x, y) ? MINE : this.board.getMinesAround(x, y);
+		}
+		else if (this.board.hasFlag(x, y)) {
+			return FLAG;
+		}
+		else {
+			return HIDDEN;
+		}
+	}
+
+	/**
+	 * Draw the image of a tile.
+	 * @param t 	index of the tile.
+	 * @return 		image of the tile.
+	 */
+	private BufferedImage createTile (int t) {
+		int 		  size = this.cellSize;
+		BufferedImage tile = new BufferedImage(size, size, BufferedImage.TYPE_INT_RGB);
+		Graphics2D 		 g = tile.createGraphics();
+
+		g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+		g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+
+		if ((t == HIDDEN) || (t == FLAG)) {
+			g.setColor(new Color(189, 189, 189));
+			g.fillRect(0, 0, size, size);
+			g.setColor(Color.WHITE);
+			g.drawLine(0, 0, size - 1, 0);
+			g.drawLine(0, 0, 0, size - 1);
+			g.setColor(Color.GRAY);
+			g.drawLine(size - 1, 0, size - 1, size - 1);
+			g.drawLine(0, size - 1, size - 1, size - 1);
+
+			if (t == FLAG) {
+				int[] xs = {size / 3, size / 3, 3 * size / 4};
+				int[] ys = {size / 5, size / 2, size / 3};
+
+				g.setColor(Color.RED);
+				g.fillPolygon(xs, ys, 3);
+				g.setColor(Color.BLACK);
+				g.drawLine(size / 3, size / 5, size / 3, 4 * size / 5);
+			}
+		}
+		else {
+			g.setColor(new Color(224, 224, 224));
+			g.fillRect(0, 0, size, size);
+			g.setColor(Color.GRAY);
+			g.drawRect(0, 0, size - 1, size - 1);
+
+			if (t == MINE) {
+				g.setColor(Color.BLACK);
+				g.fillOval(size / 4, size / 4, size / 2, size / 2);
+			}
+			else if (t > 0) {
+				g.setFont(new Font(Font.SANS_SERIF, Font.BOLD, (2 * size) / 3));
+
+				String 	  text = Integer.toString(t);
+				FontMetrics fm = g.getFontMetrics();
+
+				g.setColor(NUMBER_COLORS[t]);
+				g.drawString(text, (size - fm.stringWidth(text)) / 2, (size - fm.getHeight()) / 2 + fm.getAscent());
+			}
+		}
+
+		g.dispose();
+
+		return tile;
+	}
+} // BoardCanvas
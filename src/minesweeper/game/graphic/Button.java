@@ -9,6 +9,7 @@ package minesweeper.game.graphic;
 // ----- Imports ----- //
 
 import java.awt.Graphics;
+import java.util.Objects;
 
 import javax.swing.JButton;
 
@@ -84,9 +85,12 @@ public class Button extends JButton {
 	}
 	
 	/**
-	 * Setter of the text attribute.
+	 * Setter of the text attribute. The button is repainted if the text changes.
 	 */
 	public void setText (String text) {
-		this.text = text;
+		if (!Objects.equals(this.text, text)) {
+			this.text = text;
+			this.repaint();
+		}
 	}
 }
@@ -0,0 +1,368 @@
+/*
+ * UpdateQueue.java
+ */
+
+// ----- Package ----- //
+
+package minesweeper.game.graphic;
+
+// ----- Imports ----- //
+
+import java.awt.Color;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.swing.JLabel;
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
+
+import minesweeper.metrics.Metrics;
+
+/**
+ * UpdateQueue class. Changes of the window posted by the thread of the game logic, and applied
+ * by the event dispatch thread at most once per frame : a cascade of any size is a single update,
+ * with the counter label set once.
+ * A square posted several times before a frame is updated once, with its last state.
+ * The buttons are updated from the states posted (the event dispatch thread never reads the board),
+ * the canvas is repainted on the rectangle around the squares posted.
+ * The updates of a frame are timed (Metrics.FRAME), and the clicks until the end of the painting of their frame (Metrics.LATENCY).
+ *
+ * @author Baert Quentin
+ */
+
+class UpdateQueue implements ActionListener {
+	// ----- Attributes ----- //
+
+	/**
+	 * Minimal time between two frames, in milliseconds.
+	 */
+	static final int FRAME = 16;
+
+	/**
+	 * Buttons updated, null when the board is shown on a canvas.
+	 */
+	private final Button[] buttons;
+
+	/**
+	 * Canvas repainted, null when the board is shown with buttons.
+	 */
+	private final BoardCanvas canvas;
+
+	/**
+	 * Label of the counter.
+	 */
+	private final JLabel label;
+
+	/**
+	 * Width of the board.
+	 */
+	private final int width;
+
+	/**
+	 * Timer of the next frame.
+	 */
+	private final Timer timer;
+
+	/**
+	 * Time of the last frame (System.nanoTime), read by the event dispatch thread only.
+	 */
+	private long lastFrame;
+
+	/**
+	 * Squares posted since the last frame, one bit per square.
+	 */
+	private final long[] dirty;
+
+	/**
+	 * Indexes of the squares posted since the last frame.
+	 */
+	private int[] changed;
+
+	/**
+	 * Number of squares posted since the last frame.
+	 */
+	private int nbOfChanged;
+
+	/**
+	 * Texts of the squares posted, for the buttons.
+	 */
+	private final String[] texts;
+
+	/**
+	 * Determine if the squares posted are discovered, for the buttons.
+	 */
+	private final boolean[] clicked;
+
+	/**
+	 * Shades of the squares posted, for the buttons (null if not shaded).
+	 */
+	private final Color[] shades;
+
+	/**
+	 * Determine if the whole canvas is repainted at the next frame.
+	 */
+	private boolean all;
+
+	/**
+	 * Text of the counter label at the next frame, null if it does not change.
+	 */
+	private String text;
+
+	/**
+	 * Other changes of the window, run in order at the next frame before the squares.
+	 */
+	private List<Runnable> actions;
+
+	/**
+	 * Times (System.nanoTime) of the clicks played since the last frame.
+	 */
+	private long[] clicks;
+
+	/**
+	 * Number of clicks played since the last frame.
+	 */
+	private int nbOfClicks;
+
+	/**
+	 * Determine if a frame is scheduled.
+	 */
+	private boolean scheduled;
+
+	// ----- Methods ----- //
+
+	/**
+	 * Constructor of the UpdateQueue class.
+	 * @param buttons 	buttons of the squares, null when the board is shown on a canvas.
+	 * @param canvas 	canvas of the board, null when the board is shown with buttons.
+	 * @param label 	label of the counter.
+	 * @param width 	width of the board.
+	 * @param height 	height of the board.
+	 */
+	UpdateQueue (Button[] buttons, BoardCanvas canvas, JLabel label, int width, int height) {
+		int size = width * height;
+
+		this.buttons 	 = buttons;
+		this.canvas 	 = canvas;
+		this.label 		 = label;
+		this.width 		 = width;
+		this.dirty 		 = new long[(size + 63) >>> 6];
+		this.changed 	 = new int[64];
+		this.texts 		 = (buttons != null) ? new String[size] : null;
+		this.clicked 	 = (buttons != null) ? new boolean[size] : null;
+		this.shades 	 = (buttons != null) ? new Color[size] : null;
+		this.actions 	 = new ArrayList<Runnable>();
+		this.clicks 	 = new long[8];
+		this.timer 		 = new Timer(FRAME, this);
+
+		this.timer.setRepeats(false);
+	}
+
+	/**
+	 * Post the state of a square.
+	 * @param i 			index (y * width + x) of the square.
+	 * @param text 			text of its button.
+	 * @param discovered 	true if the square is discovered.
+	 * @param shade 		shade of its button, null if it is not shaded.
+	 */
+	synchronized void square (int i, String text, boolean discovered, Color shade) {
+		if ((this.dirty[i >>> 6] & (1L << i)) == 0) {
+			this.dirty[i >>> 6] |= 1L << i;
+
+			if (this.nbOfChanged == this.changed.length) {
+				this.changed = Arrays.copyOf(this.changed, this.nbOfChanged * 2);
+			}
+
+			this.changed[this.nbOfChanged++] = i;
+		}
+
+		if (this.texts != null) {
+			this.texts[i]   = text;
+			this.clicked[i] = discovered;
+			this.shades[i]  = shade;
+		}
+
+		this.schedule();
+	}
+
+	/**
+	 * Post a repaint of the whole canvas.
+	 */
+	synchronized void all () {
+		this.all = true;
+
+		this.schedule();
+	}
+
+	/**
+	 * Post the text of the counter label.
+	 * @param text 	text of the label.
+	 */
+	synchronized void label (String text) {
+		this.text = text;
+
+		this.schedule();
+	}
+
+	/**
+	 * Post another change of the window.
+	 * @param action 	change, run by the event dispatch thread.
+	 */
+	synchronized void run (Runnable action) {
+		this.actions.add(action);
+
+		this.schedule();
+	}
+
+	/**
+	 * Post a click played, timed until the painting of the next frame.
+	 * @param nanos 	time of the click (System.nanoTime).
+	 */
+	synchronized void click (long nanos) {
+		if (this.nbOfClicks == this.clicks.length) {
+			this.clicks = Arrays.copyOf(this.clicks, this.nbOfClicks * 2);
+		}
+
+		this.clicks[this.nbOfClicks++] = nanos;
+
+		this.schedule();
+	}
+
+	/**
+	 * Schedule the next frame, if it is not yet.
+	 */
+	private void schedule () {
+		if (!this.scheduled) {
+			this.scheduled = true;
+
+			SwingUtilities.invokeLater(this::start);
+		}
+	}
+
+	/**
+	 * Start the timer of the next frame, FRAME milliseconds after the last one at least.
+	 */
+	private void start () {
+		long wait = FRAME - (System.nanoTime() - this.lastFrame) / 1000000;
+
+		this.timer.setInitialDelay((int) Math.max(Math.min(wait, FRAME), 0));
+		this.timer.restart();
+	}
+
+	/**
+	 * Apply the changes posted since the last frame.
+	 * @param e 	event of the timer.
+	 */
+	public void actionPerformed (ActionEvent e) {
+		this.lastFrame = System.nanoTime();
+
+		int[] 		   indexes;
+		String[] 	   texts  = null;
+		boolean[] 	   discov = null;
+		Color[] 	   shades = null;
+		boolean 	   all;
+		String 		   text;
+		List<Runnable> actions;
+		long[] 		   clicks;
+
+		synchronized (this) {
+			indexes = Arrays.copyOf(this.changed, this.nbOfChanged);
+
+			if (this.texts != null) {
+				texts  = new String[indexes.length];
+				discov = new boolean[indexes.length];
+				shades = new Color[indexes.length];
+
+				for (int k = 0; k < indexes.length; k++) {
+					texts[k]  = this.texts[indexes[k]];
+					discov[k] = this.clicked[indexes[k]];
+					shades[k] = this.shades[indexes[k]];
+				}
+			}
+
+			for (int i : indexes) {
+				this.dirty[i >>> 6] = 0;
+			}
+
+			all 	= this.all;
+			text 	= this.text;
+			actions = this.actions;
+			clicks  = Arrays.copyOf(this.clicks, this.nbOfClicks);
+
+			this.nbOfChanged = 0;
+			this.all 		 = false;
+			this.text 		 = null;
+			this.actions 	 = new ArrayList<Runnable>();
+			this.nbOfClicks  = 0;
+			this.scheduled 	 = false;
+		}
+
+		long start = Metrics.ENABLED ? System.nanoTime() : 0;
+
+		for (Runnable a : actions) {
+			a.run();
+		}
+
+		if (this.buttons != null) {
+			for (int k = 0; k < indexes.length; k++) {
+				Button b = this.buttons[indexes[k]];
+
+				b.setClick(discov[k]);
+				b.setText(texts[k]);
+				b.setBackground(shades[k]);
+			}
+		}
+		else if (all) {
+			this.canvas.repaint();
+		}
+		else if (indexes.length > 0) {
+			this.repaintAround(indexes);
+		}
+
+		if (text != null) {
+			this.label.setText(text);
+		}
+
+		if (Metrics.ENABLED) {
+			Metrics.FRAME.record(System.nanoTime() - start);
+
+			if (clicks.length > 0) {
+				// Queued after the repaints asked above : run once they are painted
+				SwingUtilities.invokeLater(() -> {
+					long now = System.nanoTime();
+
+					for (long c : clicks) {
+						Metrics.LATENCY.record(now - c);
+					}
+				});
+			}
+		}
+	}
+
+	/**
+	 * Repaint the rectangle of the canvas around some squares.
+	 * @param indexes 	indexes (y * width + x) of the squares.
+	 */
+	private void repaintAround (int[] indexes) {
+		int xMin = Integer.MAX_VALUE;
+		int yMin = Integer.MAX_VALUE;
+		int xMax = -1;
+		int yMax = -1;
+
+		for (int i : indexes) {
+			int x = i % this.width;
+			int y = i / this.width;
+
+			xMin = Math.min(xMin, x);
+			xMax = Math.max(xMax, x);
+			yMin = Math.min(yMin, y);
+			yMax = Math.max(yMax, y);
+		}
+
+		int size = this.canvas.getCellSize();
+
+		this.canvas.repaint(xMin * size, yMin * size, (xMax - xMin + 1) * size, (yMax - yMin + 1) * size);
+	}
+} // UpdateQueue
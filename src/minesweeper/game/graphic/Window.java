@@ -9,24 +9,50 @@ package minesweeper.game.graphic;
 // ----- Imports ----- //
 
 import java.awt.BorderLayout;
+import java.awt.Color;
+import java.awt.Dimension;
 import java.awt.GridLayout;
 import java.awt.event.MouseEvent;
 import java.awt.event.MouseListener;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.io.IOException;
+import java.nio.file.Path;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import javax.swing.JButton;
+import javax.swing.JFileChooser;
 import javax.swing.JFrame;
 import javax.swing.JLabel;
+import javax.swing.JOptionPane;
 import javax.swing.JPanel;
+import javax.swing.JScrollPane;
+import javax.swing.JToggleButton;
+import javax.swing.SwingUtilities;
 
 import minesweeper.Board;
+import minesweeper.BoardFile;
+import minesweeper.BoardHistory;
 import minesweeper.Location;
-import minesweeper.Square;
+import minesweeper.journal.Journal;
+import minesweeper.journal.Outcome;
+import minesweeper.metrics.Metrics;
+import minesweeper.solver.NoGuessGenerator;
+import minesweeper.solver.ProbabilityEngine;
+import minesweeper.solver.TranspositionCache;
 
 /**
  * Window class. Window in the minesweeper game (graphic mode).
+ * The board is shown either with one button per square, or on a single
+ * canvas for the large boards.
+ * The risk button shades the hidden squares by their probability to be undermined.
+ * In no guess mode, the mines are placed so that the board can be solved without a guess.
+ * The moves can be undone and redone without limit, even after the end of the game.
+ * The game is played by a thread of its own, off the event dispatch thread : the changes of the
+ * squares are posted to an UpdateQueue, and shown together at the next frame. The board is locked
+ * while it is played, and while the canvas paints it.
  * 
  * @author Baert Quentin
  */
@@ -35,11 +61,41 @@ import minesweeper.Square;
 public class Window extends JFrame {
 	// ----- Attributes ----- //
 	
+	/**
+	 * Time given to the generation of a board without guess, in milliseconds.
+	 */
+	public static final long NO_GUESS_TIMEOUT = 2000;
+	
+	/**
+	 * Number of squares above which the board is shown on a canvas by default.
+	 */
+	public static final int CANVAS_THRESHOLD = 100 * 100;
+	
+	/**
+	 * Size of a square on the canvas, in pixels.
+	 */
+	private static final int CELL_SIZE = 20;
+	
+	/**
+	 * Maximal number of positions whose risks are cached (undo and redo show them again at once).
+	 */
+	private static final int RISK_CACHE = 256;
+	
+	/**
+	 * Maximal number of probabilities in the cache of the risks, all positions together (32 MB).
+	 */
+	private static final int RISK_CACHE_SQUARES = 1 << 22;
+	
 	/**
 	 * Board of the game.
 	 */
 	private Board board;
 	
+	/**
+	 * Versions of the board, for undo and redo.
+	 */
+	private BoardHistory history;
+	
 	/**
 	 * Width of the board.
 	 */
@@ -50,6 +106,16 @@ public class Window extends JFrame {
 	 */
 	private int height;
 	
+	/**
+	 * Number of mines of the board, placed at the first square discovered.
+	 */
+	private int nbMine;
+	
+	/**
+	 * Determine if the mines are placed on the board.
+	 */
+	private boolean initialized;
+	
 	/**
 	 * Counter of square discovered.
 	 */
@@ -61,9 +127,15 @@ public class Window extends JFrame {
 	private JLabel counterLabel;
 	
 	/**
-	 * List of the buttons of the minesweeper.
+	 * Buttons of the minesweeper, indexed as the squares of the board (y * width + x).
+	 * Null when the board is shown on a canvas.
+	 */
+	private Button[] buttons;
+	
+	/**
+	 * Canvas of the minesweeper. Null when the board is shown with buttons.
 	 */
-	private List<Button> buttonsList;
+	private BoardCanvas canvas;
 	
 	/**
 	 * Determine if the game is win.
@@ -74,59 +146,160 @@ public class Window extends JFrame {
 	 * Determine if the game is loose.
 	 */
 	private boolean loose;
+	
+	/**
+	 * Directory of the journals, null if the games are not recorded.
+	 */
+	private Path journals;
+	
+	/**
+	 * Journal of the current game, null if it is not recorded.
+	 */
+	private Journal journal;
+	
+	/**
+	 * Button showing the risks of the hidden squares.
+	 */
+	private JToggleButton risk;
+	
+	/**
+	 * Probabilities of the hidden squares, created when the risks are first shown.
+	 */
+	private ProbabilityEngine engine;
+	
+	/**
+	 * Determine if the risk button is selected.
+	 */
+	private boolean riskSelected;
+	
+	/**
+	 * Determine if the buttons are shaded by their risk.
+	 */
+	private boolean shaded;
+	
+	/**
+	 * Generator of the boards without guess, null if the mines are placed at random.
+	 */
+	private NoGuessGenerator generator;
+	
+	/**
+	 * Thread of the game logic : every change of the game is played by it, in order.
+	 */
+	private final ExecutorService logic;
+	
+	/**
+	 * Changes of the window, posted by the game logic and shown at the next frame.
+	 */
+	private final UpdateQueue updates;
 
 	// ----- Methods ----- //
 	
 	/**
 	 * Constructor of the Window class.
+	 * The board is shown on a canvas if it has more than CANVAS_THRESHOLD squares.
 	 * @param width		width of the window.
 	 * @param height	height of the window.
 	 */
 	public Window (int width, int height) {
+		this(width, height, (width * height) > CANVAS_THRESHOLD);
+	}
+	
+	/**
+	 * Constructor of the Window class.
+	 * @param width		width of the window.
+	 * @param height	height of the window.
+	 * @param canvas 	true to show the board on a single canvas, false to show it with buttons.
+	 */
+	public Window (int width, int height, boolean canvas) {
+		this(new Board(width, height), canvas);
+	}
+	
+	/**
+	 * Constructor of the Window class, continuing the game on a board (resumed from a file).
+	 * The board is shown on a canvas if it has more than CANVAS_THRESHOLD squares.
+	 * @param board 	board of the game.
+	 */
+	public Window (Board board) {
+		this(board, (board.getWidth() * board.getHeight()) > CANVAS_THRESHOLD);
+	}
+	
+	/**
+	 * Constructor of the Window class.
+	 * @param board 	board of the game.
+	 * @param canvas 	true to show the board on a single canvas, false to show it with buttons.
+	 */
+	private Window (Board board, boolean canvas) {
+		int width  = board.getWidth();
+		int height = board.getHeight();
+		
 		this.width 		  = width;
 		this.height       = height;
-		this.board	 	  = new Board(width, height);
+		this.board	 	  = board;
 		this.counter 	  = 0;
 		this.counterLabel = new JLabel(this.counter.toString());
-		this.buttonsList  = new ArrayList<Button>();
-		this.win		  = false;
-		this.loose		  = false;
 		
-		// Board initialization
-		int nbMine = (20 * (width * height)) / 100;
-		this.board.init(nbMine);
+		// Board initialization, completed at the first square discovered (if it has no mine)
+		this.nbMine = (20 * (width * height)) / 100;
 		
 		// Components
 		JPanel 		  north = new JPanel();
 		JPanel    container = new JPanel();
-		JPanel 	    buttons = new JPanel();
 		JButton 	restart = new JButton();
+		JPanel 		  files = new JPanel();
+		JButton 	   save = new JButton();
+		JButton 	   load = new JButton();
+		JButton 	   undo = new JButton();
+		JButton 	   redo = new JButton();
+		
+		this.risk = new JToggleButton();
 		
 		// Window's parameters
 		this.setTitle("Minesweeper");
-		this.setSize(50 * width, 50 * height);
 		this.setDefaultCloseOperation(EXIT_ON_CLOSE);
-		this.setLocationRelativeTo(null);
 		
 		// Layout
 		north.setLayout(new BorderLayout());
 		container.setLayout(new BorderLayout());
-		buttons.setLayout(new GridLayout(width, height, -5, -5));
-		
 		
-		// Addition of the buttons
-		for (int y = 0; y < width; y++) {
-			for (int x = 0; x < height; x++) {
-				Location l = new Location(x, y);
-				Button   b = new Button("", l);
-				
-				b.addMouseListener(new ButtonListener(b));
-				
-				buttons.add(b);
-				buttonsList.add(b);
+		if (canvas) {
+			this.canvas = new BoardCanvas(this.board, CELL_SIZE);
+			this.canvas.addMouseListener(new CanvasListener());
+			
+			JScrollPane scroll = new JScrollPane(this.canvas);
+			
+			scroll.getVerticalScrollBar().setUnitIncrement(CELL_SIZE);
+			scroll.getHorizontalScrollBar().setUnitIncrement(CELL_SIZE);
+			container.add(scroll, BorderLayout.CENTER);
+			
+			Dimension d = this.canvas.getPreferredSize();
+			
+			this.setSize(Math.min(d.width + 40, 1000), Math.min(d.height + 80, 800));
+		}
+		else {
+			JPanel grid = new JPanel();
+			
+			grid.setLayout(new GridLayout(height, width, -5, -5));
+			this.buttons = new Button[width * height];
+			
+			// Addition of the buttons
+			for (int y = 0; y < height; y++) {
+				for (int x = 0; x < width; x++) {
+					Button b = new Button("", Location.of(x, y));
+					
+					b.addMouseListener(new ButtonListener(b));
+					
+					grid.add(b);
+					this.buttons[y * width + x] = b;
+				}
 			}
+			
+			container.add(grid, BorderLayout.CENTER);
+			
+			this.setSize(50 * width, 50 * height);
 		}
 		
+		this.setLocationRelativeTo(null);
+		
 		// Label
 		this.counterLabel.setHorizontalAlignment(JLabel.CENTER);
 		
@@ -134,32 +307,420 @@ public class Window extends JFrame {
 		restart.setText("Restart");
 		restart.addMouseListener(new RestartButtonListener());
 		
+		// Save and load buttons
+		save.setText("Save");
+		save.addMouseListener(new SaveButtonListener());
+		load.setText("Load");
+		load.addMouseListener(new LoadButtonListener());
+		files.add(save);
+		files.add(load);
+		
+		// Undo and redo buttons
+		undo.setText("Undo");
+		undo.addMouseListener(new UndoButtonListener());
+		redo.setText("Redo");
+		redo.addMouseListener(new RedoButtonListener());
+		files.add(undo);
+		files.add(redo);
+		
+		// Risk button
+		this.risk.setText("Risk");
+		this.risk.addMouseListener(new RiskButtonListener());
+		files.add(this.risk);
+		
 		// Positioning
 		north.add(counterLabel, BorderLayout.CENTER);
 		north.add(restart, BorderLayout.WEST);
+		north.add(files, BorderLayout.EAST);
 		container.add(north, BorderLayout.NORTH);
-		container.add(buttons, BorderLayout.CENTER);
 		
 		this.setContentPane(container);
 		
+		this.updates = new UpdateQueue(this.buttons, this.canvas, this.counterLabel, width, height);
+		this.logic 	 = Executors.newSingleThreadExecutor(r -> {
+			Thread t = new Thread(r, "minesweeper-logic");
+			
+			t.setDaemon(true);
+			
+			return t;
+		});
+		
+		this.logic.execute(() -> this.resume(board));
+		
 		this.setVisible(true);
 	}
 	
 	/**
-	 * Return the button at the location passed in parameter.
-	 * @param l 	location of the button.
-	 * @return button at location l.
+	 * Record the next games in journals, one file per game in a directory.
+	 * @param directory 	directory of the journals, null to stop recording.
+	 */
+	public void setJournalDirectory (Path directory) {
+		this.logic.execute(() -> this.journals = directory);
+	}
+	
+	/**
+	 * Place the mines of the next games so that they can be solved without a guess.
+	 * If no such board is found in time, the mines are placed at random.
+	 * @param noGuess 	true to generate boards without guess, false to place the mines at random.
 	 */
-	private Button getButtonAt (Location l) {
-		Button res = null;
+	public void setNoGuess (boolean noGuess) {
+		this.logic.execute(() -> {
+			if (this.generator != null) {
+				this.generator.shutdown();
+				this.generator = null;
+			}
+			
+			if (noGuess) {
+				this.generator = new NoGuessGenerator(Runtime.getRuntime().availableProcessors());
+				this.generator.setTimeout(NO_GUESS_TIMEOUT);
+			}
+		});
+	}
+	
+	/**
+	 * Show a message in a dialog, from any thread.
+	 * @param text 		text of the message.
+	 * @param title 	title of the dialog.
+	 * @param type 		type of the message (JOptionPane.ERROR_MESSAGE...).
+	 */
+	private void message (String text, String title, int type) {
+		SwingUtilities.invokeLater(() -> JOptionPane.showMessageDialog(this, text, title, type));
+	}
+	
+	/**
+	 * Close the journal of the current game, if it is recorded.
+	 * @param o 	outcome of the game, UNFINISHED if it did not end.
+	 */
+	private void closeJournal (Outcome o) {
+		if (this.journal == null) {
+			return;
+		}
+		
+		if (o != Outcome.UNFINISHED) {
+			this.journal.end(o);
+		}
+		
+		try {
+			this.journal.close();
+		}
+		catch (IOException e) {
+			this.message(e.getMessage(), "Journal", JOptionPane.ERROR_MESSAGE);
+		}
+		
+		this.journal = null;
+	}
+	
+	/**
+	 * Continue the game on a board of the size of the window.
+	 * @param b 	board of the game.
+	 */
+	private void resume (Board b) {
+		// A resumed board can not be rebuilt from its seed : its journal stops here
+		this.closeJournal(Outcome.UNFINISHED);
+		
+		this.board 		 = b;
+		this.history 	 = new BoardHistory(b);
+		this.initialized = b.getNbOfMines() > 0;
+		this.loose 		 = b.loose();
+		this.win 		 = this.initialized && b.win();
+		
+		if (this.initialized) {
+			this.nbMine = b.getNbOfMines();
+		}
+		
+		if (this.canvas != null) {
+			this.updates.run(() -> this.canvas.setBoard(b));
+		}
+		
+		synchronized (b) {
+			this.showAll();
+			this.showCounter();
+			this.showRisk();
+		}
+	}
+	
+	/**
+	 * Play on the square at the location past in parameter.
+	 * @param x 		abscissa of the square.
+	 * @param y 		ordinate of the square.
+	 * @param flag 		true to put or remove a flag, false to discover the square.
+	 * @param click 	time of the click (System.nanoTime).
+	 */
+	private void play (int x, int y, boolean flag, long click) {
+		if (this.win || this.loose || this.board.isDiscovered(x, y)) {
+			return;
+		}
+		
+		// Left click on a board without mines
+		if (!flag && !this.initialized) {
+			if (this.board.hasFlag(x, y)) {
+				return;
+			}
+			
+			long seed = new SplittableRandom().nextLong();
+			
+			if (this.generator != null) {
+				try {
+					seed = this.generator.generate(this.width, this.height, this.nbMine, x, y, seed).getSeed();
+				}
+				catch (IllegalStateException e) {
+					this.message(e.getMessage(), "No guess", JOptionPane.WARNING_MESSAGE);
+				}
+			}
+			
+			synchronized (this.board) {
+				this.board.init(this.nbMine, seed, x, y);
+			}
+			
+			this.initialized = true;
+			
+			if (this.journals != null) {
+				Path file = this.journals.resolve("game-" + Long.toHexString(this.board.getSeed()) + ".msj");
+				
+				try {
+					this.journal = new Journal(file, this.board, x, y);
+
+					// Flags put before the mines
+					for (int fy = 0; fy < this.height; fy++) {
+						for (int fx = 0; fx < this.width; fx++) {
+							if (this.board.hasFlag(fx, fy)) {
+								this.journal.putFlag(fx, fy);
+							}
+						}
+					}
+				}
+				catch (IOException e) {
+					this.message(e.getMessage(), "Journal", JOptionPane.ERROR_MESSAGE);
+				}
+			}
+		}
+		
+		synchronized (this.board) {
+			this.move(x, y, flag);
+		}
 		
-		for (Button b : this.buttonsList) {
-			if (b.getButtonLocation().equals(l)) {
-				res = b;
+		if (Metrics.ENABLED) {
+			this.updates.click(click);
+		}
+	}
+	
+	/**
+	 * Play on the square at the location past in parameter, the mines placed.
+	 * @param x 		abscissa of the square.
+	 * @param y 		ordinate of the square.
+	 * @param flag 		true to put or remove a flag, false to discover the square.
+	 */
+	private void move (int x, int y, boolean flag) {
+		// Right click
+		if (flag) {
+			if (this.board.hasFlag(x, y)) {
+				this.history.removeFlag(x, y);
+				
+				if (this.journal != null) {
+					this.journal.removeFlag(x, y);
+				}
+			}
+			else {
+				this.history.putFlag(x, y);
+				
+				if (this.journal != null) {
+					this.journal.putFlag(x, y);
+				}
+			}
+			
+			this.showSquare(x, y);
+		}
+		// Left click
+		else {
+			int[] changed = this.history.reveal(x, y);
+			
+			if (this.journal != null) {
+				this.journal.discover(x, y);
+			}
+			
+			this.showDiscovered(changed);
+			
+			this.counter += changed.length;
+			
+			if (this.board.loose()) {
+				this.loose = true;
+			}
+			else if (this.board.win()) {
+				this.win = true;
 			}
 		}
 		
-		return res;
+		if (this.win || this.loose) {
+			this.closeJournal(Outcome.of(this.board));
+			this.history.discoverAll();
+			this.showAll();
+		}
+		
+		this.showCounter();
+		this.showRisk();
+	}
+	
+	/**
+	 * Undo the last move, or redo the last move undone. The board discovered at the end of the game
+	 * is undone (or redone) with the move which ended it.
+	 * @param redo 	true to redo, false to undo.
+	 */
+	private void travel (boolean redo) {
+		if (!(redo ? this.history.canRedo() : this.history.canUndo())) {
+			return;
+		}
+		
+		// The moves undone are not in the journal : it stops here
+		this.closeJournal(Outcome.UNFINISHED);
+		
+		synchronized (this.board) {
+			if (redo) {
+				this.showDiscovered(this.history.redo());
+				this.loose = this.board.loose();
+				this.win   = !this.loose && this.board.win();
+				
+				// Board discovered at the end of the game
+				if ((this.win || this.loose) && this.history.canRedo()) {
+					this.showDiscovered(this.history.redo());
+				}
+			}
+			else {
+				do {
+					this.showDiscovered(this.history.undo());
+					this.loose = this.board.loose();
+					this.win   = !this.loose && this.board.win();
+				}
+				while ((this.win || this.loose) && this.history.canUndo());
+			}
+			
+			this.counter = this.board.getNbOfDiscovered();
+			
+			this.showCounter();
+			this.showRisk();
+		}
+	}
+	
+	/**
+	 * Start a new game on an empty board of the size of the window.
+	 */
+	private void restart () {
+		this.closeJournal(Outcome.UNFINISHED);
+		
+		Board b = new Board(this.width, this.height);
+		
+		this.board 	 = b;
+		this.history = new BoardHistory(b);
+		
+		// Board initialization, completed at the first square discovered
+		this.nbMine 	 = (25 * (this.width * this.height)) / 100;
+		this.initialized = false;
+		
+		this.win   = false;
+		this.loose = false;
+		
+		if (this.canvas != null) {
+			this.updates.run(() -> this.canvas.setBoard(b));
+		}
+		
+		this.counter = 0;
+		
+		synchronized (b) {
+			this.showAll();
+			this.showCounter();
+			this.showRisk();
+		}
+	}
+	
+	/**
+	 * Show the squares discovered, or hidden again.
+	 * @param changed 	indexes of the squares changed.
+	 */
+	private void showDiscovered (int[] changed) {
+		for (int i : changed) {
+			this.post(i);
+		}
+	}
+	
+	/**
+	 * Show the square at the location past in parameter.
+	 * @param x 	abscissa of the square.
+	 * @param y 	ordinate of the square.
+	 */
+	private void showSquare (int x, int y) {
+		this.post(y * this.width + x);
+	}
+	
+	/**
+	 * Show all the squares of the board.
+	 */
+	private void showAll () {
+		if (this.canvas != null) {
+			this.updates.all();
+		}
+		else {
+			for (int i = 0; i < this.buttons.length; i++) {
+				this.post(i);
+			}
+		}
+	}
+	
+	/**
+	 * Post the state of the square at index i, shown at the next frame.
+	 * @param i 	index (y * width + x) of the square.
+	 */
+	private void post (int i) {
+		if (this.canvas != null) {
+			this.updates.square(i, null, false, null);
+		}
+		else {
+			boolean discovered = this.board.isDiscovered(i);
+			Color 		 shade = (this.shaded && !discovered) ? BoardCanvas.riskColor(this.engine.getProbability(i)) : null;
+			
+			this.updates.square(i, this.board.describeSquareAt(i), discovered, shade);
+		}
+	}
+	
+	/**
+	 * Show the counter of squares discovered, or the end of the game.
+	 */
+	private void showCounter () {
+		if (this.win) {
+			this.updates.label("YOU WIN !");
+		}
+		else if (this.loose) {
+			this.updates.label("BOOM !");
+		}
+		else {
+			this.updates.label(this.counter.toString());
+		}
+	}
+	
+	/**
+	 * Shade the hidden squares by their risk if the risk button is selected, remove the shades otherwise.
+	 * The risks are only shown while the game is going on.
+	 */
+	private void showRisk () {
+		boolean shown = this.riskSelected && this.initialized && !this.win && !this.loose;
+		
+		if (shown) {
+			if (this.engine == null) {
+				this.engine = new ProbabilityEngine(this.width, this.height);
+				this.engine.setCache(new TranspositionCache<double[]>(
+						Math.max(Math.min(RISK_CACHE, RISK_CACHE_SQUARES / (this.width * this.height)), 1)));
+			}
+			
+			this.engine.compute(this.board);
+		}
+		
+		if (this.canvas != null) {
+			ProbabilityEngine e = shown ? this.engine : null;
+			
+			this.updates.run(() -> this.canvas.setRisk(e));
+		}
+		else if (shown || this.shaded) {
+			this.shaded = shown;
+			this.showAll();
+		}
 	}
 	
 	// ----- Internal classes ----- //
@@ -187,115 +748,45 @@ public class Window extends JFrame {
 			this.button = button;
 		}
 		
-		/**
-		 * Reveal the square around the button if it has a "0" value.
-		 * @param b		button which potentially have a "0" value.
-		 */
-		public void nextTo (Button b) {
-			Location 	 l = b.getButtonLocation();
-			
-			if (board.describeSquareAt(l).equals(" 0 ")) {
-				int 	 	 x = l.getX();
-				int 	 	 y = l.getY();
+		// ----- MouseListener methods ----- //
+
+		public void mouseClicked (MouseEvent e) {
+			if (!this.button.isClicked()) {
+				Location l 	   = this.button.getButtonLocation();
+				boolean flag  = e.getButton() == MouseEvent.BUTTON3;
+				long 	click = System.nanoTime();
 				
-				for (int i = x - 1; i <= x + 1; i++) {
-					for (int j = y - 1; j <= y + 1; j++) {
-						Location lBis = new Location(i, j);
-						Button 	 bBis = getButtonAt(lBis);
-						
-						if ((bBis != null) && !bBis.isClicked()) {
-							Square s = board.getSquareAt(lBis);
-							
-							s.discover();
-								
-							bBis.setClick(true);
-							bBis.setText(board.describeSquareAt(lBis));
-							bBis.doClick();
-							
-							// Update of the Label
-							if (!loose & !win) {
-								counter++;
-								counterLabel.setText(counter.toString());
-							}
-							
-							if (board.win()) {
-								win = true;
-							}
-							
-							if (win && !loose) {
-								counterLabel.setText("YOU WIN !");
-							}
-							
-							this.nextTo(bBis);
-						}
-					}
-				}
+				logic.execute(() -> play(l.getX(), l.getY(), flag, click));
 			}
 		}
-		
+
+		public void mousePressed (MouseEvent e) {}
+
+		public void mouseReleased (MouseEvent e) {}
+
+		public void mouseEntered (MouseEvent e) {}
+
+		public void mouseExited (MouseEvent e) {}
+	}
+	
+	/**
+	 * CanvasListener class. Listener of the minesweeper canvas.
+	 * The square clicked is computed from the coordinates of the mouse.
+	 * 
+	 * @author Baert Quentin
+	 */
+	class CanvasListener implements MouseListener {
 		// ----- MouseListener methods ----- //
 
 		public void mouseClicked (MouseEvent e) {
-			if (!this.button.isClicked()) {
-				Location l = this.button.getButtonLocation();
-				
-				// Right click
-				if (e.getButton() == MouseEvent.BUTTON3) {
-					Square s = board.getSquareAt(l);
-					
-					if (s.hasFlag()) {
-						s.removeFlag();
-					}
-					else {
-						s.putFlag();
-					}
-					
-					this.button.doClick();
-				}
-				// Left click
-				else {
-					Square s = board.getSquareAt(l);
-					
-					s.discover();
-						
-					this.button.setClick(true);
-					
-					this.nextTo(this.button);
-					
-					// Update of the Label
-					counter++;
-					counterLabel.setText(counter.toString());
-					
-					if (s.isUndermined()) {
-						loose = true;
-					}
-					else if (board.win()) {
-						win = true;
-					}
-				}
-				
-				if (win || loose) {
-					if (win) {
-						counterLabel.setText("YOU WIN !");
-					}
-					else if (loose) {
-						counterLabel.setText("BOOM !");
-					}
-					
-					for (Button b : buttonsList) {
-						if (!b.isClicked()) {
-							Location lBis = b.getButtonLocation();
-							
-							board.getSquareAt(lBis).discover();
-							
-							b.setClick(true);
-							b.setText(board.describeSquareAt(lBis));
-							b.doClick();
-						}
-					}
-				}
+			int x = canvas.getSquareX(e.getX());
+			int y = canvas.getSquareY(e.getY());
+			
+			if ((x >= 0) && (y >= 0)) {
+				boolean flag  = e.getButton() == MouseEvent.BUTTON3;
+				long 	click = System.nanoTime();
 				
-				this.button.setText(board.describeSquareAt(l));
+				logic.execute(() -> play(x, y, flag, click));
 			}
 		}
 
@@ -317,26 +808,170 @@ public class Window extends JFrame {
 		// ----- MouseListener methods ----- //
 		
 		public void mouseClicked (MouseEvent e) {
-			for (Button b : buttonsList) {
-				if (b.getText() != "") {
-					b.setText("");
-					b.setClick(false);
-					b.doClick();
+			logic.execute(() -> restart());
+		}
+
+		public void mousePressed (MouseEvent e) {}
+
+		public void mouseReleased (MouseEvent e) {}
+
+		public void mouseEntered (MouseEvent e) {}
+
+		public void mouseExited (MouseEvent e) {}
+	}
+	
+	/**
+	 * RiskButtonListener class. Listener of the risk button.
+	 * 
+	 * @author Baert Quentin
+	 */
+	class RiskButtonListener implements MouseListener {
+		// ----- MouseListener methods ----- //
+		
+		public void mouseClicked (MouseEvent e) {
+			boolean selected = risk.isSelected();
+			
+			logic.execute(() -> {
+				riskSelected = selected;
+				
+				synchronized (board) {
+					showRisk();
 				}
+			});
+		}
+
+		public void mousePressed (MouseEvent e) {}
+
+		public void mouseReleased (MouseEvent e) {}
+
+		public void mouseEntered (MouseEvent e) {}
+
+		public void mouseExited (MouseEvent e) {}
+	}
+	
+	/**
+	 * UndoButtonListener class. Listener of the undo button.
+	 * 
+	 * @author Baert Quentin
+	 */
+	class UndoButtonListener implements MouseListener {
+		// ----- MouseListener methods ----- //
+		
+		public void mouseClicked (MouseEvent e) {
+			logic.execute(() -> travel(false));
+		}
+
+		public void mousePressed (MouseEvent e) {}
+
+		public void mouseReleased (MouseEvent e) {}
+
+		public void mouseEntered (MouseEvent e) {}
+
+		public void mouseExited (MouseEvent e) {}
+	}
+	
+	/**
+	 * RedoButtonListener class. Listener of the redo button.
+	 * 
+	 * @author Baert Quentin
+	 */
+	class RedoButtonListener implements MouseListener {
+		// ----- MouseListener methods ----- //
+		
+		public void mouseClicked (MouseEvent e) {
+			logic.execute(() -> travel(true));
+		}
+
+		public void mousePressed (MouseEvent e) {}
+
+		public void mouseReleased (MouseEvent e) {}
+
+		public void mouseEntered (MouseEvent e) {}
+
+		public void mouseExited (MouseEvent e) {}
+	}
+	
+	/**
+	 * SaveButtonListener class. Listener of the save button.
+	 * 
+	 * @author Baert Quentin
+	 */
+	class SaveButtonListener implements MouseListener {
+		// ----- MouseListener methods ----- //
+		
+		public void mouseClicked (MouseEvent e) {
+			JFileChooser chooser = new JFileChooser();
+			
+			if (chooser.showSaveDialog(Window.this) != JFileChooser.APPROVE_OPTION) {
+				return;
 			}
 			
-			board = new Board(width, height);
+			Path file = chooser.getSelectedFile().toPath();
 			
-			// Board initialization
-			int nbMine = (25 * (width * height)) / 100;
-			board.init(nbMine);
+			logic.execute(() -> {
+				try {
+					BoardFile.save(board, file);
+				}
+				catch (IOException ex) {
+					message(ex.getMessage(), "Save", JOptionPane.ERROR_MESSAGE);
+				}
+			});
+		}
+
+		public void mousePressed (MouseEvent e) {}
+
+		public void mouseReleased (MouseEvent e) {}
+
+		public void mouseEntered (MouseEvent e) {}
+
+		public void mouseExited (MouseEvent e) {}
+	}
+	
+	/**
+	 * LoadButtonListener class. Listener of the load button.
+	 * A board of another size is opened in a new window.
+	 * 
+	 * @author Baert Quentin
+	 */
+	class LoadButtonListener implements MouseListener {
+		// ----- MouseListener methods ----- //
+		
+		public void mouseClicked (MouseEvent e) {
+			JFileChooser chooser = new JFileChooser();
 			
-			win   = false;
-			loose = false;
+			if (chooser.showOpenDialog(Window.this) != JFileChooser.APPROVE_OPTION) {
+				return;
+			}
+			
+			Path file = chooser.getSelectedFile().toPath();
 			
-			// Label
-			counter = 0;
-			counterLabel.setText(counter.toString());
+			logic.execute(() -> {
+				Board b;
+				
+				try {
+					b = BoardFile.load(file);
+				}
+				catch (IOException ex) {
+					message(ex.getMessage(), "Load", JOptionPane.ERROR_MESSAGE);
+					return;
+				}
+				
+				if ((b.getWidth() == width) && (b.getHeight() == height)) {
+					resume(b);
+				}
+				else {
+					Path directory = journals;
+					
+					closeJournal(Outcome.UNFINISHED);
+					logic.shutdown();
+					
+					SwingUtilities.invokeLater(() -> {
+						dispose();
+						
+						new Window(b).setJournalDirectory(directory);
+					});
+				}
+			});
 		}
 
 		public void mousePressed (MouseEvent e) {}
@@ -0,0 +1,131 @@
+/*
+ * Chunk.java
+ */
+
+// ----- Package ----- //
+
+package minesweeper.infinite;
+
+// ----- Imports ----- //
+
+import java.util.SplittableRandom;
+
+/**
+ * Chunk class. Square part of an infinite board, of SIZE x SIZE squares.
+ * Each line of the chunk is a long : bit x of line y is the square (x, y) of the chunk.
+ *
+ * @author Baert Quentin
+ */
+
+class Chunk {
+	// ----- Attributes ----- //
+
+	/**
+	 * Width and height of a chunk.
+	 */
+	static final int SIZE = 64;
+
+	/**
+	 * Abscissa of the chunk (in chunks).
+	 */
+	final int cx;
+
+	/**
+	 * Ordinate of the chunk (in chunks).
+	 */
+	final int cy;
+
+	/**
+	 * Lines of the undermined squares.
+	 */
+	final long[] mines;
+
+	/**
+	 * Lines of the discovered squares.
+	 */
+	final long[] discovered;
+
+	/**
+	 * Lines of the squares with a flag on.
+	 */
+	final long[] flags;
+
+	/**
+	 * Determine if the discovered or flag lines changed since the chunk was loaded.
+	 */
+	boolean dirty;
+
+	// ----- Methods ----- //
+
+	/**
+	 * Constructor of the Chunk class. The mines are placed from the seed, nothing is discovered.
+	 * @param cx 			abscissa of the chunk.
+	 * @param cy 			ordinate of the chunk.
+	 * @param seed 			seed of the chunk.
+	 * @param nbOfMines 	number of mines of the chunk.
+	 */
+	Chunk (int cx, int cy, long seed, int nbOfMines) {
+		this.cx 		= cx;
+		this.cy 		= cy;
+		this.mines 		= new long[SIZE];
+		this.discovered = new long[SIZE];
+		this.flags 		= new long[SIZE];
+
+		// Floyd's sampling over the squares of the chunk
+		SplittableRandom alea = new SplittableRandom(seed);
+		int 			 size = SIZE * SIZE;
+
+		for (int j = size - nbOfMines; j < size; j++) {
+			int c = alea.nextInt(j + 1);
+
+			if (get(this.mines, c % SIZE, c / SIZE)) {
+				c = j;
+			}
+
+			this.mines[c / SIZE] |= 1L << (c % SIZE);
+		}
+	}
+
+	/**
+	 * Read the bit of a square in lines.
+	 * @param lines 	lines read.
+	 * @param x 		abscissa of the square in the chunk.
+	 * @param y 		ordinate of the square in the chunk.
+	 * @return 			value of the bit.
+	 */
+	static boolean get (long[] lines, int x, int y) {
+		return (lines[y] & (1L << x)) != 0;
+	}
+
+	/**
+	 * Write the bit of a square in lines, and mark the chunk as dirty.
+	 * @param lines 	lines written.
+	 * @param x 		abscissa of the square in the chunk.
+	 * @param y 		ordinate of the square in the chunk.
+	 * @param value 	new value of the bit.
+	 */
+	void set (long[] lines, int x, int y, boolean value) {
+		if (value) {
+			lines[y] |= 1L << x;
+		}
+		else {
+			lines[y] &= ~(1L << x);
+		}
+
+		this.dirty = true;
+	}
+
+	/**
+	 * Determine if something has been discovered or flagged on this chunk.
+	 * @return true if the chunk has a state to keep, false otherwise.
+	 */
+	boolean isTouched () {
+		for (int y = 0; y < SIZE; y++) {
+			if ((this.discovered[y] | this.flags[y]) != 0) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+} // Chunk
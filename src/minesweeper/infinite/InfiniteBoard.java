@@ -0,0 +1,584 @@
+/*
+ * InfiniteBoard.java
+ */
+
+// ----- Package ----- //
+
+package minesweeper.infinite;
+
+// ----- Imports ----- //
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import minesweeper.SplitMix;
+
+/**
+ * InfiniteBoard class. Board without bounds in the minesweeper game.
+ * The board is split in chunks of 64x64 squares. The mines of a chunk come from a seed
+ * derived from the seed of the world and the coordinates of the chunk, and are only placed
+ * when a chunk is first touched. At most maxChunks chunks are kept in memory : the least
+ * recently used ones are evicted, their discovered squares and flags being written in a
+ * spill file (their mines are placed again from the seed when they come back).
+ * The memory used thus depends on the explored area, not on the size of the world.
+ * The square (0, 0) and its neighbours are never undermined, so the first click there is safe.
+ *
+ * @author Baert Quentin
+ */
+
+public class InfiniteBoard implements Closeable {
+	// ----- Attributes ----- //
+
+	/**
+	 * Size in bytes of a chunk in the spill file (discovered and flag lines).
+	 */
+	private static final int RECORD = 2 * Chunk.SIZE * 8;
+
+	/**
+	 * Maximum number of squares discovered by a cascade, by default.
+	 */
+	public static final int MAX_CASCADE = 1 << 20;
+
+	/**
+	 * Descriptions of a discovered square, by number of mines around it.
+	 */
+	private static final String[] NUMBERS = {
+		" 0 ", " 1 ", " 2 ", " 3 ", " 4 ", " 5 ", " 6 ", " 7 ", " 8 "
+	};
+
+	/**
+	 * Seed of the world.
+	 */
+	private final long worldSeed;
+
+	/**
+	 * Number of mines of a chunk.
+	 */
+	private final int nbOfMinesPerChunk;
+
+	/**
+	 * Maximum number of chunks in memory.
+	 */
+	private final int maxChunks;
+
+	/**
+	 * Maximum number of squares discovered by a cascade.
+	 */
+	private int maxCascade;
+
+	/**
+	 * Chunks in memory, from the least to the most recently used.
+	 */
+	private final LinkedHashMap<Long, Chunk> chunks;
+
+	/**
+	 * Slot in the spill file of each chunk written in it.
+	 */
+	private final Map<Long, Long> slots;
+
+	/**
+	 * Spill file.
+	 */
+	private final Path spillPath;
+
+	/**
+	 * Channel of the spill file.
+	 */
+	private final FileChannel spill;
+
+	/**
+	 * Buffer of a chunk record.
+	 */
+	private final ByteBuffer record;
+
+	/**
+	 * Last chunk used. It is always the most recently used entry of chunks : it is only set
+	 * just after its key is looked up (or put) in chunks, which moves it at the end of their order.
+	 */
+	private Chunk last;
+
+	/**
+	 * Determine if an undermined square has been discovered.
+	 */
+	private boolean lost;
+
+	/**
+	 * Number of chunks placed, including the ones placed again after an eviction.
+	 */
+	private long generated;
+
+	/**
+	 * Queue of the squares whose neighbours are to reveal, reused by every cascade.
+	 */
+	private long[] queue;
+
+	/**
+	 * Index in the queue of the next square whose neighbours are to reveal.
+	 */
+	private int head;
+
+	/**
+	 * Index in the queue after the last square whose neighbours are to reveal.
+	 */
+	private int tail;
+
+	// ----- Methods ----- //
+
+	/**
+	 * Constructor of the InfiniteBoard class, with a temporary spill file.
+	 * @param worldSeed 	seed of the world.
+	 * @param density 		part of the squares which are undermined, between 0 and 1.
+	 * @param maxChunks 	maximum number of chunks in memory, at least 9.
+	 * @exception 			If the spill file can not be created.
+	 */
+	public InfiniteBoard (long worldSeed, double density, int maxChunks) throws IOException {
+		this(worldSeed, density, maxChunks, temporaryFile());
+	}
+
+	/**
+	 * Constructor of the InfiniteBoard class.
+	 * @param worldSeed 	seed of the world.
+	 * @param density 		part of the squares which are undermined, between 0 and 1.
+	 * @param maxChunks 	maximum number of chunks in memory, at least 9.
+	 * @param spillPath 	spill file of the evicted chunks, overwritten.
+	 * @exception 			If the spill file can not be created.
+	 */
+	public InfiniteBoard (long worldSeed, double density, int maxChunks, Path spillPath) throws IOException {
+		if ((density < 0) || (density > 1)) {
+			throw new IllegalArgumentException("The density of mines must be between 0 and 1.");
+		}
+
+		if (maxChunks < 9) {
+			throw new IllegalArgumentException("At least 9 chunks must be kept in memory.");
+		}
+
+		this.worldSeed 		   = worldSeed;
+		this.nbOfMinesPerChunk = (int) Math.round(density * Chunk.SIZE * Chunk.SIZE);
+		this.maxChunks 		   = maxChunks;
+		this.maxCascade 	   = MAX_CASCADE;
+		this.slots 			   = new HashMap<Long, Long>();
+		this.spillPath 		   = spillPath;
+		this.spill 			   = FileChannel.open(spillPath, StandardOpenOption.CREATE, StandardOpenOption.READ,
+				StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+		this.record 		   = ByteBuffer.allocate(RECORD);
+		this.queue 			   = new long[64];
+		this.chunks 		   = new LinkedHashMap<Long, Chunk>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			protected boolean removeEldestEntry (Map.Entry<Long, Chunk> eldest) {
+				if (this.size() > InfiniteBoard.this.maxChunks) {
+					evict(eldest.getValue());
+
+					return true;
+				}
+
+				return false;
+			}
+		};
+	}
+
+	/**
+	 * Change the maximum number of squares discovered by a cascade.
+	 * A cascade stopped this way goes on at the next call to reveal or continueCascade.
+	 * @param maxCascade 	maximum number of squares discovered by a cascade.
+	 */
+	public void setMaxCascade (int maxCascade) {
+		this.maxCascade = maxCascade;
+	}
+
+	/**
+	 * Give the number of chunks in memory.
+	 * @return number of chunks in memory.
+	 */
+	public int getLoadedChunks () {
+		return this.chunks.size();
+	}
+
+	/**
+	 * Give the number of chunks written in the spill file.
+	 * @return number of chunks spilled.
+	 */
+	public int getSpilledChunks () {
+		return this.slots.size();
+	}
+
+	/**
+	 * Give the number of chunks placed, including the ones placed again after an eviction.
+	 * @return number of chunks placed.
+	 */
+	public long getGeneratedChunks () {
+		return this.generated;
+	}
+
+	/**
+	 * Determine if the square at the location past in parameter is undermined.
+	 * @param x 	abscissa of the square.
+	 * @param y 	ordinate of the square.
+	 * @return 		true if the square is undermined, false otherwise.
+	 */
+	public boolean isUndermined (int x, int y) {
+		return Chunk.get(this.chunk(x >> 6, y >> 6).mines, x & 63, y & 63);
+	}
+
+	/**
+	 * Determine if the square at the location past in parameter is discovered.
+	 * @param x 	abscissa of the square.
+	 * @param y 	ordinate of the square.
+	 * @return 		true if the square is discovered, false otherwise.
+	 */
+	public boolean isDiscovered (int x, int y) {
+		return Chunk.get(this.chunk(x >> 6, y >> 6).discovered, x & 63, y & 63);
+	}
+
+	/**
+	 * Tell if the square at the location past in parameter has a flag on.
+	 * @param x 	abscissa of the square.
+	 * @param y 	ordinate of the square.
+	 * @return 		true if the square has a flag on, false otherwise.
+	 */
+	public boolean hasFlag (int x, int y) {
+		return Chunk.get(this.chunk(x >> 6, y >> 6).flags, x & 63, y & 63);
+	}
+
+	/**
+	 * Give the number of undermined squares around the square at the location past in parameter.
+	 * @param x 	abscissa of the square.
+	 * @param y 	ordinate of the square.
+	 * @return 		number of mines around the square.
+	 */
+	public int getMinesAround (int x, int y) {
+		int n = 0;
+
+		for (int dy = -1; dy <= 1; dy++) {
+			for (int dx = -1; dx <= 1; dx++) {
+				if (((dx != 0) || (dy != 0)) && this.isUndermined(x + dx, y + dy)) {
+					n++;
+				}
+			}
+		}
+
+		return n;
+	}
+
+	/**
+	 * Determine if the board is a loose one, that is to say an undermined square has been discovered.
+	 * @return true if the board is a loose one, false otherwise.
+	 */
+	public boolean loose () {
+		return this.lost;
+	}
+
+	/**
+	 * Put a flag on the square at the location past in parameter, if it is not discovered.
+	 * @param x 	abscissa of the square.
+	 * @param y 	ordinate of the square.
+	 */
+	public void putFlag (int x, int y) {
+		Chunk c = this.chunk(x >> 6, y >> 6);
+
+		if (!Chunk.get(c.discovered, x & 63, y & 63)) {
+			c.set(c.flags, x & 63, y & 63, true);
+		}
+	}
+
+	/**
+	 * Remove the flag on the square at the location past in parameter.
+	 * @param x 	abscissa of the square.
+	 * @param y 	ordinate of the square.
+	 */
+	public void removeFlag (int x, int y) {
+		Chunk c = this.chunk(x >> 6, y >> 6);
+
+		c.set(c.flags, x & 63, y & 63, false);
+	}
+
+	/**
+	 * Reveal the square at the location past in parameter, and its neighbours in cascade
+	 * if it has no mine around it. Squares with a flag on are never revealed.
+	 * A cascade stopped by the maximum number of squares of a previous call goes on too.
+	 * @param x 	abscissa of the square.
+	 * @param y 	ordinate of the square.
+	 * @return 		squares discovered by this call, packed as (x << 32) | (y & 0xFFFFFFFF).
+	 */
+	public long[] reveal (int x, int y) {
+		if (this.isDiscovered(x, y) || this.hasFlag(x, y)) {
+			return this.continueCascade();
+		}
+
+		long[] changed = new long[16];
+
+		this.discover(x, y);
+		changed[0] = pack(x, y);
+
+		if (this.isUndermined(x, y)) {
+			this.lost = true;
+		}
+		else if (this.getMinesAround(x, y) == 0) {
+			this.enqueue(pack(x, y));
+		}
+
+		return this.cascade(changed, 1);
+	}
+
+	/**
+	 * Go on with a cascade stopped by the maximum number of squares.
+	 * @return squares discovered by this call, packed as (x << 32) | (y & 0xFFFFFFFF).
+	 */
+	public long[] continueCascade () {
+		return this.cascade(new long[16], 0);
+	}
+
+	/**
+	 * Determine if a cascade stopped by the maximum number of squares has still squares to reveal.
+	 * @return true if a cascade is pending, false otherwise.
+	 */
+	public boolean isCascading () {
+		return this.head < this.tail;
+	}
+
+	/**
+	 * Describe the square at the location past in parameter.
+	 * @param x 	abscissa of the square.
+	 * @param y 	ordinate of the square.
+	 * @return 		description of the square.
+	 */
+	public String describeSquareAt (int x, int y) {
+		if (this.isDiscovered(x, y)) {
+			return this.isUndermined(x, y) ? " * " : NUMBERS[this.getMinesAround(x, y)];
+		}
+		else if (this.hasFlag(x, y)) {
+			return " |>";
+		}
+		else {
+			return " ? ";
+		}
+	}
+
+	/**
+	 * Close the spill file, and delete it.
+	 * @exception 	If the spill file can not be deleted.
+	 */
+	public void close () throws IOException {
+		this.spill.close();
+		Files.deleteIfExists(this.spillPath);
+	}
+
+	/**
+	 * Reveal the neighbours of the squares of the queue, until it is empty or maxCascade squares are discovered.
+	 * The square whose neighbours were being revealed stays in the queue when the cascade stops.
+	 * @param changed 	squares already discovered by the call, packed.
+	 * @param size 		number of squares already discovered by the call.
+	 * @return 			squares discovered by the call.
+	 */
+	private long[] cascade (long[] changed, int size) {
+		while (this.head < this.tail) {
+			long c  = this.queue[this.head];
+			int  cx = (int) (c >> 32);
+			int  cy = (int) c;
+
+			for (int ny = cy - 1; ny <= cy + 1; ny++) {
+				for (int nx = cx - 1; nx <= cx + 1; nx++) {
+					if (!this.isDiscovered(nx, ny) && !this.hasFlag(nx, ny)) {
+						if (size >= this.maxCascade) {
+							return Arrays.copyOf(changed, size);
+						}
+
+						this.discover(nx, ny);
+
+						if (size == changed.length) {
+							changed = Arrays.copyOf(changed, size * 2);
+						}
+
+						changed[size++] = pack(nx, ny);
+
+						if (this.getMinesAround(nx, ny) == 0) {
+							this.enqueue(pack(nx, ny));
+						}
+					}
+				}
+			}
+
+			this.head++;
+		}
+
+		this.head = 0;
+		this.tail = 0;
+
+		return Arrays.copyOf(changed, size);
+	}
+
+	/**
+	 * Add a square at the end of the queue. When it is full, the pending squares are moved to
+	 * its start if at least half of it is already done, and it is enlarged otherwise.
+	 * @param c 	packed square.
+	 */
+	private void enqueue (long c) {
+		if (this.tail == this.queue.length) {
+			if (this.head >= this.tail / 2) {
+				System.arraycopy(this.queue, this.head, this.queue, 0, this.tail - this.head);
+				this.tail -= this.head;
+				this.head  = 0;
+			}
+			else {
+				this.queue = Arrays.copyOf(this.queue, this.tail * 2);
+			}
+		}
+
+		this.queue[this.tail++] = c;
+	}
+
+	/**
+	 * Discover the square at the location past in parameter.
+	 * @param x 	abscissa of the square.
+	 * @param y 	ordinate of the square.
+	 */
+	private void discover (int x, int y) {
+		Chunk c = this.chunk(x >> 6, y >> 6);
+
+		c.set(c.discovered, x & 63, y & 63, true);
+	}
+
+	/**
+	 * Give the chunk at the location past in parameter, loading or placing it if it is not in memory.
+	 * @param cx 	abscissa of the chunk.
+	 * @param cy 	ordinate of the chunk.
+	 * @return 		chunk at (cx, cy).
+	 */
+	private Chunk chunk (int cx, int cy) {
+		Chunk c = this.last;
+
+		// Already the most recently used chunk : a lookup would not change the order of the chunks
+		if ((c != null) && (c.cx == cx) && (c.cy == cy)) {
+			return c;
+		}
+
+		long key = pack(cx, cy);
+
+		// Moves the chunk at the end of the order, before it becomes the last one
+		c = this.chunks.get(key);
+
+		if (c == null) {
+			c = this.load(cx, cy, key);
+			this.chunks.put(key, c);
+		}
+
+		this.last = c;
+
+		return c;
+	}
+
+	/**
+	 * Place the mines of a chunk, and read its state from the spill file if it was evicted.
+	 * @param cx 	abscissa of the chunk.
+	 * @param cy 	ordinate of the chunk.
+	 * @param key 	key of the chunk.
+	 * @return 		chunk at (cx, cy).
+	 */
+	private Chunk load (int cx, int cy, long key) {
+		long  seed = SplitMix.mix(this.worldSeed ^ SplitMix.mix(key));
+		Chunk c    = new Chunk(cx, cy, seed, this.nbOfMinesPerChunk);
+		Long  slot = this.slots.get(key);
+
+		this.generated++;
+
+		// Safe zone around (0, 0)
+		for (int y = -1; y <= 1; y++) {
+			for (int x = -1; x <= 1; x++) {
+				if (((x >> 6) == cx) && ((y >> 6) == cy)) {
+					c.mines[y & 63] &= ~(1L << (x & 63));
+				}
+			}
+		}
+
+		if (slot != null) {
+			try {
+				this.record.clear();
+
+				while (this.record.hasRemaining()) {
+					if (this.spill.read(this.record, slot * RECORD + this.record.position()) < 0) {
+						throw new IOException("The spill file is truncated.");
+					}
+				}
+
+				this.record.flip();
+				this.record.asLongBuffer().get(c.discovered).get(c.flags);
+			}
+			catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+
+		c.dirty = false;
+
+		return c;
+	}
+
+	/**
+	 * Write a chunk evicted from the memory in the spill file, if its state changed.
+	 * A chunk untouched again (its last flag removed) is still written if it has a slot,
+	 * so that its old record is not read back.
+	 * @param c 	chunk evicted.
+	 */
+	private void evict (Chunk c) {
+		if (c == this.last) {
+			this.last = null;
+		}
+
+		long key = pack(c.cx, c.cy);
+
+		if (c.dirty && (c.isTouched() || this.slots.containsKey(key))) {
+			Long slot = this.slots.get(key);
+
+			if (slot == null) {
+				slot = (long) this.slots.size();
+				this.slots.put(key, slot);
+			}
+
+			try {
+				this.record.clear();
+				this.record.asLongBuffer().put(c.discovered).put(c.flags);
+
+				while (this.record.hasRemaining()) {
+					this.spill.write(this.record, slot * RECORD + this.record.position());
+				}
+			}
+			catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+	}
+
+	/**
+	 * Pack two coordinates in a long.
+	 * @param x 	abscissa.
+	 * @param y 	ordinate.
+	 * @return 		(x << 32) | (y & 0xFFFFFFFF).
+	 */
+	private static long pack (int x, int y) {
+		return ((long) x << 32) | (y & 0xFFFFFFFFL);
+	}
+
+	/**
+	 * Create a temporary spill file, deleted when the program ends.
+	 * @return path of the file.
+	 * @exception 	If the file can not be created.
+	 */
+	private static Path temporaryFile () throws IOException {
+		File f = File.createTempFile("minesweeper-chunks", ".spill");
+
+		f.deleteOnExit();
+
+		return f.toPath();
+	}
+} // InfiniteBoard
@@ -0,0 +1,291 @@
+/*
+ * Journal.java
+ */
+
+// ----- Package ----- //
+
+package minesweeper.journal;
+
+// ----- Imports ----- //
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import minesweeper.Board;
+
+/**
+ * Journal class. Append-only file of the moves of a game, to audit and replay it.
+ * The file is a header of HEADER bytes (magic number, version, width, height, number of mines,
+ * square clicked when the mines were placed, seed), followed by records of RECORD bytes :
+ * the type of the move in the high int, the index (y * width + x) of the square in the low int.
+ * A game which ends is closed by an END record holding its outcome.
+ * Moves are only queued by the game : a background thread writes them to the file.
+ *
+ * @author Baert Quentin
+ */
+
+public class Journal implements Closeable {
+	// ----- Attributes ----- //
+
+	/**
+	 * Magic number of the files ("MSJN").
+	 */
+	static final int MAGIC = 0x4D534A4E;
+
+	/**
+	 * Version of the format.
+	 */
+	static final int VERSION = 1;
+
+	/**
+	 * Size of the header, in bytes.
+	 */
+	static final int HEADER = 40;
+
+	/**
+	 * Size of a record, in bytes.
+	 */
+	static final int RECORD = 8;
+
+	/**
+	 * Type of the records discovering a square.
+	 */
+	static final int DISCOVER = 1;
+
+	/**
+	 * Type of the records putting a flag on a square.
+	 */
+	static final int FLAG = 2;
+
+	/**
+	 * Type of the records removing the flag of a square.
+	 */
+	static final int UNFLAG = 3;
+
+	/**
+	 * Type of the record ending the game, its low int is the ordinal of the outcome.
+	 */
+	static final int END = 4;
+
+	/**
+	 * File of the journal.
+	 */
+	private final FileChannel channel;
+
+	/**
+	 * Width of the board.
+	 */
+	private final int width;
+
+	/**
+	 * Records queued and not written yet.
+	 */
+	private long[] pending;
+
+	/**
+	 * Number of records queued.
+	 */
+	private int nbOfPending;
+
+	/**
+	 * Determine if the journal is closed.
+	 */
+	private boolean closed;
+
+	/**
+	 * Error of the writer thread, thrown when the journal is closed.
+	 */
+	private IOException failure;
+
+	/**
+	 * Thread writing the records.
+	 */
+	private final Thread writer;
+
+	// ----- Methods ----- //
+
+	/**
+	 * Constructor of the Journal class, once the mines are placed on the board. The file is replaced.
+	 * @param path 		path of the file.
+	 * @param b 		board of the game, nothing discovered yet.
+	 * @param x 		abscissa of the square clicked when the mines were placed, -1 if there is none.
+	 * @param y 		ordinate of the square clicked when the mines were placed, -1 if there is none.
+	 * @exception 		If the file can not be written.
+	 */
+	public Journal (Path path, Board b, int x, int y) throws IOException {
+		this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING);
+		this.width 	 = b.getWidth();
+		this.pending = new long[64];
+
+		ByteBuffer header = ByteBuffer.allocate(HEADER);
+
+		header.putInt(MAGIC);
+		header.putInt(VERSION);
+		header.putInt(b.getWidth());
+		header.putInt(b.getHeight());
+		header.putInt(b.getNbOfMines());
+		header.putInt(x);
+		header.putInt(y);
+		header.putInt(0);
+		header.putLong(b.getSeed());
+		header.flip();
+
+		while (header.hasRemaining()) {
+			this.channel.write(header);
+		}
+
+		this.writer = new Thread(this::write, "journal " + path.getFileName());
+		this.writer.setDaemon(true);
+		this.writer.start();
+	}
+
+	/**
+	 * Record the discovery of the square at the location past in parameter.
+	 * @param x 	abscissa of the square.
+	 * @param y 	ordinate of the square.
+	 */
+	public void discover (int x, int y) {
+		this.append(DISCOVER, y * this.width + x);
+	}
+
+	/**
+	 * Record a flag put on the square at the location past in parameter.
+	 * @param x 	abscissa of the square.
+	 * @param y 	ordinate of the square.
+	 */
+	public void putFlag (int x, int y) {
+		this.append(FLAG, y * this.width + x);
+	}
+
+	/**
+	 * Record the removal of the flag of the square at the location past in parameter.
+	 * @param x 	abscissa of the square.
+	 * @param y 	ordinate of the square.
+	 */
+	public void removeFlag (int x, int y) {
+		this.append(UNFLAG, y * this.width + x);
+	}
+
+	/**
+	 * Record the end of the game.
+	 * @param o 	outcome of the game.
+	 */
+	public void end (Outcome o) {
+		this.append(END, o.ordinal());
+	}
+
+	/**
+	 * Queue a record for the writer thread.
+	 * @param type 		type of the record.
+	 * @param value 	index of the square, or ordinal of the outcome.
+	 * @exception 		If the journal is closed.
+	 */
+	private synchronized void append (int type, int value) throws IllegalStateException {
+		if (this.closed) {
+			throw new IllegalStateException("The journal is closed.");
+		}
+
+		// The writer thread stopped : the error is thrown when the journal is closed
+		if (this.failure != null) {
+			return;
+		}
+
+		if (this.nbOfPending == this.pending.length) {
+			this.pending = Arrays.copyOf(this.pending, this.nbOfPending * 2);
+		}
+
+		this.pending[this.nbOfPending++] = ((long) type << 32) | (value & 0xFFFFFFFFL);
+
+		if (this.nbOfPending == 1) {
+			this.notify();
+		}
+	}
+
+	/**
+	 * Write the queued records until the journal is closed (writer thread).
+	 * The records are taken by batches : the game only waits for a copy to an array.
+	 */
+	private void write () {
+		long[] 	  batch = new long[64];
+		ByteBuffer 	out = ByteBuffer.allocateDirect(64 * RECORD);
+
+		try {
+			while (true) {
+				int n;
+
+				synchronized (this) {
+					while ((this.nbOfPending == 0) && !this.closed) {
+						this.wait();
+					}
+
+					if (this.nbOfPending == 0) {
+						return;
+					}
+
+					// Swap of the pending and batch arrays
+					long[] full  = this.pending;
+					n 			 = this.nbOfPending;
+					this.pending = (batch.length >= full.length) ? batch : new long[full.length];
+					this.nbOfPending = 0;
+					batch 		 = full;
+				}
+
+				if (out.capacity() < n * RECORD) {
+					out = ByteBuffer.allocateDirect(n * RECORD);
+				}
+
+				out.clear();
+				out.asLongBuffer().put(batch, 0, n);
+				out.limit(n * RECORD);
+
+				while (out.hasRemaining()) {
+					this.channel.write(out);
+				}
+			}
+		}
+		catch (IOException e) {
+			synchronized (this) {
+				this.failure = e;
+			}
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Write the records still queued and close the file.
+	 * @exception 	If a record could not be written.
+	 */
+	public void close () throws IOException {
+		synchronized (this) {
+			if (this.closed) {
+				return;
+			}
+
+			this.closed = true;
+			this.notify();
+		}
+
+		try {
+			this.writer.join();
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+
+		this.channel.close();
+
+		synchronized (this) {
+			if (this.failure != null) {
+				throw this.failure;
+			}
+		}
+	}
+} // Journal
@@ -0,0 +1,53 @@
+/*
+ * Outcome.java
+ */
+
+// ----- Package ----- //
+
+package minesweeper.journal;
+
+// ----- Imports ----- //
+
+import minesweeper.Board;
+
+/**
+ * Outcome enumeration. State of a game at the end of a journal.
+ *
+ * @author Baert Quentin
+ */
+
+public enum Outcome {
+	/**
+	 * Only the undermined squares are not discovered.
+	 */
+	WIN,
+
+	/**
+	 * An undermined square has been discovered.
+	 */
+	LOOSE,
+
+	/**
+	 * The game is not finished.
+	 */
+	UNFINISHED;
+
+	// ----- Methods ----- //
+
+	/**
+	 * Give the outcome of a board.
+	 * @param b 	board of the game.
+	 * @return 		outcome of the game.
+	 */
+	public static Outcome of (Board b) {
+		if (b.loose()) {
+			return LOOSE;
+		}
+		else if (b.win()) {
+			return WIN;
+		}
+		else {
+			return UNFINISHED;
+		}
+	}
+} // Outcome
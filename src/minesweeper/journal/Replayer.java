@@ -0,0 +1,259 @@
+/*
+ * Replayer.java
+ */
+
+// ----- Package ----- //
+
+package minesweeper.journal;
+
+// ----- Imports ----- //
+
+import java.io.IOException;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+import minesweeper.Board;
+
+/**
+ * Replayer class. Headless replay of the journals.
+ * The board is rebuilt from the seed of the journal, then the moves are played on it
+ * in order, read from the file through memory-mapped buffers.
+ *
+ * @author Baert Quentin
+ */
+
+public class Replayer {
+	// ----- Attributes ----- //
+
+	/**
+	 * Number of records mapped at once.
+	 */
+	private static final int WINDOW = 1 << 24;
+
+	// ----- Methods ----- //
+
+	/**
+	 * Constructor of the Replayer class. Not used : all the methods are static.
+	 */
+	private Replayer () {}
+
+	/**
+	 * Replay a journal.
+	 * @param path 		path of the journal.
+	 * @return 			board at the end of the journal and outcomes of the game.
+	 * @exception 		If the file can not be read or is not a journal.
+	 */
+	public static Replay replay (Path path) throws IOException {
+		long start = System.nanoTime();
+
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			if (channel.size() < Journal.HEADER) {
+				throw new IOException(path + " is not a minesweeper journal.");
+			}
+
+			MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, Journal.HEADER);
+
+			if (header.getInt() != Journal.MAGIC) {
+				throw new IOException(path + " is not a minesweeper journal.");
+			}
+
+			int version = header.getInt();
+
+			if (version != Journal.VERSION) {
+				throw new IOException("Version " + version + " of the journals is not supported.");
+			}
+
+			int 	width = header.getInt();
+			int    height = header.getInt();
+			int nbOfMines = header.getInt();
+			int 		x = header.getInt();
+			int 		y = header.getInt();
+			header.getInt();
+			long 	 seed = header.getLong();
+
+			long size = (long) width * height;
+
+			if ((width <= 0) || (height <= 0) || (size > Integer.MAX_VALUE) || (nbOfMines < 0) || (nbOfMines >= size)
+					|| ((x >= 0) && ((x >= width) || (y < 0) || (y >= height)))) {
+				throw new IOException(path + " is corrupted.");
+			}
+
+			Board b = new Board(width, height);
+
+			if (x >= 0) {
+				b.init(nbOfMines, seed, x, y);
+			}
+			else {
+				b.init(nbOfMines, seed);
+			}
+
+			// Records (a record cut by a crash is ignored)
+			long 	 records = (channel.size() - Journal.HEADER) / Journal.RECORD;
+			long 	   moves = 0;
+			Outcome recorded = null;
+
+			for (long from = 0; from < records; from += WINDOW) {
+				int n = (int) Math.min(WINDOW, records - from);
+				LongBuffer window = channel.map(FileChannel.MapMode.READ_ONLY,
+						Journal.HEADER + from * Journal.RECORD, (long) n * Journal.RECORD).asLongBuffer();
+
+				for (int k = 0; k < n; k++) {
+					long r 	  = window.get(k);
+					int  type = (int) (r >>> 32);
+					int  i 	  = (int) r;
+
+					if ((type != Journal.END) && ((i < 0) || (i >= size))) {
+						throw new IOException(path + " is corrupted (record " + (from + k) + ").");
+					}
+
+					switch (type) {
+						case Journal.DISCOVER :
+							b.reveal(i);
+							break;
+						case Journal.FLAG :
+							b.putFlag(i);
+							break;
+						case Journal.UNFLAG :
+							b.removeFlag(i);
+							break;
+						case Journal.END :
+							if ((i < 0) || (i >= Outcome.values().length)) {
+								throw new IOException(path + " is corrupted (record " + (from + k) + ").");
+							}
+
+							recorded = Outcome.values()[i];
+							break;
+						default :
+							throw new IOException(path + " is corrupted (record " + (from + k) + ").");
+					}
+
+					moves++;
+				}
+			}
+
+			return new Replay(b, moves, recorded, System.nanoTime() - start);
+		}
+	}
+
+	/**
+	 * @param args 	paths of the journals replayed.
+	 * @exception 	If a journal can not be read.
+	 */
+	public static void main (String[] args) throws IOException {
+		System.out.println("journal\tmoves\trecorded\treplayed\tmoves/s");
+
+		for (String a : args) {
+			Replay r = replay(Paths.get(a));
+
+			System.out.println(a + "\t" + r);
+		}
+	}
+
+	// ----- Internal classes ----- //
+
+	/**
+	 * Replay class. Result of the replay of a journal.
+	 *
+	 * @author Baert Quentin
+	 */
+	public static class Replay {
+		// ----- Attributes ----- //
+
+		/**
+		 * Board at the end of the journal.
+		 */
+		private final Board board;
+
+		/**
+		 * Number of records replayed.
+		 */
+		private final long moves;
+
+		/**
+		 * Outcome recorded in the journal, null if the game did not end.
+		 */
+		private final Outcome recorded;
+
+		/**
+		 * Duration of the replay, in nanoseconds.
+		 */
+		private final long nanos;
+
+		// ----- Methods ----- //
+
+		/**
+		 * Constructor of the Replay class.
+		 * @param board 	board at the end of the journal.
+		 * @param moves 	number of records replayed.
+		 * @param recorded 	outcome recorded in the journal, null if the game did not end.
+		 * @param nanos 	duration of the replay, in nanoseconds.
+		 */
+		Replay (Board board, long moves, Outcome recorded, long nanos) {
+			this.board 	  = board;
+			this.moves 	  = moves;
+			this.recorded = recorded;
+			this.nanos 	  = nanos;
+		}
+
+		/**
+		 * Give the board at the end of the journal.
+		 * @return board rebuilt.
+		 */
+		public Board getBoard () {
+			return this.board;
+		}
+
+		/**
+		 * Give the number of records replayed.
+		 * @return number of moves.
+		 */
+		public long getNbOfMoves () {
+			return this.moves;
+		}
+
+		/**
+		 * Give the outcome recorded in the journal.
+		 * @return outcome recorded, UNFINISHED if the game did not end.
+		 */
+		public Outcome getRecordedOutcome () {
+			return (this.recorded == null) ? Outcome.UNFINISHED : this.recorded;
+		}
+
+		/**
+		 * Give the outcome of the board rebuilt.
+		 * @return outcome replayed.
+		 */
+		public Outcome getReplayedOutcome () {
+			return Outcome.of(this.board);
+		}
+
+		/**
+		 * Determine if the board rebuilt ends as the game recorded.
+		 * @return true if both outcomes are the same, false otherwise.
+		 */
+		public boolean isConsistent () {
+			return this.getRecordedOutcome() == this.getReplayedOutcome();
+		}
+
+		/**
+		 * Give the number of moves replayed per second.
+		 * @return moves per second.
+		 */
+		public double getMovesPerSecond () {
+			return this.moves / (this.nanos / 1e9);
+		}
+
+		/**
+		 * Give a description of this replay, as a line of tab separated values.
+		 * @return description of this replay.
+		 */
+		public String toString () {
+			return String.format("%d\t%s\t%s%s\t%.0f", this.moves, this.getRecordedOutcome(),
+					this.getReplayedOutcome(), this.isConsistent() ? "" : " (MISMATCH)", this.getMovesPerSecond());
+		}
+	}
+} // Replayer
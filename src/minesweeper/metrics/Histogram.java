@@ -0,0 +1,171 @@
+/*
+ * Histogram.java
+ */
+
+// ----- Package ----- //
+
+package minesweeper.metrics;
+
+// ----- Imports ----- //
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histogram class. Latencies recorded in log-linear buckets, as in HdrHistogram :
+ * the values under 2^SUB_BITS have a bucket each, then each power of two is split
+ * into 2^(SUB_BITS - 1) buckets, so any value is known within 1/32 of itself.
+ * Recording a value is lock-free and allocates nothing.
+ *
+ * @author Baert Quentin
+ */
+
+public class Histogram {
+	// ----- Attributes ----- //
+
+	/**
+	 * Number of significant bits of the values kept.
+	 */
+	private static final int SUB_BITS = 6;
+
+	/**
+	 * Number of buckets by power of two.
+	 */
+	private static final int HALF = 1 << (SUB_BITS - 1);
+
+	/**
+	 * Number of buckets, enough for any positive long.
+	 */
+	private static final int BUCKETS = (65 - SUB_BITS) * HALF;
+
+	/**
+	 * Number of calls represented by a value recorded (calls are sampled when greater than 1).
+	 */
+	private final int weight;
+
+	/**
+	 * Number of values recorded in each bucket.
+	 */
+	private final AtomicLongArray buckets;
+
+	/**
+	 * Sum of the values recorded.
+	 */
+	private final LongAdder sum;
+
+	/**
+	 * Greatest value recorded.
+	 */
+	private final LongAccumulator max;
+
+	// ----- Methods ----- //
+
+	/**
+	 * Constructor of the Histogram class.
+	 * @param weight 	number of calls represented by a value recorded.
+	 */
+	public Histogram (int weight) {
+		this.weight  = weight;
+		this.buckets = new AtomicLongArray(BUCKETS);
+		this.sum 	 = new LongAdder();
+		this.max 	 = new LongAccumulator(Math::max, 0);
+	}
+
+	/**
+	 * Record a value.
+	 * @param value 	value recorded, in nanoseconds.
+	 */
+	public void record (long value) {
+		long v = Math.max(value, 0);
+
+		this.buckets.incrementAndGet(indexOf(v));
+		this.sum.add(v);
+		this.max.accumulate(v);
+	}
+
+	/**
+	 * Forget all the values recorded.
+	 */
+	public void reset () {
+		for (int i = 0; i < BUCKETS; i++) {
+			this.buckets.set(i, 0);
+		}
+
+		this.sum.reset();
+		this.max.reset();
+	}
+
+	/**
+	 * Give a summary of the values recorded.
+	 * @return count (estimated from the samples), mean, percentiles and maximum.
+	 */
+	public Snapshot snapshot () {
+		long[] counts = new long[BUCKETS];
+		long 	total = 0;
+
+		for (int i = 0; i < BUCKETS; i++) {
+			counts[i] = this.buckets.get(i);
+			total 	 += counts[i];
+		}
+
+		double mean = (total == 0) ? 0 : (double) this.sum.sum() / total;
+
+		return new Snapshot(total * this.weight, mean, percentile(counts, total, 0.5),
+				percentile(counts, total, 0.9), percentile(counts, total, 0.99),
+				percentile(counts, total, 0.999), this.max.get());
+	}
+
+	/**
+	 * Give the bucket of a value.
+	 * @param v 	positive value.
+	 * @return 		index of the bucket.
+	 */
+	static int indexOf (long v) {
+		if (v < 2 * HALF) {
+			return (int) v;
+		}
+
+		int shift = (63 - Long.numberOfLeadingZeros(v)) - (SUB_BITS - 1);
+
+		return shift * HALF + (int) (v >>> shift);
+	}
+
+	/**
+	 * Give the greatest value of a bucket.
+	 * @param i 	index of the bucket.
+	 * @return 		greatest value in the bucket.
+	 */
+	static long highestOf (int i) {
+		if (i < 2 * HALF) {
+			return i;
+		}
+
+		int shift = (i / HALF) - 1;
+		long  top = (i % HALF) + HALF;
+
+		return ((top + 1) << shift) - 1;
+	}
+
+	/**
+	 * Give a percentile of the values recorded.
+	 * @param counts 	number of values in each bucket.
+	 * @param total 	number of values.
+	 * @param q 		rank of the percentile, between 0 and 1.
+	 * @return 			greatest value of the bucket of the percentile, 0 if no value is recorded.
+	 */
+	private static long percentile (long[] counts, long total, double q) {
+		long target = Math.max((long) Math.ceil(q * total), 1);
+		long 	seen = 0;
+
+		for (int i = 0; i < counts.length; i++) {
+			seen += counts[i];
+
+			if (seen >= target) {
+				return highestOf(i);
+			}
+		}
+
+		return 0;
+	}
+} // Histogram
@@ -0,0 +1,153 @@
+/*
+ * Metrics.java
+ */
+
+// ----- Package ----- //
+
+package minesweeper.metrics;
+
+// ----- Imports ----- //
+
+import java.lang.management.ManagementFactory;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * Metrics class. Latency histograms of the hot paths of the game.
+ * The metrics are off unless the JVM is started with -Dminesweeper.metrics=true : ENABLED is
+ * then a constant false for the JIT, and the instrumented code costs nothing.
+ * When on, the histograms are published on the platform MBean server (minesweeper:type=Metrics).
+ * The calls cheaper than reading the clock (reveal, win) are sampled, one call in SAMPLING,
+ * each board counting its own calls ; the other calls are all timed.
+ *
+ * @author Baert Quentin
+ */
+
+public class Metrics implements MetricsMXBean {
+	// ----- Attributes ----- //
+
+	/**
+	 * Determine if the metrics are recorded.
+	 */
+	public static final boolean ENABLED = Boolean.getBoolean("minesweeper.metrics");
+
+	/**
+	 * One call of the sampled paths is timed in this number (a power of two).
+	 */
+	public static final int SAMPLING = 64;
+
+	/**
+	 * Name of the MBean.
+	 */
+	public static final String NAME = "minesweeper:type=Metrics";
+
+	/**
+	 * Placements of the mines.
+	 */
+	public static final Histogram INIT = new Histogram(1);
+
+	/**
+	 * Reveals discovering one square.
+	 */
+	public static final Histogram REVEAL = new Histogram(SAMPLING);
+
+	/**
+	 * Reveals discovering squares in cascade.
+	 */
+	public static final Histogram CASCADE = new Histogram(SAMPLING);
+
+	/**
+	 * Tests of the end of the game.
+	 */
+	public static final Histogram WIN = new Histogram(SAMPLING);
+
+	/**
+	 * Displays in text mode.
+	 */
+	public static final Histogram DISPLAY = new Histogram(1);
+
+	/**
+	 * Renderings in graphic mode.
+	 */
+	public static final Histogram RENDER = new Histogram(1);
+
+	/**
+	 * Frames in graphic mode, from the updates of the components to the repaints asked.
+	 */
+	public static final Histogram FRAME = new Histogram(1);
+
+	/**
+	 * Clicks in graphic mode, until the painting of their frame.
+	 */
+	public static final Histogram LATENCY = new Histogram(1);
+
+	static {
+		if (ENABLED) {
+			try {
+				ManagementFactory.getPlatformMBeanServer().registerMBean(new Metrics(), new ObjectName(NAME));
+			}
+			catch (JMException e) {
+				throw new ExceptionInInitializerError(e);
+			}
+		}
+	}
+
+	// ----- Methods ----- //
+
+	/**
+	 * Constructor of the Metrics class. Only the MBean is created.
+	 */
+	private Metrics () {}
+
+	/**
+	 * Determine if a call is sampled. To test after ENABLED, so that nothing is counted when the metrics are off.
+	 * @param tick 	number of the call, counted by its board.
+	 * @return 		true if the call is timed, false otherwise.
+	 */
+	public static boolean sampled (int tick) {
+		return (tick & (SAMPLING - 1)) == 0;
+	}
+
+	public int getSampling () {
+		return SAMPLING;
+	}
+
+	public Snapshot getInit () {
+		return INIT.snapshot();
+	}
+
+	public Snapshot getReveal () {
+		return REVEAL.snapshot();
+	}
+
+	public Snapshot getCascade () {
+		return CASCADE.snapshot();
+	}
+
+	public Snapshot getWin () {
+		return WIN.snapshot();
+	}
+
+	public Snapshot getDisplay () {
+		return DISPLAY.snapshot();
+	}
+
+	public Snapshot getRender () {
+		return RENDER.snapshot();
+	}
+
+	public Snapshot getFrame () {
+		return FRAME.snapshot();
+	}
+
+	public Snapshot getLatency () {
+		return LATENCY.snapshot();
+	}
+
+	public void reset () {
+		for (Histogram h : new Histogram[] {INIT, REVEAL, CASCADE, WIN, DISPLAY, RENDER, FRAME, LATENCY}) {
+			h.reset();
+		}
+	}
+} // Metrics
@@ -0,0 +1,78 @@
+/*
+ * MetricsMXBean.java
+ */
+
+// ----- Package ----- //
+
+package minesweeper.metrics;
+
+/**
+ * MetricsMXBean interface. Latencies of the hot paths of the game, published on the platform
+ * MBean server as minesweeper:type=Metrics. Durations are in nanoseconds.
+ *
+ * @author Baert Quentin
+ */
+
+public interface MetricsMXBean {
+	// ----- Methods ----- //
+
+	/**
+	 * Give the number of calls represented by a sample of the sampled paths.
+	 * @return one call sampled in this number.
+	 */
+	public int getSampling ();
+
+	/**
+	 * Give the latencies of the placements of the mines (Board.init).
+	 * @return summary of the latencies.
+	 */
+	public Snapshot getInit ();
+
+	/**
+	 * Give the latencies of the reveals discovering one square (sampled).
+	 * @return summary of the latencies.
+	 */
+	public Snapshot getReveal ();
+
+	/**
+	 * Give the latencies of the reveals discovering squares in cascade (sampled).
+	 * @return summary of the latencies.
+	 */
+	public Snapshot getCascade ();
+
+	/**
+	 * Give the latencies of the tests of the end of the game (Board.win, sampled).
+	 * @return summary of the latencies.
+	 */
+	public Snapshot getWin ();
+
+	/**
+	 * Give the latencies of the displays of the board in text mode (Board.display).
+	 * @return summary of the latencies.
+	 */
+	public Snapshot getDisplay ();
+
+	/**
+	 * Give the latencies of the renderings of the board in graphic mode (BoardCanvas.paintComponent).
+	 * @return summary of the latencies.
+	 */
+	public Snapshot getRender ();
+
+	/**
+	 * Give the latencies of the frames in graphic mode, from the updates of the components
+	 * to the repaints asked (the painting itself is in getRender).
+	 * @return summary of the latencies.
+	 */
+	public Snapshot getFrame ();
+
+	/**
+	 * Give the latencies from a click in graphic mode to the painting of the squares it changed.
+	 * @return summary of the latencies.
+	 */
+	public Snapshot getLatency ();
+
+	/**
+	 * Forget all the latencies recorded.
+	 */
+	public void reset ();
+} // MetricsMXBean
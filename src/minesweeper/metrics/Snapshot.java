@@ -0,0 +1,145 @@
+/*
+ * Snapshot.java
+ */
+
+// ----- Package ----- //
+
+package minesweeper.metrics;
+
+// ----- Imports ----- //
+
+import javax.management.ConstructorParameters;
+
+/**
+ * Snapshot class. Summary of a histogram at a moment, published over JMX as composite data.
+ * All the durations are in nanoseconds.
+ *
+ * @author Baert Quentin
+ */
+
+public class Snapshot {
+	// ----- Attributes ----- //
+
+	/**
+	 * Number of calls (estimated from the samples).
+	 */
+	private final long count;
+
+	/**
+	 * Mean duration of a call.
+	 */
+	private final double mean;
+
+	/**
+	 * Median duration.
+	 */
+	private final long p50;
+
+	/**
+	 * 90th percentile of the durations.
+	 */
+	private final long p90;
+
+	/**
+	 * 99th percentile of the durations.
+	 */
+	private final long p99;
+
+	/**
+	 * 99.9th percentile of the durations.
+	 */
+	private final long p999;
+
+	/**
+	 * Longest duration.
+	 */
+	private final long max;
+
+	// ----- Methods ----- //
+
+	/**
+	 * Constructor of the Snapshot class.
+	 * @param count 	number of calls.
+	 * @param mean 		mean duration.
+	 * @param p50 		median duration.
+	 * @param p90 		90th percentile.
+	 * @param p99 		99th percentile.
+	 * @param p999 		99.9th percentile.
+	 * @param max 		longest duration.
+	 */
+	@ConstructorParameters({"count", "mean", "p50", "p90", "p99", "p999", "max"})
+	public Snapshot (long count, double mean, long p50, long p90, long p99, long p999, long max) {
+		this.count = count;
+		this.mean  = mean;
+		this.p50   = p50;
+		this.p90   = p90;
+		this.p99   = p99;
+		this.p999  = p999;
+		this.max   = max;
+	}
+
+	/**
+	 * Give the number of calls.
+	 * @return number of calls, estimated from the samples.
+	 */
+	public long getCount () {
+		return this.count;
+	}
+
+	/**
+	 * Give the mean duration of a call.
+	 * @return mean duration.
+	 */
+	public double getMean () {
+		return this.mean;
+	}
+
+	/**
+	 * Give the median duration.
+	 * @return median duration.
+	 */
+	public long getP50 () {
+		return this.p50;
+	}
+
+	/**
+	 * Give the 90th percentile of the durations.
+	 * @return 90th percentile.
+	 */
+	public long getP90 () {
+		return this.p90;
+	}
+
+	/**
+	 * Give the 99th percentile of the durations.
+	 * @return 99th percentile.
+	 */
+	public long getP99 () {
+		return this.p99;
+	}
+
+	/**
+	 * Give the 99.9th percentile of the durations.
+	 * @return 99.9th percentile.
+	 */
+	public long getP999 () {
+		return this.p999;
+	}
+
+	/**
+	 * Give the longest duration.
+	 * @return longest duration.
+	 */
+	public long getMax () {
+		return this.max;
+	}
+
+	/**
+	 * Give a description of this snapshot, as a line of tab separated values.
+	 * @return description of this snapshot.
+	 */
+	public String toString () {
+		return String.format("%d\t%.0f\t%d\t%d\t%d\t%d\t%d", this.count, this.mean, this.p50, this.p90,
+				this.p99, this.p999, this.max);
+	}
+} // Snapshot
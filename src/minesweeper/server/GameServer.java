@@ -0,0 +1,499 @@
+/*
+ * GameServer.java
+ */
+
+// ----- Package ----- //
+
+package minesweeper.server;
+
+// ----- Imports ----- //
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import minesweeper.Board;
+
+/**
+ * GameServer class. Local TCP server hosting many games at once, for bots and test harnesses.
+ * Each connection is served by its own thread (a virtual thread when the JVM has them),
+ * and plays on a table of sessions shared by all the connections.
+ * The protocol is made of lines, each request gets a single line answered "OK ..." or "ERR message" :
+ * <ul>
+ * <li>new width height mines [seed] : create a session, answer "OK session".</li>
+ * <li>reveal session x y : discover a square, answer "OK discovered outcome".</li>
+ * <li>flag session x y : put or remove a flag, answer "OK 1 outcome" if the square has a flag on now, "OK 0 outcome" otherwise.</li>
+ * <li>chord session x y : discover the neighbours of a square with as many flags around it as mines,
+ * answer "OK discovered outcome".</li>
+ * <li>moves session M x y [M x y]... : play several moves at once, M being R (discover), F (put a flag),
+ * U (remove a flag) or C (chord), answer "OK changed outcome" with the number of squares changed.</li>
+ * <li>state session : answer "OK outcome width height squares", with one character per square (see Session.describe).</li>
+ * <li>close session : forget a session, answer "OK".</li>
+ * </ul>
+ * The outcome is WIN, LOOSE or UNFINISHED.
+ * The number of sessions and their total number of squares are limited (a new session beyond them is
+ * answered "ERR"), and a session without request for a while is forgotten.
+ *
+ * @author Baert Quentin
+ */
+
+public class GameServer implements Closeable {
+	// ----- Attributes ----- //
+
+	/**
+	 * Default port of the server.
+	 */
+	public static final int PORT = 7777;
+
+	/**
+	 * Maximal number of squares of a board.
+	 */
+	public static final int MAX_SQUARES = 1 << 24;
+
+	/**
+	 * Default maximal number of sessions.
+	 */
+	public static final int MAX_SESSIONS = 1 << 16;
+
+	/**
+	 * Default maximal number of squares of all the sessions.
+	 */
+	public static final long MAX_TOTAL_SQUARES = 1L << 26;
+
+	/**
+	 * Default time after which a session without request is forgotten, in milliseconds.
+	 */
+	public static final long IDLE_TIMEOUT = 10 * 60 * 1000L;
+
+	/**
+	 * Maximal number of connections waiting to be accepted.
+	 */
+	private static final int BACKLOG = 4096;
+
+	/**
+	 * Size of the buffers of a connection, in bytes.
+	 */
+	private static final int BUFFER = 512;
+
+	/**
+	 * Socket accepting the connections, on the loopback address.
+	 */
+	private final ServerSocket socket;
+
+	/**
+	 * Threads of the connections.
+	 */
+	private final ExecutorService connections;
+
+	/**
+	 * Sessions, by number.
+	 */
+	private final Map<Long, Session> sessions;
+
+	/**
+	 * Number of the next session.
+	 */
+	private final AtomicLong nextSession;
+
+	/**
+	 * Maximal number of sessions.
+	 */
+	private final int maxSessions;
+
+	/**
+	 * Maximal number of squares of all the sessions.
+	 */
+	private final long maxSquares;
+
+	/**
+	 * Time after which a session without request is forgotten, in nanoseconds.
+	 */
+	private final long idleTimeout;
+
+	/**
+	 * Number of sessions reserved, the ones being created included.
+	 */
+	private int nbOfSessions;
+
+	/**
+	 * Number of squares of the sessions reserved.
+	 */
+	private long nbOfSquares;
+
+	/**
+	 * Thread forgetting the idle sessions.
+	 */
+	private final ScheduledExecutorService expiry;
+
+	// ----- Methods ----- //
+
+	/**
+	 * Constructor of the GameServer class, with the default limits.
+	 * @param port 		port of the server, 0 for any free port.
+	 * @exception 		If the port can not be opened.
+	 */
+	public GameServer (int port) throws IOException {
+		this(port, MAX_SESSIONS, MAX_TOTAL_SQUARES, IDLE_TIMEOUT);
+	}
+
+	/**
+	 * Constructor of the GameServer class.
+	 * @param port 			port of the server, 0 for any free port.
+	 * @param maxSessions 	maximal number of sessions.
+	 * @param maxSquares 	maximal number of squares of all the sessions.
+	 * @param idleTimeout 	time after which a session without request is forgotten, in milliseconds.
+	 * @exception 			If the port can not be opened.
+	 */
+	public GameServer (int port, int maxSessions, long maxSquares, long idleTimeout) throws IOException {
+		this.socket 	 = new ServerSocket(port, BACKLOG, InetAddress.getLoopbackAddress());
+		this.connections = newThreadPerTaskExecutor();
+		this.sessions 	 = new ConcurrentHashMap<Long, Session>();
+		this.nextSession = new AtomicLong();
+		this.maxSessions = maxSessions;
+		this.maxSquares  = maxSquares;
+		this.idleTimeout = TimeUnit.MILLISECONDS.toNanos(idleTimeout);
+		this.expiry 	 = Executors.newSingleThreadScheduledExecutor(r -> {
+			Thread t = new Thread(r, "session expiry");
+
+			t.setDaemon(true);
+
+			return t;
+		});
+
+		long period = Math.max(1, idleTimeout / 4);
+
+		this.expiry.scheduleWithFixedDelay(() -> this.expire(System.nanoTime()), period, period, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Give the port of the server.
+	 * @return port of the server.
+	 */
+	public int getPort () {
+		return this.socket.getLocalPort();
+	}
+
+	/**
+	 * Give the number of sessions of the server.
+	 * @return number of sessions.
+	 */
+	public int getNbOfSessions () {
+		return this.sessions.size();
+	}
+
+	/**
+	 * Give the number of squares of the sessions of the server.
+	 * @return number of squares.
+	 */
+	public synchronized long getNbOfSquares () {
+		return this.nbOfSquares;
+	}
+
+	/**
+	 * Accept the connections until the server is closed.
+	 */
+	public void serve () {
+		while (!this.socket.isClosed()) {
+			try {
+				Socket s = this.socket.accept();
+
+				this.connections.execute(() -> this.handle(s));
+			}
+			catch (IOException e) {
+				// Server closed
+			}
+		}
+	}
+
+	/**
+	 * Stop accepting connections, and stop the threads of the connections.
+	 * @exception 	If the socket can not be closed.
+	 */
+	public void close () throws IOException {
+		this.socket.close();
+		this.connections.shutdownNow();
+		this.expiry.shutdownNow();
+	}
+
+	/**
+	 * Forget the sessions without request for longer than the idle timeout.
+	 * @param now 	current time (System.nanoTime).
+	 */
+	void expire (long now) {
+		for (Map.Entry<Long, Session> e : this.sessions.entrySet()) {
+			Session s = e.getValue();
+
+			if ((now - s.getLastUse() > this.idleTimeout) && this.sessions.remove(e.getKey(), s)) {
+				this.release(s.getNbOfSquares());
+			}
+		}
+	}
+
+	/**
+	 * Reserve a session of the number of squares past in parameter, if the limits allow it.
+	 * @param squares 	number of squares of the session.
+	 * @return 			true if the session is reserved, false otherwise.
+	 */
+	private synchronized boolean reserve (long squares) {
+		if ((this.nbOfSessions >= this.maxSessions) || (this.nbOfSquares + squares > this.maxSquares)) {
+			return false;
+		}
+
+		this.nbOfSessions++;
+		this.nbOfSquares += squares;
+
+		return true;
+	}
+
+	/**
+	 * Release a session of the number of squares past in parameter.
+	 * @param squares 	number of squares of the session.
+	 */
+	private synchronized void release (long squares) {
+		this.nbOfSessions--;
+		this.nbOfSquares -= squares;
+	}
+
+	/**
+	 * Answer the requests of a connection until it is closed.
+	 * @param s 	socket of the connection.
+	 */
+	private void handle (Socket s) {
+		try (Socket socket = s;
+				BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII), BUFFER);
+				Writer 		  out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.US_ASCII), BUFFER)) {
+			socket.setTcpNoDelay(true);
+
+			String line;
+
+			while ((line = in.readLine()) != null) {
+				out.write(this.execute(line));
+				out.write('\n');
+				out.flush();
+			}
+		}
+		catch (IOException e) {
+			// Connection lost
+		}
+	}
+
+	/**
+	 * Execute a request.
+	 * @param line 	request.
+	 * @return 		answer, without the end of line.
+	 */
+	String execute (String line) {
+		String[] words = line.trim().split(" +");
+
+		try {
+			switch (words[0]) {
+				case "new" : {
+					check(words, 4, 5);
+
+					int  width 	   = Integer.parseInt(words[1]);
+					int  height    = Integer.parseInt(words[2]);
+					int  nbOfMines = Integer.parseInt(words[3]);
+					long seed 	   = (words.length > 4) ? Long.parseLong(words[4]) : ThreadLocalRandom.current().nextLong();
+
+					if ((width <= 0) || (height <= 0) || ((long) width * height > MAX_SQUARES)) {
+						return "ERR A board has between 1 and " + MAX_SQUARES + " squares.";
+					}
+
+					long squares = (long) width * height;
+
+					if (!this.reserve(squares)) {
+						return "ERR The server has too many sessions or squares.";
+					}
+
+					Session s;
+
+					try {
+						s = new Session(width, height, nbOfMines, seed);
+					}
+					catch (IllegalArgumentException e) {
+						this.release(squares);
+
+						return "ERR " + e.getMessage();
+					}
+					catch (OutOfMemoryError e) {
+						this.release(squares);
+
+						return "ERR The server is out of memory.";
+					}
+
+					long id = this.nextSession.incrementAndGet();
+
+					this.sessions.put(id, s);
+
+					return "OK " + id;
+				}
+				case "reveal" : {
+					check(words, 4, 4);
+
+					Session s = this.session(words[1]);
+					int 	n = s.reveal(Integer.parseInt(words[2]), Integer.parseInt(words[3]));
+
+					return "OK " + n + " " + s.outcome();
+				}
+				case "flag" : {
+					check(words, 4, 4);
+
+					Session s = this.session(words[1]);
+					boolean f = s.flag(Integer.parseInt(words[2]), Integer.parseInt(words[3]));
+
+					return "OK " + (f ? 1 : 0) + " " + s.outcome();
+				}
+				case "chord" : {
+					check(words, 4, 4);
+
+					Session s = this.session(words[1]);
+					int 	n = s.chord(Integer.parseInt(words[2]), Integer.parseInt(words[3]));
+
+					return "OK " + n + " " + s.outcome();
+				}
+				case "moves" : {
+					if ((words.length < 5) || ((words.length - 2) % 3 != 0)) {
+						throw new IllegalArgumentException("Wrong number of arguments for moves.");
+					}
+
+					Session s 	  = this.session(words[1]);
+					int[] 	moves = new int[(words.length - 2) / 3];
+
+					for (int k = 0; k < moves.length; k++) {
+						String m = words[2 + 3 * k];
+						int    x = Integer.parseInt(words[3 + 3 * k]);
+						int    y = Integer.parseInt(words[4 + 3 * k]);
+
+						moves[k] = s.move(moveType(m), x, y);
+					}
+
+					int n = s.apply(moves);
+
+					return "OK " + n + " " + s.outcome();
+				}
+				case "state" : {
+					check(words, 2, 2);
+
+					Session s = this.session(words[1]);
+
+					return "OK " + s.outcome() + " " + s.describe();
+				}
+				case "close" : {
+					check(words, 2, 2);
+
+					Session s = this.sessions.remove(Long.parseLong(words[1]));
+
+					if (s == null) {
+						return "ERR No session " + words[1] + ".";
+					}
+
+					this.release(s.getNbOfSquares());
+
+					return "OK";
+				}
+				default :
+					return "ERR Unknown request " + words[0] + ".";
+			}
+		}
+		catch (NumberFormatException e) {
+			return "ERR Wrong number : " + e.getMessage() + ".";
+		}
+		catch (IllegalArgumentException | IllegalStateException | IndexOutOfBoundsException e) {
+			return "ERR " + e.getMessage();
+		}
+	}
+
+	/**
+	 * Give the session of a number.
+	 * @param id 	number of the session.
+	 * @return 		session.
+	 * @exception 	If there is no such session.
+	 */
+	private Session session (String id) throws IllegalArgumentException {
+		Session s = this.sessions.get(Long.parseLong(id));
+
+		if (s == null) {
+			throw new IllegalArgumentException("No session " + id + ".");
+		}
+
+		s.touch();
+
+		return s;
+	}
+
+	/**
+	 * Give the type of a move of a moves request.
+	 * @param m 	R, F, U or C.
+	 * @return 		type of the move (see Board.apply).
+	 * @exception 	If the move is unknown.
+	 */
+	private static int moveType (String m) throws IllegalArgumentException {
+		switch (m) {
+			case "R" :
+				return Board.REVEAL;
+			case "F" :
+				return Board.FLAG;
+			case "U" :
+				return Board.UNFLAG;
+			case "C" :
+				return Board.CHORD;
+			default :
+				throw new IllegalArgumentException("Unknown move " + m + ".");
+		}
+	}
+
+	/**
+	 * Check the number of words of a request.
+	 * @param words 	words of the request.
+	 * @param min 		minimal number of words.
+	 * @param max 		maximal number of words.
+	 * @exception 		If the request has not the right number of words.
+	 */
+	private static void check (String[] words, int min, int max) throws IllegalArgumentException {
+		if ((words.length < min) || (words.length > max)) {
+			throw new IllegalArgumentException("Wrong number of arguments for " + words[0] + ".");
+		}
+	}
+
+	/**
+	 * Create an executor starting a thread per task : a virtual thread when the JVM has them (Java 21),
+	 * a cached platform thread otherwise. The code is built for Java 17, the method is found at runtime.
+	 * @return executor of the tasks.
+	 */
+	static ExecutorService newThreadPerTaskExecutor () {
+		try {
+			return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+		}
+		catch (ReflectiveOperationException e) {
+			return Executors.newCachedThreadPool();
+		}
+	}
+
+	/**
+	 * @param args 	[port]
+	 * @exception 	If the port can not be opened.
+	 */
+	public static void main (String[] args) throws IOException {
+		GameServer server = new GameServer((args.length > 0) ? Integer.parseInt(args[0]) : PORT);
+
+		System.out.println("Minesweeper server listening on port " + server.getPort() + ".");
+
+		server.serve();
+	}
+} // GameServer
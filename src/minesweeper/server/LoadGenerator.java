@@ -0,0 +1,229 @@
+/*
+ * LoadGenerator.java
+ */
+
+// ----- Package ----- //
+
+package minesweeper.server;
+
+// ----- Imports ----- //
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * LoadGenerator class. Load test of a game server on the loopback address.
+ * All the connections are opened first, then each one plays random squares on expert
+ * boards (30x16, 99 mines), starting a new game when one ends.
+ * The throughput (in moves per second) and the latencies of the moves are reported.
+ *
+ * @author Baert Quentin
+ */
+
+public class LoadGenerator {
+	// ----- Attributes ----- //
+
+	/**
+	 * Port of the server.
+	 */
+	private final int port;
+
+	/**
+	 * Number of connections.
+	 */
+	private final int connections;
+
+	/**
+	 * Number of moves played by each connection.
+	 */
+	private final int moves;
+
+	// ----- Methods ----- //
+
+	/**
+	 * Constructor of the LoadGenerator class.
+	 * @param port 			port of the server.
+	 * @param connections 	number of connections.
+	 * @param moves 		number of moves played by each connection.
+	 */
+	public LoadGenerator (int port, int connections, int moves) {
+		this.port 		 = port;
+		this.connections = connections;
+		this.moves 		 = moves;
+	}
+
+	/**
+	 * Play the moves of all the connections.
+	 * @return latencies of the moves, in nanoseconds, sorted, and the duration of the test in the last cell.
+	 * @exception 	If a connection fails.
+	 */
+	public long[] run () throws IOException {
+		ExecutorService   threads = GameServer.newThreadPerTaskExecutor();
+		CountDownLatch 	   opened = new CountDownLatch(this.connections);
+		CountDownLatch 		start = new CountDownLatch(1);
+		List<Future<long[]>> runs = new ArrayList<Future<long[]>>();
+
+		for (int c = 0; c < this.connections; c++) {
+			long seed = c;
+
+			runs.add(threads.submit(() -> this.play(seed, opened, start)));
+		}
+
+		long[] latencies = new long[this.connections * this.moves + 1];
+
+		try {
+			opened.await();
+
+			long begin = System.nanoTime();
+
+			start.countDown();
+
+			for (int c = 0; c < this.connections; c++) {
+				System.arraycopy(runs.get(c).get(), 0, latencies, c * this.moves, this.moves);
+			}
+
+			latencies[latencies.length - 1] = System.nanoTime() - begin;
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Load test interrupted.", e);
+		}
+		catch (ExecutionException e) {
+			throw new IOException("A connection failed.", e.getCause());
+		}
+		finally {
+			threads.shutdownNow();
+		}
+
+		Arrays.sort(latencies, 0, latencies.length - 1);
+
+		return latencies;
+	}
+
+	/**
+	 * Play the moves of a connection.
+	 * @param seed 		seed of the squares played.
+	 * @param opened 	counted down once the connection is opened.
+	 * @param start 	waited for before the first move.
+	 * @return 			latencies of the moves, in nanoseconds.
+	 * @exception 		If the connection fails.
+	 */
+	private long[] play (long seed, CountDownLatch opened, CountDownLatch start) throws IOException, InterruptedException {
+		SplittableRandom alea = new SplittableRandom(seed);
+		long[] 		latencies = new long[this.moves];
+
+		Socket connection;
+
+		// A connection which fails to open must not block the others
+		try {
+			connection = new Socket(InetAddress.getLoopbackAddress(), this.port);
+		}
+		finally {
+			opened.countDown();
+		}
+
+		try (Socket socket = connection;
+				BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII), 512);
+				Writer 		  out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.US_ASCII), 512)) {
+			socket.setTcpNoDelay(true);
+			start.await();
+
+			String session = request(in, out, "new 30 16 99 " + seed)[1];
+
+			for (int m = 0; m < this.moves; m++) {
+				long t0 = System.nanoTime();
+				String[] answer = request(in, out, "reveal " + session + " " + alea.nextInt(30) + " " + alea.nextInt(16));
+				latencies[m] = System.nanoTime() - t0;
+
+				if (!answer[2].equals("UNFINISHED")) {
+					request(in, out, "close " + session);
+					session = request(in, out, "new 30 16 99 " + alea.nextLong())[1];
+				}
+			}
+
+			request(in, out, "close " + session);
+		}
+
+		return latencies;
+	}
+
+	/**
+	 * Send a request and read its answer.
+	 * @param in 		input of the connection.
+	 * @param out 		output of the connection.
+	 * @param request 	request sent.
+	 * @return 			words of the answer.
+	 * @exception 		If the connection fails or the server answers an error.
+	 */
+	private static String[] request (BufferedReader in, Writer out, String request) throws IOException {
+		out.write(request);
+		out.write('\n');
+		out.flush();
+
+		String answer = in.readLine();
+
+		if (answer == null) {
+			throw new IOException("Connection closed by the server.");
+		}
+		else if (!answer.startsWith("OK")) {
+			throw new IOException(request + " : " + answer);
+		}
+
+		return answer.split(" ");
+	}
+
+	/**
+	 * @param args 	[connections] [moves by connection] [port]. Without port, a server is started in this JVM.
+	 * @exception 	If the test fails.
+	 */
+	public static void main (String[] args) throws IOException {
+		int connections = (args.length > 0) ? Integer.parseInt(args[0]) : 1000;
+		int 	  moves = (args.length > 1) ? Integer.parseInt(args[1]) : 1000;
+		GameServer server = null;
+		int 		 port;
+
+		if (args.length > 2) {
+			port = Integer.parseInt(args[2]);
+		}
+		else {
+			server = new GameServer(0);
+			port   = server.getPort();
+
+			GameServer embedded = server;
+			Thread 	   acceptor = new Thread(embedded::serve, "acceptor");
+
+			acceptor.setDaemon(true);
+			acceptor.start();
+		}
+
+		try {
+			long[] latencies = new LoadGenerator(port, connections, moves).run();
+			int 		   n = latencies.length - 1;
+			double 	 seconds = latencies[n] / 1e9;
+
+			System.out.println("connections\tmoves\tmoves/s\tp50 (us)\tp99 (us)\tmax (us)");
+			System.out.println(String.format("%d\t\t%d\t%.0f\t%.1f\t\t%.1f\t\t%.1f", connections, n, n / seconds,
+					latencies[n / 2] / 1e3, latencies[(int) (n * 0.99)] / 1e3, latencies[n - 1] / 1e3));
+		}
+		finally {
+			if (server != null) {
+				server.close();
+			}
+		}
+	}
+} // LoadGenerator
@@ -0,0 +1,242 @@
+/*
+ * Session.java
+ */
+
+// ----- Package ----- //
+
+package minesweeper.server;
+
+// ----- Imports ----- //
+
+import minesweeper.Board;
+import minesweeper.journal.Outcome;
+
+/**
+ * Session class. Game hosted by the server, independent of the connections :
+ * any connection knowing its number can play it.
+ * The mines are placed at the first square discovered, which is always safe.
+ *
+ * @author Baert Quentin
+ */
+
+class Session {
+	// ----- Attributes ----- //
+
+	/**
+	 * Board of the game.
+	 */
+	private final Board board;
+
+	/**
+	 * Number of mines of the board.
+	 */
+	private final int nbOfMines;
+
+	/**
+	 * Seed of the board.
+	 */
+	private final long seed;
+
+	/**
+	 * Determine if the mines are placed on the board.
+	 */
+	private boolean initialized;
+
+	/**
+	 * Time of the last request on this session (System.nanoTime).
+	 */
+	private volatile long lastUse;
+
+	// ----- Methods ----- //
+
+	/**
+	 * Constructor of the Session class.
+	 * @param width 		width of the board.
+	 * @param height 		height of the board.
+	 * @param nbOfMines 	number of mines of the board.
+	 * @param seed 			seed of the board.
+	 * @exception 			If there are too many mines for the board.
+	 */
+	Session (int width, int height, int nbOfMines, long seed) throws IllegalArgumentException {
+		if ((nbOfMines < 0) || (nbOfMines >= width * height)) {
+			throw new IllegalArgumentException("A board of " + width + "x" + height + " can not have " + nbOfMines + " mines.");
+		}
+
+		this.board 	   = new Board(width, height);
+		this.nbOfMines = nbOfMines;
+		this.seed 	   = seed;
+		this.lastUse   = System.nanoTime();
+	}
+
+	/**
+	 * Give the number of squares of the board.
+	 * @return number of squares.
+	 */
+	long getNbOfSquares () {
+		return (long) this.board.getWidth() * this.board.getHeight();
+	}
+
+	/**
+	 * Give the time of the last request on this session.
+	 * @return time of the last request (System.nanoTime).
+	 */
+	long getLastUse () {
+		return this.lastUse;
+	}
+
+	/**
+	 * Record a request on this session now.
+	 */
+	void touch () {
+		this.lastUse = System.nanoTime();
+	}
+
+	/**
+	 * Discover the square at the location past in parameter, and its neighbours in cascade.
+	 * @param x 	abscissa of the square.
+	 * @param y 	ordinate of the square.
+	 * @return 		number of squares discovered.
+	 * @exception 	If the game is over.
+	 */
+	synchronized int reveal (int x, int y) throws IllegalStateException {
+		this.checkPlaying();
+
+		if (!this.initialized) {
+			this.board.init(this.nbOfMines, this.seed, x, y);
+			this.initialized = true;
+		}
+
+		return this.board.reveal(x, y).length;
+	}
+
+	/**
+	 * Put a flag on the square at the location past in parameter, or remove it.
+	 * Nothing is done on a discovered square.
+	 * @param x 	abscissa of the square.
+	 * @param y 	ordinate of the square.
+	 * @return 		true if the square has a flag on now, false otherwise.
+	 * @exception 	If the game is over.
+	 */
+	synchronized boolean flag (int x, int y) throws IllegalStateException {
+		this.checkPlaying();
+
+		if (this.board.isDiscovered(x, y)) {
+			return false;
+		}
+		else if (this.board.hasFlag(x, y)) {
+			this.board.removeFlag(x, y);
+		}
+		else {
+			this.board.putFlag(x, y);
+		}
+
+		return this.board.hasFlag(x, y);
+	}
+
+	/**
+	 * Chord on the square at the location past in parameter (see Board.chord).
+	 * @param x 	abscissa of the square.
+	 * @param y 	ordinate of the square.
+	 * @return 		number of squares discovered.
+	 * @exception 	If the game is over.
+	 */
+	synchronized int chord (int x, int y) throws IllegalStateException {
+		this.checkPlaying();
+
+		return this.board.chord(x, y).length;
+	}
+
+	/**
+	 * Apply a batch of moves at once (see Board.apply).
+	 * The mines are placed at the first square discovered of the batch, if they are not yet.
+	 * @param moves 	packed moves (see move).
+	 * @return 			number of squares changed by the moves.
+	 * @exception 		If the game is over.
+	 */
+	synchronized int apply (int[] moves) throws IllegalStateException {
+		this.checkPlaying();
+
+		if (!this.initialized) {
+			int width = this.board.getWidth();
+
+			for (int m : moves) {
+				if ((m & Board.CHORD) == Board.REVEAL) {
+					this.board.init(this.nbOfMines, this.seed, m % width, m / width);
+					this.initialized = true;
+					break;
+				}
+			}
+		}
+
+		return this.board.apply(moves);
+	}
+
+	/**
+	 * Pack a move for apply.
+	 * @param type 	type of the move (Board.REVEAL, FLAG, UNFLAG or CHORD).
+	 * @param x 	abscissa of the square.
+	 * @param y 	ordinate of the square.
+	 * @return 		packed move.
+	 * @exception 	If the location is outside of the board.
+	 */
+	int move (int type, int x, int y) throws IndexOutOfBoundsException {
+		if ((x < 0) || (x >= this.board.getWidth()) || (y < 0) || (y >= this.board.getHeight())) {
+			throw new IndexOutOfBoundsException("The location (" + x + ", " + y + ") is outside of the board.");
+		}
+
+		return type | (y * this.board.getWidth() + x);
+	}
+
+	/**
+	 * Give the outcome of the game.
+	 * @return outcome of the game.
+	 */
+	synchronized Outcome outcome () {
+		return Outcome.of(this.board);
+	}
+
+	/**
+	 * Describe the board, one character per square line by line :
+	 * '.' if it is hidden, 'F' if it has a flag on, '*' if it is an undermined square discovered,
+	 * the number of mines around it otherwise.
+	 * @return description of the board.
+	 */
+	synchronized String describe () {
+		int 	width = this.board.getWidth();
+		int    height = this.board.getHeight();
+		char[] squares = new char[width * height];
+
+		for (int y = 0; y < height; y++) {
+			for (int x = 0; x < width; x++) {
+				char c;
+
+				if (this.board.hasFlag(x, y)) {
+					c = 'F';
+				}
+				else if (!this.board.isDiscovered(x, y)) {
+					c = '.';
+				}
+				else if (this.board.isUndermined(x, y)) {
+					c = '*';
+				}
+				else {
+					c = (char) ('0' + this.board.getMinesAround(x, y));
+				}
+
+				squares[y * width + x] = c;
+			}
+		}
+
+		return width + " " + height + " " + new String(squares);
+	}
+
+	/**
+	 * Check that the game is not over.
+	 * @exception 	If the game is won or lost.
+	 */
+	private void checkPlaying () throws IllegalStateException {
+		if (this.board.win() || this.board.loose()) {
+			throw new IllegalStateException("The game is over.");
+		}
+	}
+} // Session
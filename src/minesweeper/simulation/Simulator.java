@@ -0,0 +1,372 @@
+/*
+ * Simulator.java
+ */
+
+// ----- Package ----- //
+
+package minesweeper.simulation;
+
+// ----- Imports ----- //
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import minesweeper.Board;
+import minesweeper.SplitMix;
+import minesweeper.solver.Solver;
+
+/**
+ * Simulator class. Headless Monte Carlo simulation of the minesweeper game.
+ * Each game starts with a click in the middle of the board (always safe), then the
+ * squares deduced by the solver are discovered, and a random square is tried when
+ * nothing can be deduced. Games are spread over a ForkJoin pool.
+ * Each game draws its board and its guesses from its own random stream, derived from
+ * the seed and the number of the game : the results only depend on the seed, whatever
+ * the number of threads.
+ *
+ * @author Baert Quentin
+ */
+
+public class Simulator {
+	// ----- Attributes ----- //
+
+	/**
+	 * Number of games played by a task without splitting it.
+	 */
+	private static final int THRESHOLD = 256;
+
+	/**
+	 * Pool of the games.
+	 */
+	private final ForkJoinPool pool;
+
+	/**
+	 * Seed of the simulation.
+	 */
+	private final long seed;
+
+	// ----- Methods ----- //
+
+	/**
+	 * Constructor of the Simulator class.
+	 * @param seed 			seed of the simulation.
+	 * @param parallelism 	number of threads playing the games.
+	 */
+	public Simulator (long seed, int parallelism) {
+		this.seed = seed;
+		this.pool = new ForkJoinPool(parallelism);
+	}
+
+	/**
+	 * Play games on boards of a size and a number of mines.
+	 * @param width 		width of the boards.
+	 * @param height 		height of the boards.
+	 * @param nbOfMines 	number of mines of the boards.
+	 * @param games 		number of games played.
+	 * @return 				results of the games.
+	 */
+	public Result simulate (int width, int height, int nbOfMines, long games) {
+		long start = System.nanoTime();
+		long[] res = this.pool.invoke(new Games(width, height, nbOfMines, 0, games));
+
+		return new Result(width, height, nbOfMines, games, res[0], res[1], System.nanoTime() - start);
+	}
+
+	/**
+	 * Stop the threads of this simulator.
+	 */
+	public void shutdown () {
+		this.pool.shutdown();
+	}
+
+	/**
+	 * Play one game.
+	 * @param solver 		solver of the size of the board.
+	 * @param width 		width of the board.
+	 * @param height 		height of the board.
+	 * @param nbOfMines 	number of mines of the board.
+	 * @param game 			number of the game.
+	 * @return 				number of squares clicked, negative if the game is lost.
+	 */
+	private long play (Solver solver, int width, int height, int nbOfMines, long game) {
+		SplittableRandom alea = new SplittableRandom(SplitMix.mix(this.seed + game * SplitMix.GAMMA));
+		Board 			 b 	  = new Board(width, height);
+		int 			 x 	  = width / 2;
+		int 			 y 	  = height / 2;
+		long 	   reveals 	  = 1;
+
+		b.init(nbOfMines, alea.nextLong(), x, y);
+		b.reveal(x, y);
+
+		while (!b.win() && !b.loose()) {
+			solver.deduce(b);
+
+			if (solver.getNbOfSafe() > 0) {
+				for (int k = 0; k < solver.getNbOfSafe(); k++) {
+					b.reveal(solver.getSafe(k));
+				}
+
+				reveals += solver.getNbOfSafe();
+			}
+			else {
+				b.reveal(guess(b, solver, alea));
+				reveals++;
+			}
+		}
+
+		return b.win() ? reveals : -reveals;
+	}
+
+	/**
+	 * Choose at random a square neither discovered nor known to be undermined.
+	 * @param b 		board played.
+	 * @param solver 	solver of the board.
+	 * @param alea 		random stream of the game.
+	 * @return 			index of the square.
+	 */
+	private static int guess (Board b, Solver solver, SplittableRandom alea) {
+		int width  = b.getWidth();
+		int size   = width * b.getHeight();
+		int n 	   = 0;
+
+		for (int i = 0; i < size; i++) {
+			if (!b.isDiscovered(i) && !solver.isKnownMine(i)) {
+				n++;
+			}
+		}
+
+		int k = alea.nextInt(n);
+
+		for (int i = 0; i < size; i++) {
+			if (!b.isDiscovered(i) && !solver.isKnownMine(i) && (k-- == 0)) {
+				return i;
+			}
+		}
+
+		throw new IllegalStateException("No square to try.");
+	}
+
+	/**
+	 * @param args 	[games] [seed] [threads] [width height mines]...
+	 */
+	public static void main (String[] args) {
+		long 	games = (args.length > 0) ? Long.parseLong(args[0]) : 100000;
+		long 	 seed = (args.length > 1) ? Long.parseLong(args[1]) : 1;
+		int   threads = (args.length > 2) ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+		int[]  points = {5, 5, 5, 9, 9, 10, 10, 10, 20, 10, 10, 25, 16, 16, 40, 30, 16, 99};
+
+		if (args.length > 3) {
+			points = new int[args.length - 3];
+
+			for (int i = 3; i < args.length; i++) {
+				points[i - 3] = Integer.parseInt(args[i]);
+			}
+		}
+
+		Simulator sim = new Simulator(seed, threads);
+
+		System.out.println("width\theight\tmines\tgames\twin rate\tmean reveals\tgames/s");
+
+		for (int p = 0; p + 2 < points.length; p += 3) {
+			System.out.println(sim.simulate(points[p], points[p + 1], points[p + 2], games));
+		}
+
+		sim.shutdown();
+	}
+
+	// ----- Internal classes ----- //
+
+	/**
+	 * Games class. Task playing a range of games.
+	 * The result holds the number of games won and the total number of squares clicked.
+	 *
+	 * @author Baert Quentin
+	 */
+	@SuppressWarnings("serial")
+	class Games extends RecursiveTask<long[]> {
+		// ----- Attributes ----- //
+
+		/**
+		 * Width of the boards.
+		 */
+		private final int width;
+
+		/**
+		 * Height of the boards.
+		 */
+		private final int height;
+
+		/**
+		 * Number of mines of the boards.
+		 */
+		private final int nbOfMines;
+
+		/**
+		 * Number of the first game played.
+		 */
+		private final long from;
+
+		/**
+		 * Number of the game after the last one played.
+		 */
+		private final long to;
+
+		// ----- Methods ----- //
+
+		/**
+		 * Constructor of the Games class.
+		 * @param width 		width of the boards.
+		 * @param height 		height of the boards.
+		 * @param nbOfMines 	number of mines of the boards.
+		 * @param from 			number of the first game played.
+		 * @param to 			number of the game after the last one played.
+		 */
+		Games (int width, int height, int nbOfMines, long from, long to) {
+			this.width 	   = width;
+			this.height    = height;
+			this.nbOfMines = nbOfMines;
+			this.from 	   = from;
+			this.to 	   = to;
+		}
+
+		protected long[] compute () {
+			if (this.to - this.from > THRESHOLD) {
+				long   middle = (this.from + this.to) >>> 1;
+				Games 	 left = new Games(this.width, this.height, this.nbOfMines, this.from, middle);
+				Games 	right = new Games(this.width, this.height, this.nbOfMines, middle, this.to);
+
+				left.fork();
+
+				long[] r = right.compute();
+				long[] l = left.join();
+
+				return new long[] {l[0] + r[0], l[1] + r[1]};
+			}
+			else {
+				Solver solver = new Solver(this.width, this.height);
+				long 	 wins = 0;
+				long  reveals = 0;
+
+				for (long g = this.from; g < this.to; g++) {
+					long r = play(solver, this.width, this.height, this.nbOfMines, g);
+
+					if (r > 0) {
+						wins++;
+					}
+
+					reveals += Math.abs(r);
+				}
+
+				return new long[] {wins, reveals};
+			}
+		}
+	}
+
+	/**
+	 * Result class. Results of the games played on one size and number of mines.
+	 *
+	 * @author Baert Quentin
+	 */
+	public static class Result {
+		// ----- Attributes ----- //
+
+		/**
+		 * Width of the boards.
+		 */
+		private final int width;
+
+		/**
+		 * Height of the boards.
+		 */
+		private final int height;
+
+		/**
+		 * Number of mines of the boards.
+		 */
+		private final int nbOfMines;
+
+		/**
+		 * Number of games played.
+		 */
+		private final long games;
+
+		/**
+		 * Number of games won.
+		 */
+		private final long wins;
+
+		/**
+		 * Total number of squares clicked.
+		 */
+		private final long reveals;
+
+		/**
+		 * Duration of the simulation, in nanoseconds.
+		 */
+		private final long nanos;
+
+		// ----- Methods ----- //
+
+		/**
+		 * Constructor of the Result class.
+		 * @param width 		width of the boards.
+		 * @param height 		height of the boards.
+		 * @param nbOfMines 	number of mines of the boards.
+		 * @param games 		number of games played.
+		 * @param wins 			number of games won.
+		 * @param reveals 		total number of squares clicked.
+		 * @param nanos 		duration of the simulation, in nanoseconds.
+		 */
+		Result (int width, int height, int nbOfMines, long games, long wins, long reveals, long nanos) {
+			this.width 	   = width;
+			this.height    = height;
+			this.nbOfMines = nbOfMines;
+			this.games 	   = games;
+			this.wins 	   = wins;
+			this.reveals   = reveals;
+			this.nanos 	   = nanos;
+		}
+
+		/**
+		 * Give the number of games won.
+		 * @return number of games won.
+		 */
+		public long getWins () {
+			return this.wins;
+		}
+
+		/**
+		 * Give the part of the games won.
+		 * @return win rate, between 0 and 1.
+		 */
+		public double getWinRate () {
+			return (double) this.wins / this.games;
+		}
+
+		/**
+		 * Give the mean number of squares clicked by game.
+		 * @return mean number of reveals.
+		 */
+		public double getMeanReveals () {
+			return (double) this.reveals / this.games;
+		}
+
+		/**
+		 * Give the number of games played per second.
+		 * @return games per second.
+		 */
+		public double getGamesPerSecond () {
+			return this.games / (this.nanos / 1e9);
+		}
+
+		/**
+		 * Give a description of this result, as a line of tab separated values.
+		 * @return description of this result.
+		 */
+		public String toString () {
+			return String.format("%d\t%d\t%d\t%d\t%.4f\t\t%.2f\t\t%.0f", this.width, this.height, this.nbOfMines,
+					this.games, this.getWinRate(), this.getMeanReveals(), this.getGamesPerSecond());
+		}
+	}
+} // Simulator
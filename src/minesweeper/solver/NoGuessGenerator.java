@@ -0,0 +1,345 @@
+/*
+ * NoGuessGenerator.java
+ */
+
+// ----- Package ----- //
+
+package minesweeper.solver;
+
+// ----- Imports ----- //
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import minesweeper.Board;
+import minesweeper.SplitMix;
+
+/**
+ * NoGuessGenerator class. Generation of boards solvable from the first click by pure deduction.
+ * Candidate boards are drawn one after the other from the seed of the generation, and played by
+ * the solver ; when the solver is stuck, the squares with no chance to be undermined
+ * (exact probabilities, which also use the number of mines left) are discovered, and the solver
+ * goes on. A candidate needing a guess is rejected.
+ * The candidates are checked by several threads at once. The first board solved is not returned
+ * as is : the threads stop drawing candidates after it, but the candidates drawn before it are
+ * still checked, and the board returned is the first candidate solvable. So the board only depends
+ * on the seed of the generation, whatever the number of threads.
+ * The dense large boards are seldom solvable without a guess : a generation gives up after a timeout.
+ * It also gives up when a candidate drawn before the first one solved could not be checked in time,
+ * rather than returning a board which would depend on the speed of the threads.
+ * Target : expert boards (30x16, 99 mines) in under 100 ms on average.
+ *
+ * @author Baert Quentin
+ */
+
+public class NoGuessGenerator {
+	// ----- Attributes ----- //
+
+	/**
+	 * Maximal number of candidates drawn by a generation.
+	 */
+	public static final long MAX_ATTEMPTS = 1000000;
+
+	/**
+	 * Default timeout of a generation, in milliseconds.
+	 */
+	public static final long TIMEOUT = 10000;
+
+	/**
+	 * Pool of the threads checking the candidates.
+	 */
+	private final ForkJoinPool pool;
+
+	/**
+	 * Number of threads checking the candidates.
+	 */
+	private final int parallelism;
+
+	/**
+	 * Timeout of a generation, in nanoseconds.
+	 */
+	private long timeout;
+
+	// ----- Methods ----- //
+
+	/**
+	 * Constructor of the NoGuessGenerator class.
+	 * @param parallelism 	number of threads checking the candidates.
+	 */
+	public NoGuessGenerator (int parallelism) {
+		this.parallelism = parallelism;
+		this.pool 		 = new ForkJoinPool(parallelism);
+		this.timeout 	 = TIMEOUT * 1000000L;
+	}
+
+	/**
+	 * Change the timeout of a generation.
+	 * @param millis 	timeout, in milliseconds.
+	 */
+	public void setTimeout (long millis) {
+		this.timeout = millis * 1000000L;
+	}
+
+	/**
+	 * Generate a board solvable by pure deduction from a first click.
+	 * The board returned has its mines placed (Board.init(nbOfMines, getSeed(), x, y) gives it again),
+	 * but no square discovered.
+	 * @param width 		width of the board.
+	 * @param height 		height of the board.
+	 * @param nbOfMines 	number of mines of the board.
+	 * @param x 			abscissa of the first square clicked.
+	 * @param y 			ordinate of the first square clicked.
+	 * @param seed 			seed of the generation.
+	 * @return 				board generated and statistics of the generation.
+	 * @exception 			If no candidate is solvable within MAX_ATTEMPTS or the timeout, if a candidate before
+	 * 						the first one solvable could not be checked within the timeout, or if the generation is interrupted.
+	 */
+	public Generation generate (int width, int height, int nbOfMines, int x, int y, long seed) throws IllegalStateException {
+		long 	   start = System.nanoTime();
+		long 	deadline = start + this.timeout;
+		AtomicLong  next = new AtomicLong();
+		AtomicLong found = new AtomicLong(MAX_ATTEMPTS);
+		AtomicLong   cut = new AtomicLong(MAX_ATTEMPTS); // First candidate not checked in time
+		List<Callable<Long>> workers = new ArrayList<Callable<Long>>();
+
+		// Each worker checks candidates until one is found before the next it would draw
+		for (int t = 0; t < this.parallelism; t++) {
+			workers.add(() -> {
+				Solver 			  solver = new Solver(width, height);
+				ProbabilityEngine engine = new ProbabilityEngine(width, height);
+				long 			 checked = 0;
+
+				// An engine stopped by time is then past the deadline too : its candidate is counted as cut
+				engine.setTimeout(this.timeout / 1000000L);
+
+				for (long k = next.getAndIncrement(); k < found.get(); k = next.getAndIncrement()) {
+					if (System.nanoTime() - deadline > 0) {
+						cut.accumulateAndGet(k, Math::min);
+						break;
+					}
+
+					Board b = new Board(width, height);
+
+					b.init(nbOfMines, candidate(seed, k), x, y);
+					checked++;
+
+					if (solvable(b, solver, engine, x, y, deadline)) {
+						found.accumulateAndGet(k, Math::min);
+					}
+					else if (System.nanoTime() - deadline > 0) {
+						cut.accumulateAndGet(k, Math::min);
+					}
+				}
+
+				return checked;
+			});
+		}
+
+		long attempts = 0;
+
+		try {
+			for (Future<Long> f : this.pool.invokeAll(workers)) {
+				attempts += f.get();
+			}
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Generation interrupted.", e);
+		}
+		catch (ExecutionException e) {
+			throw new IllegalStateException("A candidate could not be checked.", e.getCause());
+		}
+
+		if (found.get() >= MAX_ATTEMPTS) {
+			throw new IllegalStateException("No board without guess found in " + attempts + " attempts.");
+		}
+
+		if (cut.get() < found.get()) {
+			throw new IllegalStateException("No board without guess checked in time (" + attempts + " attempts).");
+		}
+
+		Board b = new Board(width, height);
+
+		b.init(nbOfMines, candidate(seed, found.get()), x, y);
+
+		return new Generation(b, candidate(seed, found.get()), attempts, System.nanoTime() - start);
+	}
+
+	/**
+	 * Stop the threads of this generator.
+	 */
+	public void shutdown () {
+		this.pool.shutdown();
+	}
+
+	/**
+	 * Determine if a board is solvable by pure deduction from a first click.
+	 * The board is played in the process.
+	 * @param b 		board, with its mines placed.
+	 * @param solver 	solver of the size of the board.
+	 * @param engine 	probabilities of the size of the board.
+	 * @param x 		abscissa of the first square clicked.
+	 * @param y 		ordinate of the first square clicked.
+	 * @param deadline 	time (System.nanoTime) after which the board is given up.
+	 * @return 			true if the board is won without a guess, false otherwise.
+	 */
+	static boolean solvable (Board b, Solver solver, ProbabilityEngine engine, int x, int y, long deadline) {
+		int size = b.getWidth() * b.getHeight();
+
+		b.reveal(x, y);
+
+		while (!solver.solve(b)) {
+			if (b.loose() || (System.nanoTime() - deadline > 0) || !engine.compute(b)) {
+				return false;
+			}
+
+			// Squares safe in every solution, the number of mines left included
+			int n = 0;
+
+			for (int i = 0; i < size; i++) {
+				if (!b.isDiscovered(i) && (engine.getProbability(i) == 0)) {
+					b.reveal(i);
+					n++;
+				}
+			}
+
+			if (n == 0) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 * Give the seed of a candidate board.
+	 * @param seed 	seed of the generation.
+	 * @param k 	number of the candidate.
+	 * @return 		seed of the mines placement.
+	 */
+	private static long candidate (long seed, long k) {
+		return SplitMix.mix(seed + k * SplitMix.GAMMA);
+	}
+
+	/**
+	 * @param args 	[boards] [seed] [threads] [width height mines]
+	 */
+	public static void main (String[] args) {
+		int 	boards = (args.length > 0) ? Integer.parseInt(args[0]) : 100;
+		long 	  seed = (args.length > 1) ? Long.parseLong(args[1]) : 1;
+		int    threads = (args.length > 2) ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+		int 	 width = (args.length > 5) ? Integer.parseInt(args[3]) : 30;
+		int 	height = (args.length > 5) ? Integer.parseInt(args[4]) : 16;
+		int  nbOfMines = (args.length > 5) ? Integer.parseInt(args[5]) : 99;
+
+		NoGuessGenerator gen = new NoGuessGenerator(threads);
+		long 		attempts = 0;
+		long 		   nanos = 0;
+
+		System.out.println("board\tseed\tattempts\tms");
+
+		for (int n = 0; n < boards; n++) {
+			Generation g = gen.generate(width, height, nbOfMines, width / 2, height / 2, seed + n);
+
+			attempts += g.getAttempts();
+			nanos 	 += g.getNanos();
+			System.out.println(n + "\t" + g);
+		}
+
+		System.out.printf("mean\t\t%.1f\t%.2f%n", (double) attempts / boards, nanos / 1e6 / boards);
+
+		gen.shutdown();
+	}
+
+	// ----- Internal classes ----- //
+
+	/**
+	 * Generation class. Board generated and statistics of its generation.
+	 *
+	 * @author Baert Quentin
+	 */
+	public static class Generation {
+		// ----- Attributes ----- //
+
+		/**
+		 * Board generated, without square discovered.
+		 */
+		private final Board board;
+
+		/**
+		 * Seed of the mines placement of the board.
+		 */
+		private final long seed;
+
+		/**
+		 * Number of candidates checked.
+		 */
+		private final long attempts;
+
+		/**
+		 * Duration of the generation, in nanoseconds.
+		 */
+		private final long nanos;
+
+		// ----- Methods ----- //
+
+		/**
+		 * Constructor of the Generation class.
+		 * @param board 	board generated.
+		 * @param seed 		seed of the mines placement of the board.
+		 * @param attempts 	number of candidates checked.
+		 * @param nanos 	duration of the generation, in nanoseconds.
+		 */
+		Generation (Board board, long seed, long attempts, long nanos) {
+			this.board 	  = board;
+			this.seed 	  = seed;
+			this.attempts = attempts;
+			this.nanos 	  = nanos;
+		}
+
+		/**
+		 * Give the board generated.
+		 * @return board, with its mines placed and no square discovered.
+		 */
+		public Board getBoard () {
+			return this.board;
+		}
+
+		/**
+		 * Give the seed of the mines placement of the board.
+		 * @return seed, to give to Board.init with the first square clicked.
+		 */
+		public long getSeed () {
+			return this.seed;
+		}
+
+		/**
+		 * Give the number of candidates checked, by all the threads.
+		 * @return number of attempts.
+		 */
+		public long getAttempts () {
+			return this.attempts;
+		}
+
+		/**
+		 * Give the duration of the generation.
+		 * @return duration, in nanoseconds.
+		 */
+		public long getNanos () {
+			return this.nanos;
+		}
+
+		/**
+		 * Give a description of this generation, as a line of tab separated values.
+		 * @return description of this generation.
+		 */
+		public String toString () {
+			return String.format("%d\t%d\t%.2f", this.seed, this.attempts, this.nanos / 1e6);
+		}
+	}
+} // NoGuessGenerator
@@ -0,0 +1,889 @@
+/*
+ * ProbabilityEngine.java
+ */
+
+// ----- Package ----- //
+
+package minesweeper.solver;
+
+// ----- Imports ----- //
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import minesweeper.Board;
+import minesweeper.Topology;
+
+/**
+ * ProbabilityEngine class. Exact probability that each square is undermined, given what the gamer sees :
+ * the squares discovered, their number of mines around, and the total number of mines.
+ * Unlike the solver, the flags are not trusted : a flag is only a guess of the gamer.
+ * The hidden squares next to a discovered square (the frontier, in the topology of the board) are split into
+ * independent components, the squares of two components never sharing a constraint. Each component is enumerated square by square,
+ * in breadth-first order along the frontier, memoizing the partial solutions by the mines still expected
+ * by the constraints left open : for each number of mines k, this gives the number of solutions of the
+ * component and, by a backward pass, the number of them with a mine on each square.
+ * The components are then weighted together with the ways to place the other mines on the squares
+ * far from the frontier (binomial coefficients, in logarithms to stay in range).
+ * A component whose enumeration takes more than the timeout, or keeps too many partial solutions,
+ * makes the engine fall back to local estimates (see isExact).
+ * The exact results can be kept in a cache by position (see setCache), shared by engines of the same size.
+ * Target : under 50 ms on expert boards (30x16, 99 mines).
+ *
+ * @author Baert Quentin
+ */
+
+public class ProbabilityEngine {
+	// ----- Attributes ----- //
+
+	/**
+	 * Default timeout of an exact computation, in milliseconds.
+	 */
+	public static final long TIMEOUT = 40;
+
+	/**
+	 * Maximal number of partial solutions kept for a component.
+	 */
+	private static final int MAX_STATES = 1 << 15;
+
+	/**
+	 * Width of the boards.
+	 */
+	private final int width;
+
+	/**
+	 * Height of the boards.
+	 */
+	private final int height;
+
+	/**
+	 * Probability that each square is undermined.
+	 */
+	private final double[] probabilities;
+
+	/**
+	 * Index of the frontier variable of each square, -1 if the square is not on the frontier.
+	 */
+	private final int[] variableOf;
+
+	/**
+	 * Square of each frontier variable.
+	 */
+	private final int[] squares;
+
+	/**
+	 * Timeout of an exact computation, in nanoseconds.
+	 */
+	private long timeout;
+
+	/**
+	 * Determine if the last computation is exact.
+	 */
+	private boolean exact;
+
+	/**
+	 * Exact probabilities by position, null if they are not cached.
+	 */
+	private TranspositionCache<double[]> cache;
+
+	/**
+	 * Constraints of the last computation : frontier variables of each one.
+	 */
+	private final List<int[]> constraints;
+
+	/**
+	 * Number of mines expected by each constraint.
+	 */
+	private final List<Integer> values;
+
+	// ----- Methods ----- //
+
+	/**
+	 * Constructor of the ProbabilityEngine class.
+	 * @param width 	width of the boards.
+	 * @param height 	height of the boards.
+	 */
+	public ProbabilityEngine (int width, int height) {
+		this.width 		   = width;
+		this.height 	   = height;
+		this.probabilities = new double[width * height];
+		this.variableOf    = new int[width * height];
+		this.squares 	   = new int[width * height];
+		this.timeout 	   = TIMEOUT * 1000000L;
+		this.constraints   = new ArrayList<int[]>();
+		this.values 	   = new ArrayList<Integer>();
+	}
+
+	/**
+	 * Change the timeout of an exact computation.
+	 * @param millis 	timeout, in milliseconds.
+	 */
+	public void setTimeout (long millis) {
+		this.timeout = millis * 1000000L;
+	}
+
+	/**
+	 * Keep the exact probabilities in a cache, by hash of the board (see Board.getHash).
+	 * A board seen again gets its probabilities from the cache.
+	 * @param cache 	cache of the probabilities, null to stop caching.
+	 */
+	public void setCache (TranspositionCache<double[]> cache) {
+		this.cache = cache;
+	}
+
+	/**
+	 * Give the probability that a square is undermined, as computed by the last call to compute.
+	 * Discovered squares are 0 (or 1 if undermined).
+	 * @param i 	index (y * width + x) of the square.
+	 * @return 		probability of a mine, between 0 and 1.
+	 */
+	public double getProbability (int i) {
+		return this.probabilities[i];
+	}
+
+	/**
+	 * Give the probability that a square is undermined, as computed by the last call to compute.
+	 * @param x 	abscissa of the square.
+	 * @param y 	ordinate of the square.
+	 * @return 		probability of a mine, between 0 and 1.
+	 */
+	public double getProbability (int x, int y) {
+		return this.probabilities[y * this.width + x];
+	}
+
+	/**
+	 * Determine if the last computation is exact, or falls back to local estimates.
+	 * @return true if the probabilities are exact, false otherwise.
+	 */
+	public boolean isExact () {
+		return this.exact;
+	}
+
+	/**
+	 * Give the hidden square with the lowest probability of a mine.
+	 * @param b 	board of the last computation.
+	 * @return 		index of the square, -1 if every square is discovered.
+	 */
+	public int getSafest (Board b) {
+		int 	 best = -1;
+
+		for (int i = 0; i < this.probabilities.length; i++) {
+			if (!b.isDiscovered(i) && ((best < 0) || (this.probabilities[i] < this.probabilities[best]))) {
+				best = i;
+			}
+		}
+
+		return best;
+	}
+
+	/**
+	 * Compute the probability that each square of a board is undermined.
+	 * @param b 	board, with its mines placed.
+	 * @return 		true if the probabilities are exact, false if they are estimated.
+	 * @exception 	If the board has not the size of this engine.
+	 */
+	public boolean compute (Board b) throws IllegalArgumentException {
+		if ((b.getWidth() != this.width) || (b.getHeight() != this.height)) {
+			throw new IllegalArgumentException("The board is not " + this.width + "x" + this.height + ".");
+		}
+
+		if (this.cache != null) {
+			double[] cached = this.cache.get(b.getHash());
+
+			if (cached != null) {
+				System.arraycopy(cached, 0, this.probabilities, 0, cached.length);
+				this.exact = true;
+
+				return true;
+			}
+		}
+
+		long deadline = System.nanoTime() + this.timeout;
+		int 	 size = this.width * this.height;
+		int nbOfVariables = 0;
+		int    interior = 0;
+		int 	remaining = b.getNbOfMines();
+		int[] 	   around = new int[Topology.MAX_DEGREE];
+
+		this.constraints.clear();
+		this.values.clear();
+		Arrays.fill(this.variableOf, -1);
+
+		// Constraints given by the discovered squares
+		for (int i = 0; i < size; i++) {
+			if (!b.isDiscovered(i)) {
+				continue;
+			}
+
+			if (b.isUndermined(i)) {
+				remaining--;
+				continue;
+			}
+
+			int value = b.getMinesAround(i);
+			int[] vars = new int[Topology.MAX_DEGREE];
+			int 	 n = 0;
+			int degree = b.getTopology().neighbours(i, around);
+
+			for (int k = 0; k < degree; k++) {
+				int j = around[k];
+
+				if (!b.isDiscovered(j)) {
+					if (this.variableOf[j] < 0) {
+						this.variableOf[j] 		= nbOfVariables;
+						this.squares[nbOfVariables++] = j;
+					}
+
+					vars[n++] = this.variableOf[j];
+				}
+				else if (b.isUndermined(j)) {
+					value--;
+				}
+			}
+
+			if (n > 0) {
+				this.constraints.add(Arrays.copyOf(vars, n));
+				this.values.add(value);
+			}
+		}
+
+		for (int i = 0; i < size; i++) {
+			if (b.isDiscovered(i)) {
+				this.probabilities[i] = b.isUndermined(i) ? 1 : 0;
+			}
+			else if (this.variableOf[i] < 0) {
+				interior++;
+			}
+		}
+
+		this.exact = this.exact(b, nbOfVariables, interior, remaining, deadline);
+
+		if (!this.exact) {
+			this.estimate(b, nbOfVariables, interior, remaining);
+		}
+		else if (this.cache != null) {
+			this.cache.put(b.getHash(), this.probabilities.clone());
+		}
+
+		return this.exact;
+	}
+
+	/**
+	 * Compute the exact probabilities of the hidden squares.
+	 * @param b 				board.
+	 * @param nbOfVariables 	number of squares on the frontier.
+	 * @param interior 			number of hidden squares not on the frontier.
+	 * @param remaining 		number of mines under the hidden squares.
+	 * @param deadline 			time (System.nanoTime) after which the computation is abandoned.
+	 * @return 					true if the probabilities are computed, false if the computation is abandoned.
+	 */
+	private boolean exact (Board b, int nbOfVariables, int interior, int remaining, long deadline) {
+		// Components of the frontier (union-find on the variables)
+		int[] parent = new int[nbOfVariables];
+
+		for (int v = 0; v < nbOfVariables; v++) {
+			parent[v] = v;
+		}
+
+		for (int[] vars : this.constraints) {
+			for (int k = 1; k < vars.length; k++) {
+				parent[find(parent, vars[k])] = find(parent, vars[0]);
+			}
+		}
+
+		Map<Integer, Component> components = new HashMap<Integer, Component>();
+
+		for (int c = 0; c < this.constraints.size(); c++) {
+			int root = find(parent, this.constraints.get(c)[0]);
+
+			components.computeIfAbsent(root, r -> new Component()).constraints.add(c);
+		}
+
+		List<Component> list = new ArrayList<Component>(components.values());
+
+		for (Component comp : list) {
+			if (!comp.enumerate(this.constraints, this.values, nbOfVariables, deadline)) {
+				return false;
+			}
+		}
+
+		// Ways to place the other mines far from the frontier, relative to the most probable count
+		int 	 total = 0;
+
+		for (Component comp : list) {
+			total += comp.nbOfVariables();
+		}
+
+		double[] far = logBinomials(interior, remaining, total);
+
+		// Weight of each total number of mines on the frontier
+		double[] all = {1};
+
+		for (Component comp : list) {
+			all = convolve(all, comp.solutions);
+		}
+
+		double z = 0;
+		double interiorMines = 0;
+
+		for (int k = 0; k < all.length; k++) {
+			double w = all[k] * far[k];
+
+			z 			  += w;
+			interiorMines += w * (remaining - k);
+		}
+
+		if (!(z > 0)) {
+			return false;
+		}
+
+		for (Component comp : list) {
+			double[] others = {1};
+
+			for (Component o : list) {
+				if (o != comp) {
+					others = convolve(others, o.solutions);
+				}
+			}
+
+			// Weight of k mines on this component, the other mines being anywhere else
+			double[] weight = new double[comp.solutions.length];
+
+			for (int k = 0; k < weight.length; k++) {
+				for (int j = 0; (j < others.length) && (k + j < far.length); j++) {
+					weight[k] += others[j] * far[k + j];
+				}
+			}
+
+			for (int p = 0; p < comp.order.length; p++) {
+				double mine = 0;
+
+				for (int k = 0; k < weight.length; k++) {
+					mine += comp.mines[p][k] * weight[k];
+				}
+
+				this.probabilities[this.squares[comp.order[p]]] = Math.min(1, mine / z);
+			}
+		}
+
+		double density = (interior > 0) ? Math.min(1, Math.max(0, interiorMines / z / interior)) : 0;
+
+		this.fillInterior(b, density);
+
+		return true;
+	}
+
+	/**
+	 * Estimate the probabilities of the hidden squares : each square of the frontier gets the highest
+	 * density of mines of its constraints, the other squares share the mines left.
+	 * @param b 				board.
+	 * @param nbOfVariables 	number of squares on the frontier.
+	 * @param interior 			number of hidden squares not on the frontier.
+	 * @param remaining 		number of mines under the hidden squares.
+	 */
+	private void estimate (Board b, int nbOfVariables, int interior, int remaining) {
+		double[] local = new double[nbOfVariables];
+		double 	 frontier = 0;
+
+		for (int c = 0; c < this.constraints.size(); c++) {
+			int[] vars = this.constraints.get(c);
+
+			for (int v : vars) {
+				local[v] = Math.max(local[v], (double) this.values.get(c) / vars.length);
+			}
+		}
+
+		for (int v = 0; v < nbOfVariables; v++) {
+			this.probabilities[this.squares[v]] = Math.min(1, local[v]);
+			frontier += local[v];
+		}
+
+		this.fillInterior(b, (interior > 0) ? Math.min(1, Math.max(0, (remaining - frontier) / interior)) : 0);
+	}
+
+	/**
+	 * Give a probability to the hidden squares not on the frontier.
+	 * @param b 	board.
+	 * @param p 	probability of a mine.
+	 */
+	private void fillInterior (Board b, double p) {
+		for (int i = 0; i < this.probabilities.length; i++) {
+			if ((this.variableOf[i] < 0) && !b.isDiscovered(i)) {
+				this.probabilities[i] = p;
+			}
+		}
+	}
+
+	/**
+	 * Give the relative numbers of ways to place the mines left on the squares far from the frontier,
+	 * C(interior, remaining - k) for k mines on the frontier, divided by the greatest of them.
+	 * @param interior 		number of hidden squares not on the frontier.
+	 * @param remaining 	number of mines under the hidden squares.
+	 * @param frontier 		number of squares on the frontier.
+	 * @return 				relative numbers of ways, indexed by k.
+	 */
+	private static double[] logBinomials (int interior, int remaining, int frontier) {
+		double[] res = new double[frontier + 1];
+		double 	 max = Double.NEGATIVE_INFINITY;
+
+		for (int k = 0; k <= frontier; k++) {
+			int j = remaining - k;
+
+			res[k] = ((j < 0) || (j > interior)) ? Double.NEGATIVE_INFINITY : logBinomial(interior, j);
+			max 	= Math.max(max, res[k]);
+		}
+
+		for (int k = 0; k <= frontier; k++) {
+			res[k] = (res[k] == Double.NEGATIVE_INFINITY) ? 0 : Math.exp(res[k] - max);
+		}
+
+		return res;
+	}
+
+	/**
+	 * Give the logarithm of a binomial coefficient.
+	 * @param n 	size of the set.
+	 * @param k 	size of the subsets.
+	 * @return 		ln C(n, k).
+	 */
+	private static double logBinomial (int n, int k) {
+		k = Math.min(k, n - k);
+
+		double res = 0;
+
+		for (int i = 0; i < k; i++) {
+			res += Math.log((double) (n - i) / (k - i));
+		}
+
+		return res;
+	}
+
+	/**
+	 * Multiply two polynomials.
+	 * @param a 	coefficients of the first polynomial.
+	 * @param b 	coefficients of the second polynomial.
+	 * @return 		coefficients of the product.
+	 */
+	private static double[] convolve (double[] a, double[] b) {
+		double[] res = new double[a.length + b.length - 1];
+
+		for (int i = 0; i < a.length; i++) {
+			if (a[i] != 0) {
+				for (int j = 0; j < b.length; j++) {
+					res[i + j] += a[i] * b[j];
+				}
+			}
+		}
+
+		return res;
+	}
+
+	/**
+	 * Find the root of a variable in a union-find forest, compressing the path.
+	 * @param parent 	parent of each variable.
+	 * @param v 		variable.
+	 * @return 			root of the variable.
+	 */
+	private static int find (int[] parent, int v) {
+		while (parent[v] != v) {
+			parent[v] = parent[parent[v]];
+			v 		  = parent[v];
+		}
+
+		return v;
+	}
+
+	// ----- Internal classes ----- //
+
+	/**
+	 * Component class. Squares of the frontier linked by constraints, and the solutions of their constraints.
+	 *
+	 * @author Baert Quentin
+	 */
+	static class Component {
+		// ----- Attributes ----- //
+
+		/**
+		 * Constraints of the component.
+		 */
+		final List<Integer> constraints = new ArrayList<Integer>();
+
+		/**
+		 * Variables of the component, in the order of the enumeration.
+		 */
+		int[] order;
+
+		/**
+		 * Number of solutions, by number of mines, divided by the greatest of them.
+		 */
+		double[] solutions;
+
+		/**
+		 * Number of solutions with a mine on each variable (in order), by number of mines, on the same scale.
+		 */
+		double[][] mines;
+
+		// ----- Methods ----- //
+
+		/**
+		 * Give the number of variables of the component.
+		 * @return number of squares.
+		 */
+		int nbOfVariables () {
+			return this.order.length;
+		}
+
+		/**
+		 * Count the solutions of the constraints of the component.
+		 * @param all 				variables of all the constraints.
+		 * @param values 			number of mines expected by all the constraints.
+		 * @param nbOfVariables 	number of variables of the frontier.
+		 * @param deadline 			time (System.nanoTime) after which the enumeration is abandoned.
+		 * @return 					true if the solutions are counted, false if the enumeration is abandoned.
+		 */
+		boolean enumerate (List<int[]> all, List<Integer> values, int nbOfVariables, long deadline) {
+			int nbOfConstraints = this.constraints.size();
+			int[][] vars 		= new int[nbOfConstraints][];
+			int[] 	value 		= new int[nbOfConstraints];
+
+			for (int c = 0; c < nbOfConstraints; c++) {
+				vars[c]  = all.get(this.constraints.get(c));
+				value[c] = values.get(this.constraints.get(c));
+			}
+
+			// Constraints of each variable
+			Map<Integer, List<Integer>> of = new HashMap<Integer, List<Integer>>();
+
+			for (int c = 0; c < nbOfConstraints; c++) {
+				for (int v : vars[c]) {
+					of.computeIfAbsent(v, k -> new ArrayList<Integer>()).add(c);
+				}
+			}
+
+			// Breadth-first order along the frontier, keeping few constraints open at a time
+			int[] 	  position = new int[nbOfVariables];
+			int[] 		 order = new int[of.size()];
+			int 			 m = 0;
+			boolean[] 	  done = new boolean[nbOfConstraints];
+
+			Arrays.fill(position, -1);
+			order[m++] 			 = vars[0][0];
+			position[vars[0][0]] = 0;
+
+			for (int head = 0; head < m; head++) {
+				for (int c : of.get(order[head])) {
+					if (!done[c]) {
+						done[c] = true;
+
+						for (int v : vars[c]) {
+							if (position[v] < 0) {
+								position[v] = m;
+								order[m++]  = v;
+							}
+						}
+					}
+				}
+			}
+
+			this.order = order;
+
+			// First and last positions of each constraint
+			int[] first = new int[nbOfConstraints];
+			int[] last 	= new int[nbOfConstraints];
+
+			for (int c = 0; c < nbOfConstraints; c++) {
+				first[c] = m;
+
+				for (int v : vars[c]) {
+					first[c] = Math.min(first[c], position[v]);
+					last[c]  = Math.max(last[c], position[v]);
+				}
+			}
+
+			// Constraints open before each step
+			int[][] open = new int[m + 1][];
+
+			for (int p = 0; p <= m; p++) {
+				int[] list = new int[nbOfConstraints];
+				int 	 n = 0;
+
+				for (int c = 0; c < nbOfConstraints; c++) {
+					if ((first[c] < p) && (last[c] >= p)) {
+						list[n++] = c;
+					}
+				}
+
+				open[p] = Arrays.copyOf(list, n);
+			}
+
+			// Forward pass : partial solutions of the first p variables, merged by mines still expected
+			List<Collection<Node>> levels = new ArrayList<Collection<Node>>();
+			int 				   states = 0;
+
+			levels.add(Collections.singletonList(new Node("", new double[] {1})));
+
+			for (int p = 0; p < m; p++) {
+				Step 			step = new Step(p, order, position, vars, value, open, of);
+				Map<String, Node> next = new HashMap<String, Node>();
+
+				for (Node node : levels.get(p)) {
+					for (int x = 0; x <= 1; x++) {
+						String t = step.apply(node.state, x);
+
+						if (t == null) {
+							continue;
+						}
+
+						Node child = next.get(t);
+
+						if (child == null) {
+							child = new Node(t, new double[p + 2]);
+							next.put(t, child);
+						}
+
+						for (int k = 0; k < node.before.length; k++) {
+							child.before[k + x] += node.before[k];
+						}
+
+						if (x == 0) {
+							node.zero = child;
+						}
+						else {
+							node.one = child;
+						}
+					}
+				}
+
+				states += next.size();
+				levels.add(next.values());
+
+				if ((states > MAX_STATES) || (System.nanoTime() - deadline > 0)) {
+					return false;
+				}
+			}
+
+			// Backward pass : completions of the partial solutions, and solutions with a mine on each variable
+			this.mines = new double[m][m + 1];
+
+			for (Node node : levels.get(m)) {
+				node.after = new double[] {1};
+			}
+
+			for (int p = m - 1; p >= 0; p--) {
+				for (Node node : levels.get(p)) {
+					node.after = new double[m - p + 1];
+
+					if (node.zero != null) {
+						for (int k = 0; k < node.zero.after.length; k++) {
+							node.after[k] += node.zero.after[k];
+						}
+					}
+
+					if (node.one != null) {
+						double[] after = node.one.after;
+
+						for (int k = 0; k < after.length; k++) {
+							node.after[k + 1] += after[k];
+						}
+
+						for (int i = 0; i < node.before.length; i++) {
+							for (int k = 0; (node.before[i] != 0) && (k < after.length); k++) {
+								this.mines[p][i + k + 1] += node.before[i] * after[k];
+							}
+						}
+					}
+				}
+
+				if (System.nanoTime() - deadline > 0) {
+					return false;
+				}
+			}
+
+			this.solutions = levels.get(0).iterator().next().after;
+
+			// Same scale for all the counts
+			double max = 0;
+
+			for (double s : this.solutions) {
+				max = Math.max(max, s);
+			}
+
+			if (!(max > 0)) {
+				return false;
+			}
+
+			for (int k = 0; k < this.solutions.length; k++) {
+				this.solutions[k] /= max;
+			}
+
+			for (double[] row : this.mines) {
+				for (int k = 0; k < row.length; k++) {
+					row[k] /= max;
+				}
+			}
+
+			return true;
+		}
+	}
+
+	/**
+	 * Node class. Partial solutions of a component sharing the mines still expected by the open constraints.
+	 *
+	 * @author Baert Quentin
+	 */
+	static class Node {
+		// ----- Attributes ----- //
+
+		/**
+		 * Mines still expected by each open constraint, one character per constraint.
+		 */
+		final String state;
+
+		/**
+		 * Number of partial solutions reaching this node, by number of mines placed.
+		 */
+		final double[] before;
+
+		/**
+		 * Number of ways to complete this node, by number of mines placed.
+		 */
+		double[] after;
+
+		/**
+		 * Node reached without a mine on the next variable, null if none.
+		 */
+		Node zero;
+
+		/**
+		 * Node reached with a mine on the next variable, null if none.
+		 */
+		Node one;
+
+		// ----- Methods ----- //
+
+		/**
+		 * Constructor of the Node class.
+		 * @param state 	mines still expected by each open constraint.
+		 * @param before 	number of partial solutions, by number of mines.
+		 */
+		Node (String state, double[] before) {
+			this.state 	= state;
+			this.before = before;
+		}
+	}
+
+	/**
+	 * Step class. Changes made to the open constraints when a value is given to a variable.
+	 *
+	 * @author Baert Quentin
+	 */
+	static class Step {
+		// ----- Attributes ----- //
+
+		/**
+		 * Slot, in the state before, of each constraint of the variable, -1 if the constraint opens.
+		 */
+		private final int[] slot;
+
+		/**
+		 * Mines expected by each constraint of the variable when it opens.
+		 */
+		private final int[] initial;
+
+		/**
+		 * Variables left after this one in each constraint of the variable.
+		 */
+		private final int[] room;
+
+		/**
+		 * Slot, in the state before, of each constraint open after, -1 if the constraint opens.
+		 */
+		private final int[] source;
+
+		/**
+		 * Mines expected by each constraint open after when it opens.
+		 */
+		private final int[] value;
+
+		/**
+		 * Determine if each constraint open after contains the variable.
+		 */
+		private final boolean[] minus;
+
+		// ----- Methods ----- //
+
+		/**
+		 * Constructor of the Step class.
+		 * @param p 		position of the variable.
+		 * @param order 	variables, in order.
+		 * @param position 	position of each variable.
+		 * @param vars 		variables of each constraint.
+		 * @param value 	number of mines expected by each constraint.
+		 * @param open 		constraints open before each step.
+		 * @param of 		constraints of each variable.
+		 */
+		Step (int p, int[] order, int[] position, int[][] vars, int[] value, int[][] open, Map<Integer, List<Integer>> of) {
+			List<Integer> touched = of.get(order[p]);
+
+			this.slot 	 = new int[touched.size()];
+			this.initial = new int[touched.size()];
+			this.room 	 = new int[touched.size()];
+
+			for (int k = 0; k < this.slot.length; k++) {
+				int c = touched.get(k);
+
+				this.slot[k] 	= Arrays.binarySearch(open[p], c);
+				this.initial[k] = value[c];
+
+				for (int u : vars[c]) {
+					if (position[u] > p) {
+						this.room[k]++;
+					}
+				}
+			}
+
+			int[] next = open[p + 1];
+
+			this.source = new int[next.length];
+			this.value 	= new int[next.length];
+			this.minus 	= new boolean[next.length];
+
+			for (int j = 0; j < next.length; j++) {
+				this.source[j] = Arrays.binarySearch(open[p], next[j]);
+				this.value[j]  = value[next[j]];
+				this.minus[j]  = touched.contains(next[j]);
+			}
+		}
+
+		/**
+		 * Give the state after a value is given to the variable.
+		 * @param state 	state before the step.
+		 * @param x 		value of the variable (1 for a mine).
+		 * @return 			state after the step, null if a constraint can not be satisfied anymore.
+		 */
+		String apply (String state, int x) {
+			for (int k = 0; k < this.slot.length; k++) {
+				int r = ((this.slot[k] >= 0) ? state.charAt(this.slot[k]) : this.initial[k]) - x;
+
+				if ((r < 0) || (r > this.room[k])) {
+					return null;
+				}
+			}
+
+			char[] res = new char[this.source.length];
+
+			for (int j = 0; j < res.length; j++) {
+				int r = (this.source[j] >= 0) ? state.charAt(this.source[j]) : this.value[j];
+
+				res[j] = (char) (this.minus[j] ? r - x : r);
+			}
+
+			return new String(res);
+		}
+	}
+} // ProbabilityEngine
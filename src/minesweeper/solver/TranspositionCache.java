@@ -0,0 +1,226 @@
+/*
+ * TranspositionCache.java
+ */
+
+// ----- Package ----- //
+
+package minesweeper.solver;
+
+// ----- Imports ----- //
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongFunction;
+
+/**
+ * TranspositionCache class. Results of an analysis by position, the positions being known by
+ * their hash (see Board.getHash) : a position seen again (after an undo, in a replay, in another
+ * game) gets its result without a new analysis.
+ * The cache has a fixed number of slots, a position going to the slot given by the low bits of
+ * its hash. A new position replaces the one in its slot, so the cache never grows.
+ * The full hash is kept with the result : two positions sharing a slot are never mistaken, only
+ * two positions with the same 64 bits hash are.
+ * The cache can be shared by several threads : no lock is taken, each slot being replaced at once.
+ *
+ * @param <V> 	type of the results, which must not be changed once in the cache.
+ * @author Baert Quentin
+ */
+
+public class TranspositionCache<V> {
+	// ----- Attributes ----- //
+
+	/**
+	 * Slots of the results.
+	 */
+	private final AtomicReferenceArray<Entry<V>> slots;
+
+	/**
+	 * Mask of the slot of a hash.
+	 */
+	private final int mask;
+
+	/**
+	 * Number of results found.
+	 */
+	private final LongAdder hits;
+
+	/**
+	 * Number of results not found.
+	 */
+	private final LongAdder misses;
+
+	/**
+	 * Number of results replaced by the result of another position.
+	 */
+	private final LongAdder evictions;
+
+	// ----- Methods ----- //
+
+	/**
+	 * Constructor of the TranspositionCache class.
+	 * @param capacity 	maximal number of results kept, rounded up to a power of two.
+	 * @exception 		If the capacity is not between 1 and 2^30.
+	 */
+	public TranspositionCache (int capacity) throws IllegalArgumentException {
+		if ((capacity < 1) || (capacity > (1 << 30))) {
+			throw new IllegalArgumentException("The capacity of a cache is between 1 and 2^30, not " + capacity + ".");
+		}
+
+		int slots = Integer.highestOneBit(capacity);
+
+		if (slots < capacity) {
+			slots <<= 1;
+		}
+
+		this.slots 	   = new AtomicReferenceArray<Entry<V>>(slots);
+		this.mask 	   = slots - 1;
+		this.hits 	   = new LongAdder();
+		this.misses    = new LongAdder();
+		this.evictions = new LongAdder();
+	}
+
+	/**
+	 * Give the result of a position.
+	 * @param hash 	hash of the position.
+	 * @return 		result, null if it is not in the cache.
+	 */
+	public V get (long hash) {
+		Entry<V> e = this.slots.get((int) hash & this.mask);
+
+		if ((e != null) && (e.hash == hash)) {
+			this.hits.increment();
+
+			return e.value;
+		}
+
+		this.misses.increment();
+
+		return null;
+	}
+
+	/**
+	 * Keep the result of a position, in place of the result in its slot.
+	 * @param hash 		hash of the position.
+	 * @param value 	result, not null.
+	 */
+	public void put (long hash, V value) {
+		Entry<V> old = this.slots.getAndSet((int) hash & this.mask, new Entry<V>(hash, value));
+
+		if ((old != null) && (old.hash != hash)) {
+			this.evictions.increment();
+		}
+	}
+
+	/**
+	 * Give the result of a position, computing it if it is not in the cache.
+	 * @param hash 		hash of the position.
+	 * @param analysis 	computation of the result from the hash, not null.
+	 * @return 			result.
+	 */
+	public V computeIfAbsent (long hash, LongFunction<V> analysis) {
+		V value = this.get(hash);
+
+		if (value == null) {
+			value = analysis.apply(hash);
+
+			this.put(hash, value);
+		}
+
+		return value;
+	}
+
+	/**
+	 * Forget all the results. The statistics are kept.
+	 */
+	public void clear () {
+		for (int i = 0; i < this.slots.length(); i++) {
+			this.slots.set(i, null);
+		}
+	}
+
+	/**
+	 * Give the maximal number of results kept.
+	 * @return number of slots.
+	 */
+	public int getCapacity () {
+		return this.slots.length();
+	}
+
+	/**
+	 * Give the number of results found.
+	 * @return number of hits.
+	 */
+	public long getHits () {
+		return this.hits.sum();
+	}
+
+	/**
+	 * Give the number of results not found.
+	 * @return number of misses.
+	 */
+	public long getMisses () {
+		return this.misses.sum();
+	}
+
+	/**
+	 * Give the number of results replaced by the result of another position.
+	 * @return number of evictions.
+	 */
+	public long getEvictions () {
+		return this.evictions.sum();
+	}
+
+	/**
+	 * Give the part of the results found.
+	 * @return hits over lookups, 0 if there was no lookup.
+	 */
+	public double getHitRate () {
+		long hits 	= this.getHits();
+		long lookups = hits + this.getMisses();
+
+		return (lookups == 0) ? 0 : (double) hits / lookups;
+	}
+
+	/**
+	 * Give the statistics of this cache.
+	 * @return description of the statistics.
+	 */
+	public String toString () {
+		return String.format("%d hits, %d misses (%.1f%%), %d evictions, %d slots", this.getHits(), this.getMisses(),
+				100 * this.getHitRate(), this.getEvictions(), this.getCapacity());
+	}
+
+	// ----- Internal classes ----- //
+
+	/**
+	 * Entry class. Result of a position, with its full hash.
+	 *
+	 * @param <V> 	type of the result.
+	 * @author Baert Quentin
+	 */
+	private static class Entry<V> {
+		// ----- Attributes ----- //
+
+		/**
+		 * Hash of the position.
+		 */
+		private final long hash;
+
+		/**
+		 * Result of the position.
+		 */
+		private final V value;
+
+		// ----- Methods ----- //
+
+		/**
+		 * Constructor of the Entry class.
+		 * @param hash 		hash of the position.
+		 * @param value 	result of the position.
+		 */
+		Entry (long hash, V value) {
+			this.hash  = hash;
+			this.value = value;
+		}
+	}
+} // TranspositionCache
@@ -0,0 +1,122 @@
+/*
+ * BoardHashTest.java
+ */
+
+// ----- Package ----- //
+
+package minesweeper;
+
+// ----- Imports ----- //
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * BoardHashTest class. Tests of the hash of the Board class, kept up to date move after move.
+ *
+ * @author Baert Quentin
+ */
+
+class BoardHashTest {
+	// ----- Attributes ----- //
+
+	/**
+	 * Number of random operations played.
+	 */
+	private static final int OPERATIONS = 8000;
+
+	// ----- Methods ----- //
+
+	/**
+	 * After each of 8000 random operations (reveal, chord, flags, batches, mines moved), on boards of each topology,
+	 * the hash kept up to date is the one computed again from the whole state.
+	 */
+	@Test
+	void incrementalHashMatchesRehash () {
+		SplittableRandom alea = new SplittableRandom(7);
+		Board 			 b 	  = null;
+
+		for (int k = 0; k < OPERATIONS; k++) {
+			if ((b == null) || b.win() || b.loose()) {
+				b = board(k, alea);
+			}
+
+			int size = b.getWidth() * b.getHeight();
+			int i 	 = alea.nextInt(size);
+
+			switch (alea.nextInt(7)) {
+			case 0 :
+				if (!b.isUndermined(i)) {
+					b.reveal(i);
+				}
+				break;
+			case 1 :
+				b.putFlag(i);
+				break;
+			case 2 :
+				b.removeFlag(i);
+				break;
+			case 3 :
+				b.chord(i);
+				break;
+			case 4 :
+				b.getSquareAt(i % b.getWidth(), i / b.getWidth()).putFlag();
+				break;
+			case 5 :
+				int j = alea.nextInt(size);
+
+				if (b.isUndermined(i) && !b.isUndermined(j) && !b.isDiscovered(i) && !b.isDiscovered(j)) {
+					b.moveMine(i, j);
+				}
+				break;
+			default :
+				int[] moves = new int[1 + alea.nextInt(8)];
+
+				for (int m = 0; m < moves.length; m++) {
+					int n = alea.nextInt(size);
+
+					moves[m] = (b.isUndermined(n) ? Board.FLAG : (alea.nextInt(4) << 30)) | n;
+				}
+
+				b.apply(moves);
+			}
+
+			assertEquals(rehash(b), b.getHash(), "operation " + k);
+		}
+	}
+
+	/**
+	 * Give a new board with its mines placed, of a topology depending on the number of operations played.
+	 * @param k 		number of operations played.
+	 * @param alea 		random generator of the mines.
+	 * @return 			board with its mines placed.
+	 */
+	private static Board board (int k, SplittableRandom alea) {
+		Board b = new Board(Topology.of(k % 3, 16, 12));
+
+		b.init(30, alea.nextLong(), 8, 6);
+
+		return b;
+	}
+
+	/**
+	 * Compute the hash of a board from scratch, on a copy of its storage.
+	 * @param b 	board.
+	 * @return 		hash of the copy.
+	 */
+	private static long rehash (Board b) {
+		Board 	   copy = new Board(b.getTopology());
+		CellStorage from = b.storage();
+		CellStorage to 	 = copy.storage();
+
+		System.arraycopy(from.mines(), 0, to.mines(), 0, from.mines().length);
+		System.arraycopy(from.discovered(), 0, to.discovered(), 0, from.discovered().length);
+		System.arraycopy(from.flags(), 0, to.flags(), 0, from.flags().length);
+		copy.restore(b.getSeed());
+
+		return copy.getHash();
+	}
+} // BoardHashTest
@@ -0,0 +1,218 @@
+/*
+ * ConcurrentBoardTest.java
+ */
+
+// ----- Package ----- //
+
+package minesweeper;
+
+// ----- Imports ----- //
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * ConcurrentBoardTest class. Tests of the ConcurrentBoard class played by 16 threads at once,
+ * against a Board played alone.
+ *
+ * @author Baert Quentin
+ */
+
+class ConcurrentBoardTest {
+	// ----- Attributes ----- //
+
+	/**
+	 * Number of threads playing the board.
+	 */
+	private static final int THREADS = 16;
+
+	/**
+	 * Width of the boards.
+	 */
+	private static final int WIDTH = 128;
+
+	/**
+	 * Height of the boards.
+	 */
+	private static final int HEIGHT = 96;
+
+	/**
+	 * Number of mines of the boards.
+	 */
+	private static final int MINES = 2000;
+
+	// ----- Methods ----- //
+
+	/**
+	 * Each safe square is discovered by exactly one of the threads revealing all of them,
+	 * and the board ends as a Board whose safe squares are revealed one after the other.
+	 * @exception 	If a thread is interrupted.
+	 */
+	@Test
+	void revealsMatchSequentialBoard () throws InterruptedException {
+		Board 			   sequential = board();
+		ConcurrentBoard 	   shared = new ConcurrentBoard(board());
+		AtomicIntegerArray discovered = new AtomicIntegerArray(WIDTH * HEIGHT);
+
+		run(t -> {
+			for (int i : shuffled(new SplittableRandom(t))) {
+				if (!shared.isUndermined(i % WIDTH, i / WIDTH)) {
+					for (int n : shared.reveal(i % WIDTH, i / WIDTH)) {
+						discovered.incrementAndGet(n);
+					}
+				}
+			}
+		});
+
+		for (int i = 0; i < WIDTH * HEIGHT; i++) {
+			if (!sequential.isUndermined(i)) {
+				sequential.reveal(i);
+			}
+		}
+
+		for (int i = 0; i < WIDTH * HEIGHT; i++) {
+			int x = i % WIDTH;
+			int y = i / WIDTH;
+
+			assertEquals(sequential.isDiscovered(i) ? 1 : 0, discovered.get(i), "square " + i);
+			assertEquals(sequential.isDiscovered(i), shared.isDiscovered(x, y), "square " + i);
+			assertEquals(sequential.getMinesAround(i), shared.getMinesAround(x, y), "square " + i);
+		}
+
+		assertEquals(sequential.getNbOfDiscovered(), shared.getNbOfDiscovered());
+		assertTrue(sequential.win());
+		assertTrue(shared.win());
+		assertFalse(shared.loose());
+	}
+
+	/**
+	 * The flags put and removed by threads toggling the same squares add up to the flags left on the board,
+	 * and a flag is never put on a discovered square.
+	 * @exception 	If a thread is interrupted.
+	 */
+	@Test
+	void flagsAddUp () throws InterruptedException {
+		Board 			   template = board();
+		ConcurrentBoard 	 shared = new ConcurrentBoard(template);
+		AtomicIntegerArray 	  flags = new AtomicIntegerArray(WIDTH * HEIGHT);
+
+		run(t -> {
+			SplittableRandom alea = new SplittableRandom(t);
+
+			for (int k = 0; k < 20000; k++) {
+				int i = alea.nextInt(WIDTH * HEIGHT);
+				int x = i % WIDTH;
+				int y = i / WIDTH;
+
+				if (alea.nextInt(8) == 0) {
+					if (!shared.isUndermined(x, y)) {
+						shared.reveal(x, y);
+					}
+				}
+				else if (shared.putFlag(x, y)) {
+					flags.incrementAndGet(i);
+				}
+				else if (shared.removeFlag(x, y)) {
+					flags.decrementAndGet(i);
+				}
+			}
+		});
+
+		for (int i = 0; i < WIDTH * HEIGHT; i++) {
+			int x = i % WIDTH;
+			int y = i / WIDTH;
+
+			assertEquals(shared.hasFlag(x, y) ? 1 : 0, flags.get(i), "square " + i);
+			assertFalse(shared.hasFlag(x, y) && shared.isDiscovered(x, y), "square " + i);
+		}
+
+		assertFalse(shared.loose());
+	}
+
+	/**
+	 * Give a board with its mines placed, always the same.
+	 * @return board with its mines placed.
+	 */
+	private static Board board () {
+		Board b = new Board(WIDTH, HEIGHT);
+
+		b.init(MINES, 42L, WIDTH / 2, HEIGHT / 2);
+
+		return b;
+	}
+
+	/**
+	 * Give the indexes of all the squares of a board, shuffled.
+	 * @param alea 	random generator of the order.
+	 * @return 		shuffled indexes.
+	 */
+	private static int[] shuffled (SplittableRandom alea) {
+		int[] indexes = new int[WIDTH * HEIGHT];
+
+		for (int i = 0; i < indexes.length; i++) {
+			indexes[i] = i;
+		}
+
+		for (int i = indexes.length - 1; i > 0; i--) {
+			int j = alea.nextInt(i + 1);
+			int s = indexes[i];
+
+			indexes[i] = indexes[j];
+			indexes[j] = s;
+		}
+
+		return indexes;
+	}
+
+	/**
+	 * Run a player in each of the threads, all of them starting at the same time, and wait for them.
+	 * @param player 	player, given the number of its thread.
+	 * @exception 		If the calling thread is interrupted.
+	 */
+	private static void run (Player player) throws InterruptedException {
+		CountDownLatch start   = new CountDownLatch(1);
+		Thread[] 	   threads = new Thread[THREADS];
+
+		for (int t = 0; t < THREADS; t++) {
+			int n = t;
+
+			threads[t] = new Thread(() -> {
+				try {
+					start.await();
+				}
+				catch (InterruptedException e) {
+					return;
+				}
+
+				player.play(n);
+			});
+			threads[t].start();
+		}
+
+		start.countDown();
+
+		for (Thread t : threads) {
+			t.join();
+		}
+	}
+
+	// ----- Internal classes ----- //
+
+	/**
+	 * Player interface. Moves played by one of the threads.
+	 */
+	private interface Player {
+		/**
+		 * Play the moves of a thread.
+		 * @param t 	number of the thread.
+		 */
+		void play (int t);
+	}
+} // ConcurrentBoardTest
@@ -0,0 +1,153 @@
+/*
+ * InfiniteBoardTest.java
+ */
+
+// ----- Package ----- //
+
+package minesweeper.infinite;
+
+// ----- Imports ----- //
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * InfiniteBoardTest class. Tests of the InfiniteBoard class, whose chunks go through the spill file.
+ *
+ * @author Baert Quentin
+ */
+
+class InfiniteBoardTest {
+	// ----- Attributes ----- //
+
+	/**
+	 * Directory of the spill files.
+	 */
+	@TempDir
+	Path dir;
+
+	// ----- Methods ----- //
+
+	/**
+	 * The discovered squares and the flags of a chunk evicted come back with it.
+	 * @exception 	If the spill file can not be used.
+	 */
+	@Test
+	void spillRoundTrip () throws IOException {
+		try (InfiniteBoard b = this.board()) {
+			long[] revealed = b.reveal(0, 0);
+
+			b.putFlag(1000, 1000);
+			b.putFlag(-70, 30);
+			churn(b);
+
+			assertTrue(b.getSpilledChunks() > 0);
+
+			for (long c : revealed) {
+				assertTrue(b.isDiscovered((int) (c >> 32), (int) c));
+			}
+
+			assertTrue(b.hasFlag(1000, 1000));
+			assertTrue(b.hasFlag(-70, 30));
+			assertFalse(b.hasFlag(1001, 1000));
+			assertFalse(b.isDiscovered(1000, 1000));
+		}
+	}
+
+	/**
+	 * A flag removed from a chunk read back from the spill file stays removed after its next eviction.
+	 * @exception 	If the spill file can not be used.
+	 */
+	@Test
+	void flagRemovedAfterReload () throws IOException {
+		try (InfiniteBoard b = this.board()) {
+			b.putFlag(1000, 1000);
+			churn(b);
+
+			assertTrue(b.hasFlag(1000, 1000));
+
+			b.removeFlag(1000, 1000);
+			churn(b);
+
+			assertFalse(b.hasFlag(1000, 1000));
+		}
+	}
+
+	/**
+	 * A cascade stopped by the maximum number of squares goes on at the next calls,
+	 * and ends with the squares of the cascade not stopped.
+	 * @exception 	If the spill file can not be used.
+	 */
+	@Test
+	void cappedCascadeResumes () throws IOException {
+		try (InfiniteBoard full = this.board(); InfiniteBoard capped = this.board()) {
+			long[] all 	 = full.reveal(0, 0);
+			int    total = 0;
+
+			capped.setMaxCascade(5);
+
+			for (long[] part = capped.reveal(0, 0); part.length > 0; part = capped.continueCascade()) {
+				assertTrue(part.length <= 5);
+				total += part.length;
+			}
+
+			assertFalse(capped.isCascading());
+			assertEquals(all.length, total);
+
+			for (long c : all) {
+				assertTrue(capped.isDiscovered((int) (c >> 32), (int) c));
+			}
+		}
+	}
+
+	/**
+	 * The chunk played between the accesses to other chunks is never evicted, even when its
+	 * squares are read many times in a row.
+	 * @exception 	If the spill file can not be used.
+	 */
+	@Test
+	void playedChunkStaysLoaded () throws IOException {
+		try (InfiniteBoard b = this.board()) {
+			b.isUndermined(10, 10);
+
+			long generated = b.getGeneratedChunks();
+
+			for (int k = 1; k <= 40; k++) {
+				for (int x = 0; x < 5; x++) {
+					b.isDiscovered(x, 10);
+				}
+
+				b.isUndermined(-100000 * k, 5000 * k);
+			}
+
+			assertEquals(generated + 40, b.getGeneratedChunks());
+		}
+	}
+
+	/**
+	 * Give a board keeping as few chunks as possible in memory, always the same.
+	 * @return board.
+	 * @exception 	If the spill file can not be created.
+	 */
+	private InfiniteBoard board () throws IOException {
+		return new InfiniteBoard(7, 0.15, 9, Files.createTempFile(this.dir, "chunks", ".spill"));
+	}
+
+	/**
+	 * Touch chunks far from the ones played, so that all of these are evicted.
+	 * @param b 	board.
+	 */
+	private static void churn (InfiniteBoard b) {
+		for (int k = 1; k <= 20; k++) {
+			b.isUndermined(-100000 * k, 5000 * k);
+		}
+	}
+} // InfiniteBoardTest
@@ -0,0 +1,109 @@
+/*
+ * ReplayerTest.java
+ */
+
+// ----- Package ----- //
+
+package minesweeper.journal;
+
+// ----- Imports ----- //
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import minesweeper.Board;
+
+/**
+ * ReplayerTest class. Tests of the Replayer class on journals written by the Journal class, or corrupted.
+ *
+ * @author Baert Quentin
+ */
+
+class ReplayerTest {
+	// ----- Attributes ----- //
+
+	/**
+	 * Directory of the journals.
+	 */
+	@TempDir
+	Path dir;
+
+	// ----- Methods ----- //
+
+	/**
+	 * A journal gives back the board it recorded.
+	 * @exception 	If the journal can not be used.
+	 */
+	@Test
+	void replaysJournal () throws IOException {
+		Path  path = this.dir.resolve("game.journal");
+		Board b    = new Board(16, 12);
+
+		b.init(30, 3L, 8, 6);
+
+		try (Journal j = new Journal(path, b, 8, 6)) {
+			b.reveal(8, 6);
+			j.discover(8, 6);
+			b.putFlag(0, 0);
+			j.putFlag(0, 0);
+		}
+
+		Replayer.Replay r = Replayer.replay(path);
+
+		assertEquals(2, r.getNbOfMoves());
+		assertEquals(b.getHash(), r.getBoard().getHash());
+	}
+
+	/**
+	 * A move on a square outside of the board is reported as a corrupted record.
+	 * @exception 	If the journal can not be written.
+	 */
+	@Test
+	void rejectsMoveOutsideBoard () throws IOException {
+		Path  path = this.dir.resolve("outside.journal");
+		Board b    = new Board(16, 12);
+
+		b.init(30, 3L, 8, 6);
+
+		try (Journal j = new Journal(path, b, 8, 6)) {
+			j.discover(8, 6);
+			j.putFlag(0, 12);
+		}
+
+		IOException e = assertThrows(IOException.class, () -> Replayer.replay(path));
+
+		assertTrue(e.getMessage().endsWith("is corrupted (record 1)."), e.getMessage());
+	}
+
+	/**
+	 * A header with a board without squares is reported as corrupted.
+	 * @exception 	If the journal can not be written.
+	 */
+	@Test
+	void rejectsEmptyBoard () throws IOException {
+		Path 	   path   = this.dir.resolve("empty.journal");
+		ByteBuffer header = ByteBuffer.allocate(Journal.HEADER);
+
+		header.putInt(Journal.MAGIC);
+		header.putInt(Journal.VERSION);
+		header.putInt(0);
+		header.putInt(-5);
+		header.putInt(0);
+		header.putInt(-1);
+		header.putInt(-1);
+		header.putInt(0);
+		header.putLong(0);
+		Files.write(path, header.array());
+
+		assertThrows(IOException.class, () -> Replayer.replay(path));
+	}
+} // ReplayerTest
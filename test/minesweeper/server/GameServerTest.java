@@ -0,0 +1,83 @@
+/*
+ * GameServerTest.java
+ */
+
+// ----- Package ----- //
+
+package minesweeper.server;
+
+// ----- Imports ----- //
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * GameServerTest class. Tests of the limits of the sessions of the GameServer class, through its requests.
+ *
+ * @author Baert Quentin
+ */
+
+class GameServerTest {
+	// ----- Methods ----- //
+
+	/**
+	 * A session beyond the maximal number of sessions is refused, until one is closed.
+	 * @exception 	If the server can not be opened.
+	 */
+	@Test
+	void limitsSessions () throws IOException {
+		try (GameServer server = new GameServer(0, 2, 1000, GameServer.IDLE_TIMEOUT)) {
+			String first = server.execute("new 10 10 10 1").substring(3);
+
+			assertTrue(server.execute("new 10 10 10 2").startsWith("OK "));
+			assertTrue(server.execute("new 10 10 10 3").startsWith("ERR "));
+			assertEquals("OK", server.execute("close " + first));
+			assertTrue(server.execute("new 10 10 10 4").startsWith("OK "));
+		}
+	}
+
+	/**
+	 * A session beyond the maximal number of squares is refused, and a refused or wrong session reserves nothing.
+	 * @exception 	If the server can not be opened.
+	 */
+	@Test
+	void limitsSquares () throws IOException {
+		try (GameServer server = new GameServer(0, 100, 1000, GameServer.IDLE_TIMEOUT)) {
+			assertTrue(server.execute("new 30 30 10 1").startsWith("OK "));
+			assertTrue(server.execute("new 10 11 10 2").startsWith("ERR "));
+			assertTrue(server.execute("new 10 10 100 3").startsWith("ERR "));
+			assertEquals(900, server.getNbOfSquares());
+			assertTrue(server.execute("new 10 10 10 4").startsWith("OK "));
+			assertEquals(1000, server.getNbOfSquares());
+		}
+	}
+
+	/**
+	 * The sessions without request for longer than the idle timeout are forgotten, and their squares released.
+	 * @exception 	If the server can not be opened.
+	 * @exception 	If the test is interrupted.
+	 */
+	@Test
+	void forgetsIdleSessions () throws IOException, InterruptedException {
+		try (GameServer server = new GameServer(0, 100, 1000, 60000)) {
+			String idle = server.execute("new 10 10 10 1").substring(3);
+			String used = server.execute("new 10 10 10 2").substring(3);
+			long   last = System.nanoTime();
+
+			Thread.sleep(200);
+			server.execute("reveal " + used + " 5 5");
+
+			// Idle for more than a minute, the other one used since
+			server.expire(last + 60100000000L);
+
+			assertEquals(1, server.getNbOfSessions());
+			assertEquals(100, server.getNbOfSquares());
+			assertTrue(server.execute("state " + idle).startsWith("ERR "));
+			assertTrue(server.execute("state " + used).startsWith("OK "));
+		}
+	}
+} // GameServerTest